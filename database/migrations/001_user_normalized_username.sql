@@ -0,0 +1,11 @@
+-- Adds the normalized username used for case-insensitive username lookups.
+-- The unique index fails if two existing usernames only differ by case or surrounding whitespace,
+-- such duplicates have to be renamed before running this script.
+
+ALTER TABLE users ADD COLUMN normalizedUsername VARCHAR(255) NULL;
+
+UPDATE users SET normalizedUsername = LOWER(TRIM(username));
+
+ALTER TABLE users MODIFY normalizedUsername VARCHAR(255) NOT NULL;
+
+CREATE UNIQUE INDEX users_normalizedUsername_uindex ON users (normalizedUsername);
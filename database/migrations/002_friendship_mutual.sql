@@ -0,0 +1,13 @@
+-- Stores on each friendship edge whether the reverse edge exists as well,
+-- so that friends, followers and following can be told apart with a single indexed predicate.
+-- The flag is kept current by UserService.addFriend and UserService.removeFriend.
+
+ALTER TABLE friendship ADD COLUMN mutual BOOLEAN NOT NULL DEFAULT FALSE;
+
+UPDATE friendship f1
+    JOIN friendship f2 ON f1.User1 = f2.User2 AND f1.User2 = f2.User1
+SET f1.mutual = TRUE;
+
+CREATE INDEX friendship_User1_mutual_index ON friendship (User1, mutual);
+
+CREATE INDEX friendship_User2_mutual_index ON friendship (User2, mutual);
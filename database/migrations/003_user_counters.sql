@@ -0,0 +1,17 @@
+-- Adds denormalized social counters to users, so that profile summaries need no aggregation.
+-- The counters are kept current by atomic updates in UserService and PostService.
+-- Requires 002_friendship_mutual.sql.
+
+ALTER TABLE users
+    ADD COLUMN postCount INT NOT NULL DEFAULT 0,
+    ADD COLUMN likesGivenCount INT NOT NULL DEFAULT 0,
+    ADD COLUMN friendsCount INT NOT NULL DEFAULT 0,
+    ADD COLUMN followersCount INT NOT NULL DEFAULT 0,
+    ADD COLUMN followingCount INT NOT NULL DEFAULT 0;
+
+UPDATE users u SET
+    postCount = (SELECT COUNT(*) FROM posted p WHERE p.userID = u.userID),
+    likesGivenCount = (SELECT COUNT(*) FROM likes l WHERE l.userID = u.userID),
+    friendsCount = (SELECT COUNT(*) FROM friendship f WHERE f.User1 = u.userID AND f.mutual = TRUE),
+    followersCount = (SELECT COUNT(*) FROM friendship f WHERE f.User2 = u.userID AND f.mutual = FALSE),
+    followingCount = (SELECT COUNT(*) FROM friendship f WHERE f.User1 = u.userID AND f.mutual = FALSE);
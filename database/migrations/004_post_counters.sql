@@ -0,0 +1,11 @@
+-- Adds denormalized like and comment counters to posts, so that post listings need no aggregation.
+-- The counters are kept current by atomic updates in UserService and PostService,
+-- and reconciled with the likes and postComments tables by a background repair task.
+
+ALTER TABLE posts
+    ADD COLUMN likeCount INT NOT NULL DEFAULT 0,
+    ADD COLUMN commentCount INT NOT NULL DEFAULT 0;
+
+UPDATE posts p SET
+    likeCount = (SELECT COUNT(*) FROM likes l WHERE l.postID = p.postID),
+    commentCount = (SELECT COUNT(*) FROM postComments c WHERE c.post_ID = p.postID);
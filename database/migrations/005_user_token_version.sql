@@ -0,0 +1,5 @@
+-- Adds a per-user token version, embedded in every JWT as the "tv" claim.
+-- Incrementing it revokes every token issued before, on every instance and across restarts.
+-- Kept current by TokenRevocationRegistry.
+
+ALTER TABLE users ADD COLUMN tokenVersion INT NOT NULL DEFAULT 0;
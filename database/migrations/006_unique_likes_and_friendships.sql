@@ -0,0 +1,9 @@
+-- Adds unique keys to the likes and friendship join tables, so that a like or a friendship edge can only exist once.
+-- UserService inserts both with INSERT IGNORE and only adjusts the counters when a row was actually inserted,
+-- which relies on these keys. ALTER IGNORE drops existing duplicate rows while the key is built.
+-- Skip a statement if the table already has a primary key on the same columns.
+-- Requires 003_user_counters.sql and 004_post_counters.sql; rerun their UPDATE statements if duplicates were dropped.
+
+ALTER IGNORE TABLE likes ADD UNIQUE INDEX likes_userID_postID_uindex (userID, postID);
+
+ALTER IGNORE TABLE friendship ADD UNIQUE INDEX friendship_User1_User2_uindex (User1, User2);
@@ -2,6 +2,7 @@ package G2.SafeSpace;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * The main entry point for the SafeSpace application.
@@ -9,6 +10,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * This class contains the main method which serves as the entry point to start the Spring Boot application.
  * The {@link SpringBootApplication} annotation marks this class as the configuration class for the Spring Boot application,
  * and it enables component scanning, auto-configuration, and property support.
+ * {@link EnableScheduling} runs the background tasks of the services, such as refreshing friend recommendations.
  * </p>
  *
  * <p>
@@ -16,6 +18,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * </p>
  */
 @SpringBootApplication
+@EnableScheduling
 public class SafeSpaceApplication {
 
 	/**
@@ -0,0 +1,125 @@
+/**
+ * BCrypt {@link PasswordEncoder} whose cost factor is calibrated to the machine at startup.
+ * The highest cost whose hashing time stays within the configured target is used for new hashes.
+ * Every BCrypt hash records the cost it was created with, so existing hashes of any cost keep matching,
+ * and {@link #upgradeEncoding(String)} reports hashes of a lower cost so they are rehashed on the next login.
+ * Hashes of a higher cost are kept, as calibration is timing-noisy and restarts that alternate between two costs
+ * would otherwise rewrite, and even downgrade, every password on each login.
+ */
+package G2.SafeSpace.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+public class AdaptiveBCryptPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveBCryptPasswordEncoder.class);
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    private final int cost;
+    private final BCryptPasswordEncoder delegate;
+
+    /**
+     * Constructs a new {@code AdaptiveBCryptPasswordEncoder} and calibrates its cost factor.
+     *
+     * @param targetMillis the hashing time a single hash should take at most, in milliseconds.
+     * @param minCost      the lowest cost factor that may be chosen.
+     * @param maxCost      the highest cost factor that may be chosen.
+     */
+    public AdaptiveBCryptPasswordEncoder(long targetMillis, int minCost, int maxCost) {
+        this.cost = calibrate(targetMillis, minCost, maxCost);
+        this.delegate = new BCryptPasswordEncoder(cost);
+        log.info("Using BCrypt cost {} for a target hashing time of {} ms", cost, targetMillis);
+    }
+
+    /**
+     * Measures the hashing time of increasing cost factors.
+     * Each step doubles the work, so measuring stops at the first cost over the target.
+     *
+     * @param targetMillis the target hashing time in milliseconds.
+     * @param minCost      the lowest cost factor that may be chosen.
+     * @param maxCost      the highest cost factor that may be chosen.
+     * @return the highest cost within the target, or {@code minCost} if even that is slower.
+     */
+    private static int calibrate(long targetMillis, int minCost, int maxCost) {
+        // warm up so that the first measurement does not include class loading and JIT compilation
+        new BCryptPasswordEncoder(minCost).encode(CALIBRATION_PASSWORD);
+
+        int chosen = minCost;
+        for (int candidate = minCost; candidate <= maxCost; candidate++) {
+            BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(candidate);
+            long start = System.nanoTime();
+            encoder.encode(CALIBRATION_PASSWORD);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            if (elapsedMillis > targetMillis) {
+                break;
+            }
+            chosen = candidate;
+        }
+        return chosen;
+    }
+
+    /**
+     * @return the cost factor used for new hashes.
+     */
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * Encodes the raw password with the calibrated cost factor.
+     *
+     * @param rawPassword the password to encode.
+     * @return the BCrypt hash, which includes its cost factor.
+     */
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    /**
+     * Verifies a raw password against a stored hash, using the cost factor recorded in the hash.
+     *
+     * @param rawPassword     the password to verify.
+     * @param encodedPassword the stored hash.
+     * @return {@code true} if the password matches; {@code false} otherwise.
+     */
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return delegate.matches(rawPassword, encodedPassword);
+    }
+
+    /**
+     * Reports stored hashes created with a lower cost factor than the calibrated one,
+     * so that they are rehashed with the calibrated cost. Hashes are never downgraded.
+     *
+     * @param encodedPassword the stored hash.
+     * @return {@code true} if the hash should be rehashed; {@code false} otherwise.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int storedCost = costOf(encodedPassword);
+        return storedCost > 0 && storedCost < cost;
+    }
+
+    /**
+     * Reads the cost factor recorded in a BCrypt hash of the form {@code $2a$10$...}.
+     *
+     * @param encodedPassword the stored hash.
+     * @return the cost factor, or {@code -1} if the value is not a BCrypt hash.
+     */
+    static int costOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7
+                || encodedPassword.charAt(0) != '$' || encodedPassword.charAt(3) != '$'
+                || encodedPassword.charAt(6) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -2,23 +2,27 @@
  * Filter to handle JWT authentication for incoming HTTP requests.
  * This filter extracts the JWT token from the `Authorization` header, validates it,
  * and sets the authenticated user in the Spring Security context.
+ * The principal is built from the verified claims, so no database query is needed for regular requests.
  * Extends {@link OncePerRequestFilter} to ensure it is executed once per request.
  */
 package G2.SafeSpace.config;
 
 import G2.SafeSpace.entity.User;
 import G2.SafeSpace.repository.UserRepository;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 
 @Component
@@ -31,6 +35,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Value("${security.jwt.stateless:true}")
+    private boolean statelessMode;
+
     /**
      * Processes each request to validate the JWT token and authenticate the user.
      *
@@ -55,25 +65,57 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         //2. obtain the token
         String jwt = authHeader.split(" ")[1];
 
-        //3. obtain subject in jwt
-        String username = null;
+        //3. verify the token and obtain its claims
+        Claims claims;
         try{
-            username = jwtService.extractUsername(jwt);
+            claims = jwtService.extractAllClaims(jwt);
         } catch (Exception e) {
+            claims = null;
+        }
+        if (claims == null || claims.getSubject() == null) {
             response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid JWT token");
             return;
         }
 
-        //4. set authenticate object inside security context
-        User user = userRepository.findByUsername(username).get();
+        //4. build the principal from the claims, the user is only queried for tokens without an id claim
+        JwtPrincipal principal = resolvePrincipal(claims);
+        if (principal == null || tokenRevocationRegistry.isRevoked(principal.getUserId(),
+                claims.get(TokenRevocationRegistry.VERSION_CLAIM, Integer.class))) {
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid JWT token");
+            return;
+        }
 
+        //5. set authenticate object inside security context
         UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                username, null, user.getAuthorities()
+                principal, null, List.of()
         );
         SecurityContextHolder.getContext().setAuthentication(authToken);
 
-        //5. continue the filter chain
+        //6. continue the filter chain
         filterChain.doFilter(request, response);
 
     }
+
+    /**
+     * Builds the principal for the verified claims.
+     * In stateless mode the principal is taken directly from the {@code id} and subject claims.
+     * The user is looked up from the database only when stateless mode is disabled or the token
+     * was issued without a valid {@code id} claim. The entity loaded here is not kept on the principal,
+     * as it is detached from the persistence context of the request.
+     *
+     * @param claims the verified claims of the token.
+     * @return the {@link JwtPrincipal} of the caller, or {@code null} if the user no longer exists.
+     */
+    private JwtPrincipal resolvePrincipal(Claims claims) {
+        Integer userId = claims.get("id", Integer.class);
+        if (statelessMode && userId != null && userId > 0) {
+            return new JwtPrincipal(userId, claims.getSubject());
+        }
+
+        User user = userRepository.findByUsername(claims.getSubject());
+        if (user == null) {
+            return null;
+        }
+        return new JwtPrincipal(user.getUserID(), user.getUsername());
+    }
 }
@@ -0,0 +1,78 @@
+/**
+ * Principal placed into the Spring Security context by {@link JwtAuthenticationFilter}.
+ * Built from the verified JWT claims, so identifying the caller does not require a database query.
+ * The principal lives for a single request and also carries the lazily loaded {@link User} entity,
+ * so the user is queried at most once per request.
+ */
+package G2.SafeSpace.config;
+
+import G2.SafeSpace.entity.User;
+
+import java.security.Principal;
+
+public class JwtPrincipal implements Principal {
+
+    private final int userId;
+    private final String username;
+    private User user;
+    private boolean userLoaded;
+
+    /**
+     * Constructs a new {@code JwtPrincipal}.
+     *
+     * @param userId   the ID of the authenticated user, taken from the {@code id} claim.
+     * @param username the username of the authenticated user, taken from the token subject.
+     */
+    public JwtPrincipal(int userId, String username) {
+        this.userId = userId;
+        this.username = username;
+    }
+
+    /**
+     * @return the ID of the authenticated user.
+     */
+    public int getUserId() {
+        return userId;
+    }
+
+    /**
+     * @return the username of the authenticated user.
+     */
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    /**
+     * @return {@code true} if the user entity has already been loaded for this request.
+     */
+    public boolean isUserLoaded() {
+        return userLoaded;
+    }
+
+    /**
+     * @return the user entity loaded for this request, or {@code null} if it has not been loaded
+     *         or the user no longer exists.
+     */
+    public User getUser() {
+        return user;
+    }
+
+    /**
+     * Stores the user entity loaded for this request.
+     *
+     * @param user the loaded {@link User}, or {@code null} if the user no longer exists.
+     */
+    public void setUser(User user) {
+        this.user = user;
+        this.userLoaded = true;
+    }
+
+    /**
+     * @return a string representation of the principal.
+     */
+    @Override
+    public String toString() {
+        return "JwtPrincipal{userId=" + userId + ", username='" + username + "'}";
+    }
+}
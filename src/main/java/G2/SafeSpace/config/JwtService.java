@@ -1,32 +1,111 @@
 /**
  * Service for managing JSON Web Tokens (JWT) in the application.
  * Handles token creation, validation, and extraction of claims and subject information.
+ * The signing keys and the parser are built once at startup. Several keys can be active at the same time,
+ * tokens name the key they were signed with in the {@code kid} header, which allows rotating keys at runtime.
  */
 package G2.SafeSpace.config;
 
 import G2.SafeSpace.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+
+import javax.crypto.SecretKey;
 import java.security.Key;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Service
 public class JwtService {
 
+    private static final String DEFAULT_KEY_ID = "default";
+
     @Value("${security.jwt.expiration-minutes}")
     private long EXPIRATION_MINUTES;
 
     @Value("${security.jwt.secret-key}")
     private String SECRET_KEY;
 
+    // additional keys as comma separated "kid:base64-secret" pairs
+    @Value("${security.jwt.keys:}")
+    private String ADDITIONAL_KEYS;
+
+    @Value("${security.jwt.active-key-id:" + DEFAULT_KEY_ID + "}")
+    private String ACTIVE_KEY_ID;
+
+    @Autowired
+    private VerifiedTokenCache tokenCache;
+
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    private volatile KeyRing keyRing;
+    private JwtParser parser;
+
+    /**
+     * Builds the signing keys and the token parser once at startup.
+     * Fails the startup if no secret is configured, or if a configured key is not valid base64 or too short for HS256.
+     */
+    @PostConstruct
+    void init() {
+        if (SECRET_KEY == null || SECRET_KEY.isBlank()) {
+            throw new IllegalStateException("No JWT secret configured: set the JWT_SECRET environment variable "
+                    + "(or security.jwt.secret-key) to a base64 encoded secret of at least 256 bits");
+        }
+        Map<String, String> encodedKeys = new LinkedHashMap<>();
+        encodedKeys.put(DEFAULT_KEY_ID, SECRET_KEY);
+        encodedKeys.putAll(parseKeys(ADDITIONAL_KEYS));
+        rotateKeys(encodedKeys, ACTIVE_KEY_ID);
+
+        parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return keyRing.find(header.getKeyId());
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Replaces the set of active signing keys.
+     * Tokens signed with any of the given keys are accepted, new tokens are signed with the key
+     * named by {@code activeKeyId}. Tokens without a key id are verified with the active key.
+     * The keys are configured through {@code security.jwt.secret-key} and {@code security.jwt.keys},
+     * so they are rotated by changing the configuration and restarting.
+     *
+     * @param encodedKeys the base64 encoded secrets, keyed by their key id.
+     * @param activeKeyId the id of the key used for signing new tokens.
+     * @throws IllegalStateException if a key is invalid or the active key is not among the given keys.
+     */
+    private void rotateKeys(Map<String, String> encodedKeys, String activeKeyId) {
+        Map<String, SecretKey> keys = new HashMap<>();
+        for (Map.Entry<String, String> entry : encodedKeys.entrySet()) {
+            keys.put(entry.getKey(), generateKey(entry.getKey(), entry.getValue()));
+        }
+        if (!keys.containsKey(activeKeyId)) {
+            throw new IllegalStateException("Active JWT key '" + activeKeyId + "' is not configured");
+        }
+        keyRing = new KeyRing(Map.copyOf(keys), activeKeyId);
+        // tokens verified with a key that was removed must be verified again
+        tokenCache.clear();
+    }
+
     /**
      * Generates a JWT token for the given user with additional claims.
+     * The token carries the current token version of the user, so it can be revoked through
+     * {@link TokenRevocationRegistry}.
      *
      * @param user         the {@link User} for whom the token is being generated.
      * @param extraClaims  a {@link Map} containing additional claims to include in the token.
@@ -36,24 +115,55 @@ public class JwtService {
 
         Date issuedAt = new Date(System.currentTimeMillis());
         Date expiration = new Date(System.currentTimeMillis() + EXPIRATION_MINUTES * 60000);
+        KeyRing currentKeys = keyRing;
 
         return Jwts.builder()
-                .setClaims(extraClaims)
-                .setSubject(user.getUsername())
-                .setIssuedAt(issuedAt)
-                .setExpiration(expiration)
-                .signWith(generateKey(), SignatureAlgorithm.HS256)
+                .header().keyId(currentKeys.activeKeyId).and()
+                .claims(extraClaims)
+                .claim(TokenRevocationRegistry.VERSION_CLAIM, tokenRevocationRegistry.currentVersion(user.getUserID()))
+                .subject(user.getUsername())
+                .issuedAt(issuedAt)
+                .expiration(expiration)
+                .signWith(currentKeys.activeKey(), Jwts.SIG.HS256)
                 .compact();
     }
 
     /**
      * Generates the secret key used for signing and verifying JWT tokens.
      *
-     * @return the generated {@link Key}.
+     * @param keyId   the id of the key, used in error messages.
+     * @param encoded the base64 encoded secret.
+     * @return the generated {@link SecretKey}.
+     * @throws IllegalStateException if the secret is not valid base64 or too short for HS256.
      */
-    private Key generateKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private SecretKey generateKey(String keyId, String encoded) {
+        try {
+            byte[] keyBytes = Decoders.BASE64.decode(encoded);
+            return Keys.hmacShaKeyFor(keyBytes);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Invalid JWT key '" + keyId + "': " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Parses additional keys given as comma separated {@code kid:secret} pairs.
+     *
+     * @param value the configured value, may be empty.
+     * @return the encoded secrets keyed by their key id.
+     */
+    private Map<String, String> parseKeys(String value) {
+        Map<String, String> keys = new LinkedHashMap<>();
+        if (value == null || value.isBlank()) {
+            return keys;
+        }
+        for (String pair : value.split(",")) {
+            String[] parts = pair.trim().split(":", 2);
+            if (parts.length != 2 || parts[0].isBlank()) {
+                throw new IllegalStateException("Invalid JWT key entry '" + pair + "', expected kid:secret");
+            }
+            keys.put(parts[0].trim(), parts[1].trim());
+        }
+        return keys;
     }
 
     /**
@@ -64,23 +174,54 @@ public class JwtService {
      */
     public String extractUsername(String jwt) {
 
-        return extractedAllClaims(jwt).getSubject();
+        return extractAllClaims(jwt).getSubject();
     }
 
     /**
      * Extracts all claims from the given JWT.
+     * Tokens that have already been verified are answered from the {@link VerifiedTokenCache}.
+     * A token verified while the keys are rotated is not cached, see {@link VerifiedTokenCache#put}.
      *
      * @param jwt the JWT token from which claims are extracted.
      * @return a {@link Claims} object containing the claims, or {@code null} if the token is invalid.
      */
-    private Claims extractedAllClaims(String jwt) {
+    public Claims extractAllClaims(String jwt) {
+        Claims cached = tokenCache.get(jwt);
+        if (cached != null) {
+            return cached;
+        }
+        long cacheGeneration = tokenCache.generation();
         try{
-            return Jwts.parser().setSigningKey(generateKey())
-                    .build()
-                    .parseClaimsJws(jwt)
-                    .getBody();
+            Claims claims = parser.parseSignedClaims(jwt).getPayload();
+            tokenCache.put(jwt, claims, cacheGeneration);
+            return claims;
         } catch (Exception e) {
             return null;
         }
     }
+
+    /**
+     * Immutable set of signing keys, swapped as a whole when keys are rotated.
+     */
+    private static final class KeyRing {
+
+        private final Map<String, SecretKey> keys;
+        private final String activeKeyId;
+
+        private KeyRing(Map<String, SecretKey> keys, String activeKeyId) {
+            this.keys = keys;
+            this.activeKeyId = activeKeyId;
+        }
+
+        private SecretKey activeKey() {
+            return keys.get(activeKeyId);
+        }
+
+        private SecretKey find(String keyId) {
+            if (keyId == null) {
+                return activeKey();
+            }
+            return keys.get(keyId);
+        }
+    }
 }
@@ -2,18 +2,20 @@
  * Configuration class to provide security-related beans for the application.
  * Handles the setup of authentication manager, authentication provider,
  * password encoder, and user details service.
+ * Passwords hashed with a lower cost factor than the calibrated one are rehashed on login
+ * by {@link G2.SafeSpace.service.AuthenticationService}.
  */
 package G2.SafeSpace.config;
 
 import G2.SafeSpace.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
@@ -23,6 +25,15 @@ public class SecurityBeanInjector {
     @Autowired
     private UserRepository userRepository;
 
+    @Value("${security.password.bcrypt-target-ms:250}")
+    private long BCRYPT_TARGET_MS;
+
+    @Value("${security.password.bcrypt-min-cost:10}")
+    private int BCRYPT_MIN_COST;
+
+    @Value("${security.password.bcrypt-max-cost:14}")
+    private int BCRYPT_MAX_COST;
+
     /**
      * Provides an {@link AuthenticationManager} bean.
      *
@@ -51,13 +62,14 @@ public class SecurityBeanInjector {
     }
 
     /**
-     * Provides a {@link PasswordEncoder} bean using the {@link BCryptPasswordEncoder}.
+     * Provides a {@link PasswordEncoder} bean using the {@link AdaptiveBCryptPasswordEncoder},
+     * calibrated at startup to the configured target hashing time.
      *
      * @return a {@link PasswordEncoder} instance.
      */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new AdaptiveBCryptPasswordEncoder(BCRYPT_TARGET_MS, BCRYPT_MIN_COST, BCRYPT_MAX_COST);
     }
 
     /**
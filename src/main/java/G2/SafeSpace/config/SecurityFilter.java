@@ -43,6 +43,7 @@ public class SecurityFilter {
                     // Permit all users to access the following endpoints
                     authConfig.requestMatchers(HttpMethod.POST, "/auth/register").permitAll();
                     authConfig.requestMatchers(HttpMethod.POST, "/auth/login").permitAll();
+                    authConfig.requestMatchers(HttpMethod.GET, "/auth/username-available").permitAll();
                     authConfig.requestMatchers("/error").permitAll();
 
                     // Authentication for static resources
@@ -0,0 +1,131 @@
+/**
+ * Keeps track of explicitly revoked JWT tokens.
+ * Since the authentication filter trusts the verified claims instead of querying the user on every request,
+ * tokens that must stop working before they expire (for example after an account is deleted or renamed)
+ * are revoked here per user.
+ * <p>
+ * Every token carries the token version of its user in the {@value #VERSION_CLAIM} claim, and revoking the tokens
+ * of a user increments the version stored with the user. The revocation therefore survives restarts and applies
+ * to every instance. Current versions are cached for {@code security.jwt.revocation.cache-ttl-ms}, which bounds
+ * how long another instance keeps accepting a revoked token. Tokens issued before versions existed count
+ * as version {@code 0}.
+ * </p>
+ */
+package G2.SafeSpace.config;
+
+import G2.SafeSpace.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class TokenRevocationRegistry {
+
+    /**
+     * The claim carrying the token version of the user a token was issued to.
+     */
+    public static final String VERSION_CLAIM = "tv";
+
+    // cached for users that no longer exist, whose tokens are all revoked
+    private static final int MISSING_USER = -1;
+
+    private final UserRepository userRepository;
+    private final long cacheTtlMillis;
+    private final int maxSize;
+    private final Map<Integer, CachedVersion> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new {@code TokenRevocationRegistry}.
+     *
+     * @param userRepository the repository the token versions are stored in.
+     * @param cacheTtlMillis how long a token version is cached.
+     * @param maxSize        the maximum number of cached token versions.
+     */
+    @Autowired
+    public TokenRevocationRegistry(UserRepository userRepository,
+                                   @Value("${security.jwt.revocation.cache-ttl-ms:30000}") long cacheTtlMillis,
+                                   @Value("${security.jwt.revocation.cache.max-size:10000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.cacheTtlMillis = cacheTtlMillis;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Revokes all tokens issued to the given user so far.
+     * Tokens issued afterwards carry the incremented version and remain valid.
+     *
+     * @param userId the ID of the user whose tokens are revoked.
+     */
+    public void revokeTokens(int userId) {
+        userRepository.incrementTokenVersion(userId);
+        versions.remove(userId);
+    }
+
+    /**
+     * Returns the current token version of the given user, the version new tokens are issued with.
+     *
+     * @param userId the ID of the user.
+     * @return the token version, or {@code -1} if the user does not exist.
+     */
+    public int currentVersion(int userId) {
+        long now = System.currentTimeMillis();
+        CachedVersion cached = versions.get(userId);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.version;
+        }
+        Integer version = userRepository.findTokenVersion(userId);
+        int current = version != null ? version : MISSING_USER;
+        if (versions.size() >= maxSize) {
+            evict(now);
+        }
+        versions.put(userId, new CachedVersion(current, now + cacheTtlMillis));
+        return current;
+    }
+
+    /**
+     * Checks whether a token issued to the given user with the given version has been revoked.
+     *
+     * @param userId       the ID of the user the token was issued to.
+     * @param tokenVersion the {@value #VERSION_CLAIM} claim of the token, or {@code null} if it does not carry one.
+     * @return {@code true} if the token has been revoked or the user no longer exists; {@code false} otherwise.
+     */
+    public boolean isRevoked(int userId, Integer tokenVersion) {
+        int current = currentVersion(userId);
+        return current == MISSING_USER || (tokenVersion != null ? tokenVersion : 0) != current;
+    }
+
+    /**
+     * Makes room for new entries by dropping expired versions first,
+     * and then arbitrary entries until the cache is below ninety percent of its size.
+     *
+     * @param now the current time in milliseconds.
+     */
+    private void evict(long now) {
+        versions.values().removeIf(cached -> cached.expiresAt <= now);
+
+        int target = maxSize - Math.max(1, maxSize / 10);
+        Iterator<Integer> keys = versions.keySet().iterator();
+        while (versions.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    /**
+     * A token version together with the time it stops being trusted.
+     */
+    private static final class CachedVersion {
+
+        private final int version;
+        private final long expiresAt;
+
+        private CachedVersion(int version, long expiresAt) {
+            this.version = version;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
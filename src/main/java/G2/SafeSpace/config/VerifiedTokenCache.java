@@ -0,0 +1,167 @@
+/**
+ * Size-bounded cache of verified JWT claims.
+ * Lets {@link JwtService} skip decoding, verifying and parsing a token it has already verified.
+ * Entries are keyed by a SHA-256 digest of the token, so raw tokens are never kept in memory,
+ * and an entry is never returned once the token has expired.
+ * Hits and misses are published as the {@code jwt.cache.requests} metric.
+ */
+package G2.SafeSpace.config;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final Map<String, CachedClaims> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final int maxSize;
+    private final Counter hits;
+    private final Counter misses;
+
+    /**
+     * Constructs a new {@code VerifiedTokenCache}.
+     *
+     * @param maxSize       the maximum number of cached tokens.
+     * @param meterRegistry the {@link MeterRegistry} the cache metrics are registered to.
+     */
+    public VerifiedTokenCache(@Value("${security.jwt.cache.max-size:10000}") int maxSize,
+                              MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.hits = Counter.builder("jwt.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("jwt.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("jwt.cache.size", entries, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached claims of the given token.
+     *
+     * @param jwt the raw token.
+     * @return the verified {@link Claims}, or {@code null} if the token is not cached or has expired.
+     */
+    public Claims get(String jwt) {
+        String key = digest(jwt);
+        CachedClaims cached = entries.get(key);
+        if (cached != null) {
+            if (cached.expiresAt > System.currentTimeMillis()) {
+                hits.increment();
+                return cached.claims;
+            }
+            entries.remove(key, cached);
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Returns the current generation of the cache, which changes every time the cache is cleared.
+     * Must be read before a token is verified and passed to {@link #put(String, Claims, long)}.
+     *
+     * @return the current generation.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Caches the claims of a token that has just been verified.
+     * Tokens without an expiration are not cached, and neither are tokens verified before the cache
+     * was last cleared, as they may have been verified with a signing key that has since been removed.
+     *
+     * @param jwt        the raw token.
+     * @param claims     the verified claims of the token.
+     * @param generation the {@link #generation()} read before the token was verified.
+     */
+    public void put(String jwt, Claims claims, long generation) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null || expiration.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        if (generation != this.generation.get()) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict();
+        }
+        String key = digest(jwt);
+        CachedClaims cached = new CachedClaims(claims, expiration.getTime());
+        entries.put(key, cached);
+        // a clear that raced with the insert may have missed the entry
+        if (generation != this.generation.get()) {
+            entries.remove(key, cached);
+        }
+    }
+
+    /**
+     * Removes all cached tokens, used when the signing keys change.
+     * Tokens being verified while the cache is cleared are not cached afterwards.
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    /**
+     * Makes room for new entries by dropping expired tokens first,
+     * and then arbitrary entries until the cache is below ninety percent of its size.
+     */
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(cached -> cached.expiresAt <= now);
+
+        int target = maxSize - Math.max(1, maxSize / 10);
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    /**
+     * Computes the cache key of a token.
+     *
+     * @param jwt the raw token.
+     * @return the hex encoded SHA-256 digest of the token.
+     */
+    private String digest(String jwt) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        return HexFormat.of().formatHex(digest.digest(jwt.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Verified claims together with the expiration time of their token.
+     */
+    private static final class CachedClaims {
+
+        private final Claims claims;
+        private final long expiresAt;
+
+        private CachedClaims(Claims claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -7,10 +7,16 @@ import G2.SafeSpace.dto.AuthenticationRequest;
 import G2.SafeSpace.dto.UserDTO;
 import G2.SafeSpace.service.AuthenticationService;
 import G2.SafeSpace.service.UserService;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * Handles requests for authentication endpoints such as user registration and login.
  */
@@ -34,46 +40,97 @@ public class AuthenticationController {
 
     /**
      * Endpoint for user registration.
+     * The password is hashed on a dedicated worker pool, so the response completes asynchronously.
      *
      * @param request the {@link AuthenticationRequest} containing the username and password.
-     * @return a {@link ResponseEntity} containing a {@link UserDTO} with user details if successful,
-     *         or an appropriate HTTP status code for failure scenarios.
+     * @return a {@link CompletableFuture} of a {@link ResponseEntity} containing a {@link UserDTO} with user details
+     *         if successful, or an appropriate HTTP status code for failure scenarios.
      *         <ul>
      *             <li>{@code 201 Created} - if registration is successful.</li>
      *             <li>{@code 409 Conflict} - if the username is already in use.</li>
      *             <li>{@code 400 Bad Request} - if the username or password is missing or invalid.</li>
+     *             <li>{@code 503 Service Unavailable} - if too many passwords are already waiting to be hashed.</li>
      *         </ul>
      */
     @PostMapping("/register")
-    public ResponseEntity<UserDTO> register(@RequestBody AuthenticationRequest request) {
+    public CompletableFuture<ResponseEntity<UserDTO>> register(@RequestBody AuthenticationRequest request) {
         String username = request.getUsername();
         String password = request.getPassword();
         if (username != null && !username.trim().isEmpty() && password != null && !password.trim().isEmpty()) {
             if (userService.isUsernameAvailable(request.getUsername())) {
-                return ResponseEntity.status(HttpStatus.CREATED).body(authenticationService.register(request));
+                return authenticationService.register(request)
+                        .thenApply(userDTO -> ResponseEntity.status(HttpStatus.CREATED).body(userDTO))
+                        .exceptionally(this::handleAsyncFailure);
             } else {
-                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.CONFLICT).build());
             }
         }
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST).build());
     }
 
     /**
      * Endpoint for user login.
+     * The password is verified on a dedicated worker pool, so the response completes asynchronously.
      *
      * @param request the {@link AuthenticationRequest} containing the username and password.
-     * @return a {@link ResponseEntity} containing a {@link UserDTO} with user details and a JWT token if successful,
-     *         or an appropriate HTTP status code for failure scenarios.
+     * @return a {@link CompletableFuture} of a {@link ResponseEntity} containing a {@link UserDTO} with user details
+     *         and a JWT token if successful, or an appropriate HTTP status code for failure scenarios.
      *         <ul>
      *             <li>{@code 200 OK} - if login is successful.</li>
-     *             <li>{@code 400 Bad Request} - if the username or password is invalid.</li>
+     *             <li>{@code 400 Bad Request} - if the username or password is missing or invalid.</li>
+     *             <li>{@code 503 Service Unavailable} - if too many passwords are already waiting to be hashed.</li>
      *         </ul>
      */
     @PostMapping("/login")
-    public ResponseEntity<UserDTO> login(@RequestBody AuthenticationRequest request) {
-        if (userService.findUserByUsername(request.getUsername()) != null && request.getPassword() != null) {
-            return ResponseEntity.status(HttpStatus.OK).body(authenticationService.login(request));
+    public CompletableFuture<ResponseEntity<UserDTO>> login(@RequestBody AuthenticationRequest request) {
+        if (request.getUsername() != null && request.getPassword() != null) {
+            return authenticationService.login(request)
+                    .thenApply(userDTO -> ResponseEntity.status(HttpStatus.OK).body(userDTO))
+                    .exceptionally(this::handleAsyncFailure);
+        }
+        return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.BAD_REQUEST).build());
+    }
+
+    /**
+     * Endpoint for checking whether a username is still available, meant to be called while the user types.
+     * The check ignores case and surrounding whitespace and is usually answered from memory.
+     *
+     * @param username the username to check.
+     * @return a {@link ResponseEntity} containing {@code true} if the username is available, {@code false} otherwise.
+     *         <ul>
+     *             <li>{@code 200 OK} - with the availability of the username.</li>
+     *             <li>{@code 400 Bad Request} - if the username is missing or blank.</li>
+     *         </ul>
+     */
+    @GetMapping("/username-available")
+    public ResponseEntity<Boolean> isUsernameAvailable(@RequestParam(required = false) String username) {
+        if (username == null || username.trim().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        return ResponseEntity.ok(userService.isUsernameAvailable(username));
+    }
+
+    /**
+     * Maps failures of the asynchronous authentication to responses.
+     * Requests rejected by the full hashing queue are answered with {@code 503 Service Unavailable},
+     * registrations losing a race for the same username with {@code 409 Conflict},
+     * and logins with an unknown username or a wrong password alike with {@code 400 Bad Request}.
+     * Any other failure, such as bad credentials, is passed on unchanged.
+     *
+     * @param throwable the failure of the asynchronous authentication.
+     * @return a {@link ResponseEntity} with the matching error status.
+     */
+    private ResponseEntity<UserDTO> handleAsyncFailure(Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        if (cause instanceof DataIntegrityViolationException) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        if (cause instanceof BadCredentialsException) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        throw throwable instanceof CompletionException completion ? completion : new CompletionException(cause);
     }
 }
@@ -4,7 +4,6 @@
 package G2.SafeSpace.controller;
 
 import G2.SafeSpace.config.CustomMultipart;
-import G2.SafeSpace.entity.User;
 import G2.SafeSpace.service.ImageService;
 import G2.SafeSpace.service.UserContextService;
 import net.coobird.thumbnailator.Thumbnails;
@@ -55,8 +54,8 @@ public class ImageController {
      */
     @PostMapping("/profile")
     public ResponseEntity<String> profileImage(@RequestParam("file") MultipartFile file) {
-        Optional<User> optionalUser = getCurrentUser();
-        if (optionalUser.isEmpty()) {
+        Optional<Integer> currentUserId = getCurrentUserId();
+        if (currentUserId.isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
@@ -85,8 +84,8 @@ public class ImageController {
      */
     @PostMapping("/post")
     public ResponseEntity<String> postImage(@RequestParam("file") MultipartFile file) {
-        Optional<User> optionalUser = getCurrentUser();
-        if (optionalUser.isEmpty()) {
+        Optional<Integer> currentUserId = getCurrentUserId();
+        if (currentUserId.isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
 
@@ -170,12 +169,12 @@ public class ImageController {
     }
 
     /**
-     * Retrieves the currently authenticated user from the context.
+     * Retrieves the ID of the currently authenticated user from the context without loading the user entity.
      *
-     * @return an {@link Optional} containing the current user, or empty if not authenticated.
+     * @return an {@link Optional} containing the current user ID, or empty if not authenticated.
      */
-    private Optional<User> getCurrentUser() {
-        return userContextService.getCurrentUser();
+    private Optional<Integer> getCurrentUserId() {
+        return userContextService.getCurrentUserId();
     }
 
 }
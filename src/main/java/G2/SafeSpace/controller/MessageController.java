@@ -58,6 +58,15 @@ public class MessageController {
         return userContextService.getCurrentUser();
     }
 
+    /**
+     * Helper method to get the ID of the currently authenticated user without loading the user entity.
+     *
+     * @return an {@link Optional} containing the user ID if authenticated, otherwise empty
+     */
+    private Optional<Integer> getCurrentUserId() {
+        return userContextService.getCurrentUserId();
+    }
+
     /**
      * Sends a message from the current user to the specified recipient.
      *
@@ -67,11 +76,11 @@ public class MessageController {
      */
     @PostMapping("/message/send")
     public ResponseEntity<String> sendMessage(@RequestParam int toUserId, @RequestParam String messageContent) {
-        Optional<User> optionalUser = getCurrentUser();
-        if (optionalUser.isEmpty()) {
+        Optional<Integer> currentUserId = getCurrentUserId();
+        if (currentUserId.isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        if (messageService.sendMessage(optionalUser.get().getUserID(), toUserId, messageContent) != null) {
+        if (messageService.sendMessage(currentUserId.get(), toUserId, messageContent) != null) {
             return ResponseEntity.ok("Message sent successfully!");
         }
         return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -1,12 +1,16 @@
 package G2.SafeSpace.controller;
 
 import G2.SafeSpace.dto.CommentDTO;
+import G2.SafeSpace.dto.CursorPageDTO;
+import G2.SafeSpace.dto.FieldSelection;
 import G2.SafeSpace.dto.PostDTO;
 import G2.SafeSpace.entity.Comment;
 import G2.SafeSpace.entity.Post;
 import G2.SafeSpace.entity.User;
 import G2.SafeSpace.repository.PostRepository;
+import G2.SafeSpace.service.HotFeedService;
 import G2.SafeSpace.service.PostService;
+import G2.SafeSpace.service.TimelineService;
 import G2.SafeSpace.service.UserContextService;
 import G2.SafeSpace.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,10 +29,15 @@ import java.util.Optional;
 @RestController
 @RequestMapping("api/v1")
 public class PostController {
+
+    private static final int MAX_PAGE_LIMIT = 100;
+
     private final PostService postService;
     private final UserContextService userContextService;
     private final PostRepository postRepository;
     private final UserService userService;
+    private final TimelineService timelineService;
+    private final HotFeedService hotFeedService;
 
     /**
      * Constructor to initialize PostController with required services and repositories.
@@ -37,16 +46,22 @@ public class PostController {
      * @param userContextService Service to retrieve the current authenticated user.
      * @param postRepository     Repository for accessing Post entities.
      * @param userService        Service for managing user-related actions.
+     * @param timelineService    Service for the home timelines of users.
+     * @param hotFeedService     Service for the ranking of the hot feed.
      */
     @Autowired
     public PostController(PostService postService,
                           UserContextService userContextService,
                           PostRepository postRepository,
-                          UserService userService) {
+                          UserService userService,
+                          TimelineService timelineService,
+                          HotFeedService hotFeedService) {
         this.postService = postService;
         this.userContextService = userContextService;
         this.postRepository = postRepository;
         this.userService = userService;
+        this.timelineService = timelineService;
+        this.hotFeedService = hotFeedService;
     }
 
     /**
@@ -58,6 +73,15 @@ public class PostController {
         return userContextService.getCurrentUser();
     }
 
+    /**
+     * Helper method to get the ID of the currently authenticated user without loading the user entity.
+     *
+     * @return an {@link Optional} containing the user ID if authenticated, otherwise empty
+     */
+    private Optional<Integer> getCurrentUserId() {
+        return userContextService.getCurrentUserId();
+    }
+
 
     /**
      * Likes a post.
@@ -157,17 +181,64 @@ public class PostController {
     }
 
     /**
-     * Retrieves all posts.
+     * Retrieves one page of the feed, newest first.
+     * The next page is requested by passing the {@code nextCursor} of the previous page as {@code before}.
      *
-     * @return ResponseEntity containing a list of PostDTOs.
+     * @param before The cursor of the page, omitted for the first page.
+     * @param limit  The maximum number of posts on the page, between 1 and {@value #MAX_PAGE_LIMIT}, defaults to 20.
+     * @param fields The sections to include, any of {@code creator} and {@code counts}, all of them if omitted.
+     * @return ResponseEntity containing a page of PostDTOs.
      */
     @GetMapping("/post")
-    public ResponseEntity<List<PostDTO>> getAllPosts() {
-        Optional<User> userOptional = getCurrentUser();
-        if (userOptional.isEmpty()) {
+    public ResponseEntity<CursorPageDTO<PostDTO>> getAllPosts(@RequestParam(required = false) Integer before,
+                                                              @RequestParam(defaultValue = "20") int limit,
+                                                              @RequestParam(required = false) List<String> fields) {
+        Optional<Integer> currentUserId = getCurrentUserId();
+        if (currentUserId.isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        List<PostDTO> posts = postService.findAllPosts();
+        int boundedLimit = Math.min(Math.max(limit, 1), MAX_PAGE_LIMIT);
+        CursorPageDTO<PostDTO> page = postService.findPostsPage(before, boundedLimit, FieldSelection.of(fields));
+        if (!page.getItems().isEmpty()) {
+            return ResponseEntity.ok(page);
+        }
+        return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+    }
+
+    /**
+     * Retrieves one page of the home timeline of the current user, the newest posts of the users they have
+     * added as friends. The next page is requested by passing the {@code nextCursor} of the previous page
+     * as {@code before}.
+     *
+     * @param before The cursor of the page, omitted for the first page.
+     * @param limit  The maximum number of posts on the page, between 1 and {@value #MAX_PAGE_LIMIT}, defaults to 20.
+     * @return ResponseEntity containing a page of PostDTOs.
+     */
+    @GetMapping("/post/timeline")
+    public ResponseEntity<CursorPageDTO<PostDTO>> getTimeline(@RequestParam(required = false) Integer before,
+                                                              @RequestParam(defaultValue = "20") int limit) {
+        Optional<Integer> currentUserId = getCurrentUserId();
+        if (currentUserId.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        int boundedLimit = Math.min(Math.max(limit, 1), MAX_PAGE_LIMIT);
+        return ResponseEntity.ok(timelineService.getTimeline(currentUserId.get(), before, boundedLimit));
+    }
+
+    /**
+     * Retrieves the hot feed, the posts ranked by their likes and comments with the newer posts ranked higher.
+     *
+     * @param limit The maximum number of posts, between 1 and {@value #MAX_PAGE_LIMIT}, defaults to 20.
+     * @return ResponseEntity containing the list of PostDTOs, hottest first.
+     */
+    @GetMapping("/post/hot")
+    public ResponseEntity<List<PostDTO>> getHotPosts(@RequestParam(defaultValue = "20") int limit) {
+        Optional<Integer> currentUserId = getCurrentUserId();
+        if (currentUserId.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        int boundedLimit = Math.min(Math.max(limit, 1), MAX_PAGE_LIMIT);
+        List<PostDTO> posts = hotFeedService.getHotPosts(boundedLimit);
         if (!posts.isEmpty()) {
             return ResponseEntity.ok(posts);
         }
@@ -177,19 +248,19 @@ public class PostController {
     /**
      * Retrieves a specific post by its ID.
      *
-     * @param id ID of the post to retrieve.
+     * @param id     ID of the post to retrieve.
+     * @param fields The sections to include, any of {@code creator} and {@code counts}, all of them if omitted.
      * @return ResponseEntity containing the PostDTO.
      */
     @GetMapping("/post/{id}")
-    public ResponseEntity<PostDTO> getPostById(@PathVariable int id) {
-        Optional<User> userOptional = getCurrentUser();
-        if (userOptional.isEmpty()) {
+    public ResponseEntity<PostDTO> getPostById(@PathVariable int id,
+                                               @RequestParam(required = false) List<String> fields) {
+        Optional<Integer> currentUserId = getCurrentUserId();
+        if (currentUserId.isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        Post post = postService.findPostById(id);
-        if (post != null) {
-            PostDTO postDTO = new PostDTO(post);
-            postService.associateUserToPost(post, postDTO);
+        PostDTO postDTO = postService.findPostDTOById(id, FieldSelection.of(fields));
+        if (postDTO != null) {
             return ResponseEntity.ok(postDTO);
         }
         return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
@@ -231,8 +302,8 @@ public class PostController {
      */
     @GetMapping("/post/{id}/comment")
     public ResponseEntity<List<CommentDTO>> getPostComments(@PathVariable int id) {
-        Optional<User> userOptional = getCurrentUser();
-        if (userOptional.isEmpty()) {
+        Optional<Integer> currentUserId = getCurrentUserId();
+        if (currentUserId.isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         Post post = postService.findPostById(id);
@@ -1,17 +1,27 @@
 package G2.SafeSpace.controller;
 
+import G2.SafeSpace.dto.ConnectionDTO;
+import G2.SafeSpace.dto.CursorPageDTO;
+import G2.SafeSpace.dto.FieldSelection;
+import G2.SafeSpace.dto.RecommendationDTO;
 import G2.SafeSpace.dto.UpdateUserDTO;
 import G2.SafeSpace.dto.UserDTO;
 import G2.SafeSpace.dto.UserDetailedDTO;
+import G2.SafeSpace.dto.UserStatsDTO;
+import G2.SafeSpace.dto.UserSummaryDTO;
 import G2.SafeSpace.entity.User;
 import G2.SafeSpace.repository.UserRepository;
+import G2.SafeSpace.service.ConnectionService;
+import G2.SafeSpace.service.FriendRecommendationService;
 import G2.SafeSpace.service.UserContextService;
+import G2.SafeSpace.service.UserSearchIndex;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import G2.SafeSpace.service.UserService;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -22,9 +32,16 @@ import java.util.Optional;
 @RequestMapping("/api/v1")
 public class UserController {
 
+    private static final int MAX_PAGE_LIMIT = 100;
+    private static final int MAX_SEARCH_LIMIT = 50;
+    private static final int MAX_RELATIONSHIP_IDS = 500;
+
     private final UserService userService;
     private final UserRepository userRepository;
     private final UserContextService userContextService;
+    private final UserSearchIndex userSearchIndex;
+    private final FriendRecommendationService friendRecommendationService;
+    private final ConnectionService connectionService;
 
     /**
      * Constructs a new instance of UserController.
@@ -32,13 +49,22 @@ public class UserController {
      * @param userService        the UserService to be injected
      * @param userRepository     the UserRepository to be injected
      * @param userContextService the UserContextService to be injected
+     * @param userSearchIndex    the UserSearchIndex to be injected
+     * @param friendRecommendationService the FriendRecommendationService to be injected
+     * @param connectionService  the ConnectionService to be injected
      */
     public UserController(UserService userService,
                           UserRepository userRepository,
-                          UserContextService userContextService) {
+                          UserContextService userContextService,
+                          UserSearchIndex userSearchIndex,
+                          FriendRecommendationService friendRecommendationService,
+                          ConnectionService connectionService) {
         this.userService = userService;
         this.userRepository = userRepository;
         this.userContextService = userContextService;
+        this.userSearchIndex = userSearchIndex;
+        this.friendRecommendationService = friendRecommendationService;
+        this.connectionService = connectionService;
     }
 
     /**
@@ -50,20 +76,31 @@ public class UserController {
         return userContextService.getCurrentUser();
     }
 
+    /**
+     * Helper method to get the ID of the currently authenticated user without loading the user entity.
+     *
+     * @return an {@link Optional} containing the user ID if authenticated, otherwise empty
+     */
+    private Optional<Integer> getCurrentUserId() {
+        return userContextService.getCurrentUserId();
+    }
+
     /**
      * Retrieves the authenticated user's detailed information.
      * If the user is not authenticated, an Unauthorized status is returned.
      * If an error occurs while generating the user details, an Internal Server Error status is returned.
      *
+     * @param fields the sections to include, any of {@code relationships}, {@code counts}, {@code posts},
+     *               {@code likedPosts}, {@code conversations} and {@code comments}, all of them if omitted
      * @return a ResponseEntity containing the user details if successful, or an error status otherwise
      */
     @GetMapping("/users/me")
-    public ResponseEntity<UserDetailedDTO> getMe() {
+    public ResponseEntity<UserDetailedDTO> getMe(@RequestParam(required = false) List<String> fields) {
         Optional<User> optionalUser = getCurrentUser();
         if (optionalUser.isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        UserDetailedDTO detailed = userService.generateUserDetailedDTO(optionalUser.get());
+        UserDetailedDTO detailed = userService.generateUserDetailedDTO(optionalUser.get(), FieldSelection.of(fields));
         if (detailed != null) {
             return ResponseEntity.ok(detailed);
         }
@@ -72,21 +109,32 @@ public class UserController {
 
 
     /**
-     * Retrieves a list of all users.
+     * Retrieves one page of users ordered by ID.
+     * The next page is requested by passing the {@code nextCursor} of the previous page as {@code after}.
      * If the user is not authenticated, an Unauthorized status is returned.
      * If no users are found, a No Content status is returned.
      *
-     * @return a ResponseEntity containing a list of UserDTO objects if users are found, or an error status otherwise
+     * @param after  the cursor of the page, {@code 0} for the first page
+     * @param limit  the maximum number of users on the page, between 1 and {@value #MAX_PAGE_LIMIT}, defaults to 20
+     * @param counts whether to include the friend, following and follower counts of each user
+     * @param fields the sections to include, {@code counts} is the only optional section of a listed user
+     *               and takes precedence over {@code counts} when given
+     * @return a ResponseEntity containing a page of UserDTO objects if users are found, or an error status otherwise
      */
     @GetMapping("/users")
-    public ResponseEntity<List<UserDTO>> getAllUsers() {
-        Optional<User> optionalUser = getCurrentUser();
-        if (optionalUser.isEmpty()) {
+    public ResponseEntity<CursorPageDTO<UserDTO>> getAllUsers(@RequestParam(defaultValue = "0") int after,
+                                                              @RequestParam(defaultValue = "20") int limit,
+                                                              @RequestParam(defaultValue = "false") boolean counts,
+                                                              @RequestParam(required = false) List<String> fields) {
+        Optional<Integer> currentUserId = getCurrentUserId();
+        if (currentUserId.isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        List<UserDTO> users = userService.findAllUsers();
-        if (!users.isEmpty()) {
-            return ResponseEntity.ok(users);
+        int boundedLimit = Math.min(Math.max(limit, 1), MAX_PAGE_LIMIT);
+        boolean includeCounts = fields == null ? counts : FieldSelection.of(fields).includes("counts");
+        CursorPageDTO<UserDTO> page = userService.findUsersPage(after, boundedLimit, includeCounts);
+        if (!page.getItems().isEmpty()) {
+            return ResponseEntity.ok(page);
         }
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
@@ -96,49 +144,221 @@ public class UserController {
      * If the user is not authenticated, an Unauthorized status is returned.
      * If the user is not found, a Not Found status is returned.
      *
-     * @param id the ID of the user to retrieve
+     * @param id    the ID of the user to retrieve
+     * @param lists  whether to include the lists of posts, liked posts, friends, followers and following,
+     *               otherwise only their counts are returned
+     * @param fields the sections to include, see {@link UserService#createUserDTO(User, FieldSelection)},
+     *               takes precedence over {@code lists} when given
      * @return a ResponseEntity containing the UserDTO if found, or a Not Found status otherwise
      */
     @GetMapping("/users/{id}")
-    public ResponseEntity<UserDTO> getUserById(@PathVariable int id) {
-        Optional<User> optionalUser = getCurrentUser();
-        if (optionalUser.isEmpty()) {
+    public ResponseEntity<UserDTO> getUserById(@PathVariable int id,
+                                               @RequestParam(defaultValue = "false") boolean lists,
+                                               @RequestParam(required = false) List<String> fields) {
+        Optional<Integer> currentUserId = getCurrentUserId();
+        if (currentUserId.isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         User user = userService.findUserById(id);
         if (user != null) {
-            UserDTO userDTO = new UserDTO(user, true);
-            userDTO.setUserData(userService.createUserData(user));
-            return ResponseEntity.ok(userDTO);
+            return ResponseEntity.ok(toUserDTO(user, lists, fields));
         } else {
             return ResponseEntity.notFound().build();
         }
     }
 
+    /**
+     * Retrieves the profile summary of a user, with their post, like, friend, follower and following counts.
+     * The summary is read from counters stored on the user row, without loading any related data.
+     * If the user is not authenticated, an Unauthorized status is returned.
+     * If the user is not found, a Not Found status is returned.
+     *
+     * @param id the ID of the user
+     * @return a ResponseEntity containing the UserStatsDTO if found, or a Not Found status otherwise
+     */
+    @GetMapping("/users/{id}/summary")
+    public ResponseEntity<UserStatsDTO> getUserSummary(@PathVariable int id) {
+        Optional<Integer> currentUserId = getCurrentUserId();
+        if (currentUserId.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        UserStatsDTO stats = userService.findUserStats(id);
+        if (stats != null) {
+            return ResponseEntity.ok(stats);
+        }
+        return ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Retrieves the relationship of the current user to each of the given users in one call,
+     * as {@code self}, {@code friend}, {@code following}, {@code follower} or {@code none}.
+     * Users that do not exist are left out of the result.
+     * If the user is not authenticated, an Unauthorized status is returned.
+     * If no IDs or more than {@value #MAX_RELATIONSHIP_IDS} IDs are given, a Bad Request status is returned.
+     *
+     * @param ids the IDs of the users, comma separated
+     * @return a ResponseEntity containing a map from user ID to relationship status
+     */
+    @GetMapping("/users/relationships")
+    public ResponseEntity<Map<Integer, String>> getRelationships(@RequestParam List<Integer> ids) {
+        Optional<Integer> currentUserId = getCurrentUserId();
+        if (currentUserId.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (ids.isEmpty() || ids.size() > MAX_RELATIONSHIP_IDS) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        return ResponseEntity.ok(userService.getRelationships(currentUserId.get(), ids));
+    }
+
+    /**
+     * Retrieves the friends the current user and another user have in common, ordered by ID.
+     * The next page is requested by passing the {@code nextCursor} of the previous page as {@code after},
+     * the total number of mutual friends is returned as {@code totalCount}.
+     * If the user is not authenticated, an Unauthorized status is returned.
+     * If the other user is the current user, a Bad Request status is returned.
+     * If the other user is not found, a Not Found status is returned.
+     *
+     * @param id    the ID of the other user
+     * @param after the cursor of the page, {@code 0} for the first page
+     * @param limit the maximum number of users on the page, between 1 and {@value #MAX_PAGE_LIMIT}, defaults to 20
+     * @return a ResponseEntity containing a page of mutual friends, or an error status otherwise
+     */
+    @GetMapping("/users/{id}/mutual")
+    public ResponseEntity<CursorPageDTO<UserSummaryDTO>> getMutualFriends(@PathVariable int id,
+                                                                          @RequestParam(defaultValue = "0") int after,
+                                                                          @RequestParam(defaultValue = "20") int limit) {
+        Optional<Integer> currentUserId = getCurrentUserId();
+        if (currentUserId.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (currentUserId.get() == id) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        if (userSearchIndex.getSummary(id) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        int boundedLimit = Math.min(Math.max(limit, 1), MAX_PAGE_LIMIT);
+        return ResponseEntity.ok(userService.findMutualFriends(currentUserId.get(), id, after, boundedLimit));
+    }
+
+    /**
+     * Retrieves the shortest chain of friendships from the current user to another user ("how you're connected").
+     * The search is limited in depth and time, a connection that is not found within these limits is reported
+     * as not found, together with whether the time limit was the reason.
+     * If the user is not authenticated, an Unauthorized status is returned.
+     * If the other user is the current user, a Bad Request status is returned.
+     * If the other user is not found, a Not Found status is returned.
+     *
+     * @param id the ID of the other user
+     * @return a ResponseEntity containing the connection between the users
+     */
+    @GetMapping("/users/{id}/connection")
+    public ResponseEntity<ConnectionDTO> getConnection(@PathVariable int id) {
+        Optional<Integer> currentUserId = getCurrentUserId();
+        if (currentUserId.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (currentUserId.get() == id) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        if (userSearchIndex.getSummary(id) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(connectionService.findConnection(currentUserId.get(), id));
+    }
+
     /**
      * Retrieves a user by their username.
      * If the user is not authenticated, an Unauthorized status is returned.
      * If the user is not found, a Not Found status is returned.
      *
-     * @param name the username of the user to retrieve
+     * @param name  the username of the user to retrieve
+     * @param lists  whether to include the lists of posts, liked posts, friends, followers and following,
+     *               otherwise only their counts are returned
+     * @param fields the sections to include, see {@link UserService#createUserDTO(User, FieldSelection)},
+     *               takes precedence over {@code lists} when given
      * @return a ResponseEntity containing the UserDTO if found, or a Not Found status otherwise
      */
     @GetMapping("/users/search")
-    public ResponseEntity<UserDTO> getUserByName(@RequestParam String name) {
-        Optional<User> optionalUser = getCurrentUser();
-        if (optionalUser.isEmpty()) {
+    public ResponseEntity<UserDTO> getUserByName(@RequestParam String name,
+                                                 @RequestParam(defaultValue = "false") boolean lists,
+                                                 @RequestParam(required = false) List<String> fields) {
+        Optional<Integer> currentUserId = getCurrentUserId();
+        if (currentUserId.isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
         User user = userRepository.findByUsername(name);
         if (user != null) {
-            UserDTO userDTO = new UserDTO(user, true);
-            userDTO.setUserData(userService.createUserData(user));
-            return ResponseEntity.ok(userDTO);
+            return ResponseEntity.ok(toUserDTO(user, lists, fields));
         } else {
             return ResponseEntity.notFound().build();
         }
     }
 
+    /**
+     * Helper method to build the UserDTO of a viewed profile.
+     * Without {@code fields}, the full lists are only built on request, otherwise the counts come from
+     * the counters on the user row.
+     *
+     * @param user   the viewed user
+     * @param lists  whether to include the full lists
+     * @param fields the sections to include, or {@code null} to decide by {@code lists}
+     * @return the UserDTO of the user
+     */
+    private UserDTO toUserDTO(User user, boolean lists, List<String> fields) {
+        FieldSelection selection;
+        if (fields != null) {
+            selection = FieldSelection.of(fields);
+        } else {
+            selection = lists ? FieldSelection.ALL : FieldSelection.only("counts");
+        }
+        return userService.createUserDTO(user, selection);
+    }
+
+    /**
+     * Searches users whose username starts with the given prefix, for typeahead suggestions.
+     * The search ignores case and is answered from an in-memory index.
+     * An exact match is listed first, followed by the shortest usernames.
+     * If the user is not authenticated, an Unauthorized status is returned.
+     * If the prefix is blank, a Bad Request status is returned.
+     *
+     * @param prefix the beginning of the username
+     * @param limit  the maximum number of results, between 1 and {@value #MAX_SEARCH_LIMIT}, defaults to 10
+     * @return a ResponseEntity containing the list of matching users, possibly empty
+     */
+    @GetMapping(value = "/users/search", params = "prefix")
+    public ResponseEntity<List<UserSummaryDTO>> searchUsers(@RequestParam String prefix,
+                                                            @RequestParam(defaultValue = "10") int limit) {
+        Optional<Integer> currentUserId = getCurrentUserId();
+        if (currentUserId.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (prefix.trim().isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        int boundedLimit = Math.min(Math.max(limit, 1), MAX_SEARCH_LIMIT);
+        return ResponseEntity.ok(userSearchIndex.search(prefix, boundedLimit));
+    }
+
+    /**
+     * Retrieves "people you may know" recommendations for the current user: friends of their friends,
+     * ranked by the number of mutual friends. The recommendations are precomputed in the background.
+     * If the user is not authenticated, an Unauthorized status is returned.
+     *
+     * @param limit the maximum number of recommendations, between 1 and {@value #MAX_SEARCH_LIMIT}, defaults to 10
+     * @return a ResponseEntity containing the list of recommendations, possibly empty
+     */
+    @GetMapping("/users/recommendations")
+    public ResponseEntity<List<RecommendationDTO>> getRecommendations(@RequestParam(defaultValue = "10") int limit) {
+        Optional<Integer> currentUserId = getCurrentUserId();
+        if (currentUserId.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        int boundedLimit = Math.min(Math.max(limit, 1), MAX_SEARCH_LIMIT);
+        return ResponseEntity.ok(friendRecommendationService.getRecommendations(currentUserId.get(), boundedLimit));
+    }
+
     /**
      * Updates the current user's details.
      * If the user is not authenticated, an Unauthorized status is returned.
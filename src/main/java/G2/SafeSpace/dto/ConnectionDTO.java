@@ -0,0 +1,86 @@
+package G2.SafeSpace.dto;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) representing how two users are connected through friendships.
+ * <p>
+ * When a connection is found, {@code path} lists the users from the current user to the other user,
+ * both included, and {@code hops} is the number of friendships between them.
+ * When no connection is found within the depth limit, the path is empty and {@code timedOut} tells
+ * whether the search ran out of time before it could rule a connection out.
+ * </p>
+ */
+public class ConnectionDTO {
+
+    private boolean found;
+    private int hops;
+    private boolean timedOut;
+    private List<UserSummaryDTO> path;
+
+    /**
+     * Constructs a ConnectionDTO with the given values.
+     *
+     * @param found    whether a connection was found
+     * @param hops     the number of friendships on the path, {@code -1} if none was found
+     * @param timedOut whether the search was stopped by its time budget
+     * @param path     the users on the path, empty if none was found
+     */
+    public ConnectionDTO(boolean found, int hops, boolean timedOut, List<UserSummaryDTO> path) {
+        this.found = found;
+        this.hops = hops;
+        this.timedOut = timedOut;
+        this.path = path;
+    }
+
+    /**
+     * Gets whether a connection was found.
+     *
+     * @return {@code true} if the users are connected within the depth limit
+     */
+    public boolean isFound() {
+        return found;
+    }
+
+    /**
+     * Gets the number of friendships on the path.
+     *
+     * @return the number of hops, {@code -1} if no connection was found
+     */
+    public int getHops() {
+        return hops;
+    }
+
+    /**
+     * Gets whether the search was stopped by its time budget.
+     *
+     * @return {@code true} if the search timed out
+     */
+    public boolean isTimedOut() {
+        return timedOut;
+    }
+
+    /**
+     * Gets the users on the path, from the current user to the other user.
+     *
+     * @return the list of users on the path
+     */
+    public List<UserSummaryDTO> getPath() {
+        return path;
+    }
+
+    /**
+     * Returns a string representation of the ConnectionDTO.
+     *
+     * @return a string representing the ConnectionDTO object
+     */
+    @Override
+    public String toString() {
+        return "ConnectionDTO{" +
+                "found=" + found +
+                ", hops=" + hops +
+                ", timedOut=" + timedOut +
+                ", path=" + path +
+                '}';
+    }
+}
@@ -0,0 +1,103 @@
+package G2.SafeSpace.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object (DTO) representing one page of a keyset (cursor) paginated listing.
+ * <p>
+ * The {@code nextCursor} is the sort key of the last item on the page. It is passed back by the client
+ * to fetch the following page, and is {@code null} on the last page.
+ * Listings that know their total size cheaply also report it as {@code totalCount}.
+ * </p>
+ *
+ * @param <T> the type of the listed items
+ */
+public class CursorPageDTO<T> {
+
+    private List<T> items;
+    private Integer nextCursor;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer totalCount;
+
+    /**
+     * Constructs a CursorPageDTO with the given items and cursor.
+     *
+     * @param items      the items of the page
+     * @param nextCursor the cursor of the following page, or {@code null} if this is the last page
+     */
+    public CursorPageDTO(List<T> items, Integer nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Gets the items of the page.
+     *
+     * @return the list of items
+     */
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Sets the items of the page.
+     *
+     * @param items the list of items to set
+     */
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    /**
+     * Gets the cursor of the following page.
+     *
+     * @return the cursor, or {@code null} if this is the last page
+     */
+    public Integer getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * Sets the cursor of the following page.
+     *
+     * @param nextCursor the cursor to set, or {@code null} if this is the last page
+     */
+    public void setNextCursor(Integer nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Gets the total number of items across all pages.
+     *
+     * @return the total count, or {@code null} if the listing does not report it
+     */
+    public Integer getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Sets the total number of items across all pages.
+     *
+     * @param totalCount the total count to set
+     */
+    public void setTotalCount(Integer totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    /**
+     * Returns a string representation of the CursorPageDTO.
+     *
+     * @return a string representing the CursorPageDTO object
+     */
+    @Override
+    public String toString() {
+        return "CursorPageDTO{" +
+                "items=" + items +
+                ", nextCursor=" + nextCursor +
+                ", totalCount=" + totalCount +
+                '}';
+    }
+}
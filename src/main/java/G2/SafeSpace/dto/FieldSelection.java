@@ -0,0 +1,75 @@
+package G2.SafeSpace.dto;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The optional sections of a response requested by a client through the {@code fields} query parameter.
+ * <p>
+ * Sections that are not selected are not loaded at all, rather than only being left out of the JSON,
+ * so clients that only need the basic information save the queries behind the other sections.
+ * The basic fields of a response are always included, and unknown section names are ignored.
+ * </p>
+ */
+public final class FieldSelection {
+
+    /**
+     * The selection of every section, used when the client does not pass {@code fields}.
+     */
+    public static final FieldSelection ALL = new FieldSelection(null);
+
+    private final Set<String> fields;
+
+    private FieldSelection(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Creates the selection of the given sections.
+     *
+     * @param fields the names of the selected sections, {@code null} to select every section
+     * @return the selection
+     */
+    public static FieldSelection of(Collection<String> fields) {
+        if (fields == null) {
+            return ALL;
+        }
+        return new FieldSelection(fields.stream()
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .collect(Collectors.toUnmodifiableSet()));
+    }
+
+    /**
+     * Creates the selection of the given sections.
+     *
+     * @param fields the names of the selected sections
+     * @return the selection
+     */
+    public static FieldSelection only(String... fields) {
+        return new FieldSelection(Set.of(fields));
+    }
+
+    /**
+     * Checks whether a section is selected.
+     *
+     * @param field the name of the section
+     * @return {@code true} if the section is to be loaded
+     */
+    public boolean includes(String field) {
+        return fields == null || fields.contains(field);
+    }
+
+    /**
+     * Returns a string representation of the FieldSelection.
+     *
+     * @return a string representing the FieldSelection object
+     */
+    @Override
+    public String toString() {
+        return "FieldSelection{" +
+                "fields=" + (fields == null ? "all" : fields) +
+                '}';
+    }
+}
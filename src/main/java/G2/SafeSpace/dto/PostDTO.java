@@ -11,17 +11,22 @@ import java.util.List;
  * Data Transfer Object (DTO) for the Post entity.
  * This class represents a post with essential details such as content, picture,
  * creator information, and counts of likes and comments.
+ * The creator and the counts are only set when they were loaded, and are left out of the JSON otherwise.
  */
 public class PostDTO {
 
     private int postID;
-    private int postCreatorID;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer postCreatorID;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private String postCreatorName;
     private String postContent;
     private String postPictureID;
     private String postDate;
-    private int likeCount;
-    private int commentCount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer likeCount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer commentCount;
 
     @JsonIgnore
     private String eventType;
@@ -39,12 +44,56 @@ public class PostDTO {
         this.postDate = post.getPost_date();
     }
 
+    /**
+     * Constructs a PostDTO from individual column values, without the creator or the counts.
+     * <p>
+     * This constructor is used by JPQL constructor expressions, so that posts can be listed
+     * without loading the Post entity.
+     * </p>
+     *
+     * @param postID        the ID of the post
+     * @param postContent   the content of the post
+     * @param postPictureID the ID of the picture of the post
+     * @param postDate      the date the post was created
+     */
+    public PostDTO(int postID, String postContent, String postPictureID, String postDate) {
+        this.postID = postID;
+        this.postContent = postContent;
+        this.postPictureID = postPictureID;
+        this.postDate = postDate;
+    }
+
+    /**
+     * Constructs a PostDTO from individual column values, including the creator and the counts.
+     * <p>
+     * This constructor is used by JPQL constructor expressions, so that posts can be listed
+     * with their creator and counts in a single query, without loading any of their lazy collections.
+     * </p>
+     *
+     * @param postID          the ID of the post
+     * @param postContent     the content of the post
+     * @param postPictureID   the ID of the picture of the post
+     * @param postDate        the date the post was created
+     * @param postCreatorID   the ID of the creator, {@code null} if the post has no creator
+     * @param postCreatorName the username of the creator, {@code null} if the post has no creator
+     * @param likeCount       the number of likes of the post
+     * @param commentCount    the number of comments on the post
+     */
+    public PostDTO(int postID, String postContent, String postPictureID, String postDate,
+                   Integer postCreatorID, String postCreatorName, Integer likeCount, Integer commentCount) {
+        this(postID, postContent, postPictureID, postDate);
+        this.postCreatorID = postCreatorID;
+        this.postCreatorName = postCreatorName;
+        this.likeCount = likeCount;
+        this.commentCount = commentCount;
+    }
+
     /**
      * Gets the ID of the post creator.
      *
      * @return the ID of the post creator
      */
-    public int getPostCreatorID() {
+    public Integer getPostCreatorID() {
         return postCreatorID;
     }
 
@@ -53,7 +102,7 @@ public class PostDTO {
      *
      * @param postCreatorID the ID of the post creator to set
      */
-    public void setPostCreatorID(int postCreatorID) {
+    public void setPostCreatorID(Integer postCreatorID) {
         this.postCreatorID = postCreatorID;
     }
 
@@ -134,7 +183,7 @@ public class PostDTO {
      *
      * @return the number of likes
      */
-    public int getLikeCount() {
+    public Integer getLikeCount() {
         return this.likeCount;
     }
 
@@ -143,7 +192,7 @@ public class PostDTO {
      *
      * @param likeCount the number of likes to set
      */
-    public void setLikeCount(int likeCount) {
+    public void setLikeCount(Integer likeCount) {
         this.likeCount = likeCount;
     }
 
@@ -152,7 +201,7 @@ public class PostDTO {
      *
      * @return the number of comments
      */
-    public int getCommentCount() {
+    public Integer getCommentCount() {
         return this.commentCount;
     }
 
@@ -161,7 +210,7 @@ public class PostDTO {
      *
      * @param commentCount the number of comments to set
      */
-    public void setCommentCount(int commentCount) {
+    public void setCommentCount(Integer commentCount) {
         this.commentCount = commentCount;
     }
 
@@ -0,0 +1,71 @@
+package G2.SafeSpace.dto;
+
+/**
+ * Data Transfer Object (DTO) representing a recommended user ("people you may know"),
+ * together with the number of mutual friends the recommendation is based on.
+ */
+public class RecommendationDTO {
+
+    private UserSummaryDTO user;
+    private int mutualFriendCount;
+
+    /**
+     * Constructs a RecommendationDTO for the given user.
+     *
+     * @param user              the recommended user
+     * @param mutualFriendCount the number of friends the current user and the recommended user have in common
+     */
+    public RecommendationDTO(UserSummaryDTO user, int mutualFriendCount) {
+        this.user = user;
+        this.mutualFriendCount = mutualFriendCount;
+    }
+
+    /**
+     * Gets the recommended user.
+     *
+     * @return the recommended user as a UserSummaryDTO
+     */
+    public UserSummaryDTO getUser() {
+        return user;
+    }
+
+    /**
+     * Sets the recommended user.
+     *
+     * @param user the recommended user to set
+     */
+    public void setUser(UserSummaryDTO user) {
+        this.user = user;
+    }
+
+    /**
+     * Gets the number of mutual friends.
+     *
+     * @return the number of friends in common
+     */
+    public int getMutualFriendCount() {
+        return mutualFriendCount;
+    }
+
+    /**
+     * Sets the number of mutual friends.
+     *
+     * @param mutualFriendCount the number of friends in common to set
+     */
+    public void setMutualFriendCount(int mutualFriendCount) {
+        this.mutualFriendCount = mutualFriendCount;
+    }
+
+    /**
+     * Returns a string representation of the RecommendationDTO.
+     *
+     * @return a string representing the RecommendationDTO object
+     */
+    @Override
+    public String toString() {
+        return "RecommendationDTO{" +
+                "user=" + user +
+                ", mutualFriendCount=" + mutualFriendCount +
+                '}';
+    }
+}
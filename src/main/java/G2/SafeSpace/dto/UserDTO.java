@@ -72,6 +72,27 @@ public class UserDTO {
         }
     }
 
+    /**
+     * Constructs a UserDTO from individual column values, without the lists of posts, liked posts and friends.
+     * <p>
+     * This constructor is used by JPQL constructor expressions, so that listings can be built
+     * without loading the User entity or any of its lazy collections.
+     * </p>
+     *
+     * @param id               the ID of the user
+     * @param username         the username of the user
+     * @param bio              the bio of the user
+     * @param profilePictureID the profile picture ID of the user
+     * @param dateOfCreation   the date of creation of the user's account
+     */
+    public UserDTO(int id, String username, String bio, String profilePictureID, String dateOfCreation) {
+        this.id = id;
+        this.username = username;
+        this.bio = bio;
+        this.profilePictureID = profilePictureID;
+        this.dateOfCreation = dateOfCreation;
+    }
+
     /**
      * Gets the additional user data (e.g., following, followers, etc.).
      *
@@ -1,19 +1,25 @@
 package G2.SafeSpace.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 /**
  * Data Transfer Object (DTO) for encapsulating user relationship data.
  * This class holds information about the user's social interactions,
  * including counts and lists of followers, following users, and friends.
+ * The lists are left out of the response when only the counts were requested.
  */
 public class UserData {
 
     private int followingCount;
     private int followersCount;
     private int friendsCount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<UserDTO> following;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<UserDTO> followers;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     private List<UserDTO> friends;
 
     /**
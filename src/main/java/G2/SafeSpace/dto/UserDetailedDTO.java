@@ -1,11 +1,17 @@
 package G2.SafeSpace.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.util.List;
 
 /**
  * Data Transfer Object (DTO) that holds detailed information about a user,
  * including the user's personal information, their posts, liked posts,
  * conversations, and comments.
+ * <p>
+ * Sections that could not be fetched in time are left {@code null} and named in {@code missingSections},
+ * so clients can tell a partial response from an empty section.
+ * </p>
  */
 public class UserDetailedDTO {
 
@@ -15,6 +21,9 @@ public class UserDetailedDTO {
     private List<ConversationDTO> conversations;
     private List<CommentDTO> comments;
 
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<String> missingSections;
+
     /**
      * Default constructor for UserDetailedDTO.
      */
@@ -109,4 +118,22 @@ public class UserDetailedDTO {
     public void setUser(UserDTO user) {
         this.user = user;
     }
+
+    /**
+     * Gets the names of the sections that could not be fetched.
+     *
+     * @return the list of missing sections, empty or {@code null} if the response is complete
+     */
+    public List<String> getMissingSections() {
+        return missingSections;
+    }
+
+    /**
+     * Sets the names of the sections that could not be fetched.
+     *
+     * @param missingSections the list of missing sections to set
+     */
+    public void setMissingSections(List<String> missingSections) {
+        this.missingSections = missingSections;
+    }
 }
@@ -0,0 +1,132 @@
+package G2.SafeSpace.dto;
+
+/**
+ * Data Transfer Object (DTO) representing a cheap summary of a user's profile.
+ * It contains the public identity of the user and the denormalized social counters
+ * stored on the user row, so it is built by a single-row projection without any aggregation.
+ */
+public class UserStatsDTO {
+
+    private int id;
+    private String username;
+    private String profilePictureID;
+    private int postCount;
+    private int likesGivenCount;
+    private int friendsCount;
+    private int followersCount;
+    private int followingCount;
+
+    /**
+     * Constructs a UserStatsDTO with the given values.
+     *
+     * @param id               the ID of the user
+     * @param username         the username of the user
+     * @param profilePictureID the profile picture ID of the user
+     * @param postCount        the number of posts the user has created
+     * @param likesGivenCount  the number of posts the user has liked
+     * @param friendsCount     the number of mutual friends of the user
+     * @param followersCount   the number of users following the user without being followed back
+     * @param followingCount   the number of users the user follows without being followed back
+     */
+    public UserStatsDTO(int id, String username, String profilePictureID, int postCount, int likesGivenCount,
+                        int friendsCount, int followersCount, int followingCount) {
+        this.id = id;
+        this.username = username;
+        this.profilePictureID = profilePictureID;
+        this.postCount = postCount;
+        this.likesGivenCount = likesGivenCount;
+        this.friendsCount = friendsCount;
+        this.followersCount = followersCount;
+        this.followingCount = followingCount;
+    }
+
+    /**
+     * Gets the user ID.
+     *
+     * @return the user ID as an integer
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the username of the user.
+     *
+     * @return the username as a string
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Gets the profile picture ID of the user.
+     *
+     * @return the profile picture ID as a string
+     */
+    public String getProfilePictureID() {
+        return profilePictureID;
+    }
+
+    /**
+     * Gets the number of posts the user has created.
+     *
+     * @return the post count
+     */
+    public int getPostCount() {
+        return postCount;
+    }
+
+    /**
+     * Gets the number of posts the user has liked.
+     *
+     * @return the count of likes given
+     */
+    public int getLikesGivenCount() {
+        return likesGivenCount;
+    }
+
+    /**
+     * Gets the number of mutual friends of the user.
+     *
+     * @return the friend count
+     */
+    public int getFriendsCount() {
+        return friendsCount;
+    }
+
+    /**
+     * Gets the number of users following the user without being followed back.
+     *
+     * @return the follower count
+     */
+    public int getFollowersCount() {
+        return followersCount;
+    }
+
+    /**
+     * Gets the number of users the user follows without being followed back.
+     *
+     * @return the following count
+     */
+    public int getFollowingCount() {
+        return followingCount;
+    }
+
+    /**
+     * Returns a string representation of the UserStatsDTO.
+     *
+     * @return a string representing the UserStatsDTO object
+     */
+    @Override
+    public String toString() {
+        return "UserStatsDTO{" +
+                "id=" + id +
+                ", username='" + username + '\'' +
+                ", postCount=" + postCount +
+                ", likesGivenCount=" + likesGivenCount +
+                ", friendsCount=" + friendsCount +
+                ", followersCount=" + followersCount +
+                ", followingCount=" + followingCount +
+                '}';
+    }
+}
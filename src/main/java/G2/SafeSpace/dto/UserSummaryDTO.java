@@ -0,0 +1,105 @@
+package G2.SafeSpace.dto;
+
+import G2.SafeSpace.entity.User;
+
+/**
+ * Data Transfer Object (DTO) representing the minimal public information of a user.
+ * It is used where many users are listed at once, such as search results,
+ * and can be built directly by a JPQL constructor expression without loading the {@link User} entity.
+ */
+public class UserSummaryDTO {
+
+    private int id;
+    private String username;
+    private String profilePictureID;
+
+    /**
+     * Constructs a UserSummaryDTO with the given values.
+     *
+     * @param id               the ID of the user
+     * @param username         the username of the user
+     * @param profilePictureID the profile picture ID of the user
+     */
+    public UserSummaryDTO(int id, String username, String profilePictureID) {
+        this.id = id;
+        this.username = username;
+        this.profilePictureID = profilePictureID;
+    }
+
+    /**
+     * Constructs a UserSummaryDTO from a User entity.
+     *
+     * @param user the User entity to initialize the DTO from
+     */
+    public UserSummaryDTO(User user) {
+        this(user.getUserID(), user.getUsername(), user.getProfilePictureID());
+    }
+
+    /**
+     * Gets the user ID.
+     *
+     * @return the user ID as an integer
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the user ID.
+     *
+     * @param id the user ID to set
+     */
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the username of the user.
+     *
+     * @return the username as a string
+     */
+    public String getUsername() {
+        return username;
+    }
+
+    /**
+     * Sets the username of the user.
+     *
+     * @param username the username to set
+     */
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    /**
+     * Gets the profile picture ID of the user.
+     *
+     * @return the profile picture ID as a string
+     */
+    public String getProfilePictureID() {
+        return profilePictureID;
+    }
+
+    /**
+     * Sets the profile picture ID of the user.
+     *
+     * @param profilePictureID the profile picture ID to set
+     */
+    public void setProfilePictureID(String profilePictureID) {
+        this.profilePictureID = profilePictureID;
+    }
+
+    /**
+     * Returns a string representation of the UserSummaryDTO.
+     *
+     * @return a string representing the UserSummaryDTO object
+     */
+    @Override
+    public String toString() {
+        return "UserSummaryDTO{" +
+                "id=" + id +
+                ", username='" + username + '\'' +
+                ", profilePictureID='" + profilePictureID + '\'' +
+                '}';
+    }
+}
@@ -69,6 +69,20 @@ public class Post {
     )
     private Set<Comment> comments = new HashSet<>();
 
+    /**
+     * The number of likes of the post.
+     * Maintained by atomic updates in the database, so it is never written by saving the entity.
+     */
+    @Column(insertable = false, updatable = false)
+    private int likeCount;
+
+    /**
+     * The number of comments on the post.
+     * Maintained by atomic updates in the database, so it is never written by saving the entity.
+     */
+    @Column(insertable = false, updatable = false)
+    private int commentCount;
+
     /**
      * Default constructor for the Post class.
      * This constructor is used to create an empty Post object.
@@ -204,6 +218,24 @@ public class Post {
         return this.comments;
     }
 
+    /**
+     * Retrieves the number of likes of the post, without loading the users who liked it.
+     *
+     * @return the like count
+     */
+    public int getLikeCount() {
+        return this.likeCount;
+    }
+
+    /**
+     * Retrieves the number of comments on the post, without loading the comments.
+     *
+     * @return the comment count
+     */
+    public int getCommentCount() {
+        return this.commentCount;
+    }
+
     /**
      * Adds a comment to the set of comments associated with this post.
      *
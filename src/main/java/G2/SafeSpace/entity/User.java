@@ -8,6 +8,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
 
 /**
@@ -33,6 +34,14 @@ public class User implements UserDetails {
     @Column(nullable = false)
     private String username;
 
+    /**
+     * The trimmed, lower-cased username, used for case-insensitive lookups through a unique index.
+     * Kept in sync by {@link #setUsername(String)}.
+     */
+    @Column(nullable = false, unique = true)
+    @JsonIgnore
+    private String normalizedUsername;
+
     /**
      * The password of the user (ignored for JSON serialization).
      */
@@ -97,6 +106,48 @@ public class User implements UserDetails {
     @JsonIgnore
     private Set<User> friends = new HashSet<>();
 
+    /**
+     * The number of posts the user has created.
+     * Maintained by atomic updates in the database, so it is never written by saving the entity.
+     */
+    @Column(insertable = false, updatable = false)
+    private int postCount;
+
+    /**
+     * The number of posts the user has liked.
+     * Maintained by atomic updates in the database, so it is never written by saving the entity.
+     */
+    @Column(insertable = false, updatable = false)
+    private int likesGivenCount;
+
+    /**
+     * The number of mutual friends of the user.
+     * Maintained by atomic updates in the database, so it is never written by saving the entity.
+     */
+    @Column(insertable = false, updatable = false)
+    private int friendsCount;
+
+    /**
+     * The number of users following the user without being followed back.
+     * Maintained by atomic updates in the database, so it is never written by saving the entity.
+     */
+    @Column(insertable = false, updatable = false)
+    private int followersCount;
+
+    /**
+     * The number of users the user follows without being followed back.
+     * Maintained by atomic updates in the database, so it is never written by saving the entity.
+     */
+    @Column(insertable = false, updatable = false)
+    private int followingCount;
+
+    /**
+     * The version of the tokens of the user, tokens issued with an older version are revoked.
+     * Maintained by atomic updates in the database, so it is never written by saving the entity.
+     */
+    @Column(insertable = false, updatable = false)
+    private int tokenVersion;
+
     /**
      * Default constructor for the User entity.
      */
@@ -213,6 +264,26 @@ public class User implements UserDetails {
      */
     public void setUsername(String Username) {
         this.username = Username;
+        this.normalizedUsername = normalizeUsername(Username);
+    }
+
+    /**
+     * Gets the normalized username of the user.
+     *
+     * @return the trimmed, lower-cased username
+     */
+    public String getNormalizedUsername() {
+        return this.normalizedUsername;
+    }
+
+    /**
+     * Normalizes a username for case-insensitive comparison.
+     *
+     * @param username the username to normalize
+     * @return the trimmed, lower-cased username, or {@code null} if the username is {@code null}
+     */
+    public static String normalizeUsername(String username) {
+        return username == null ? null : username.trim().toLowerCase(Locale.ROOT);
     }
 
     /**
@@ -348,6 +419,60 @@ public class User implements UserDetails {
         return this.friends;
     }
 
+    /**
+     * Gets the number of posts the user has created.
+     *
+     * @return the post count
+     */
+    public int getPostCount() {
+        return this.postCount;
+    }
+
+    /**
+     * Gets the number of posts the user has liked.
+     *
+     * @return the count of likes given
+     */
+    public int getLikesGivenCount() {
+        return this.likesGivenCount;
+    }
+
+    /**
+     * Gets the number of mutual friends of the user.
+     *
+     * @return the friend count
+     */
+    public int getFriendsCount() {
+        return this.friendsCount;
+    }
+
+    /**
+     * Gets the number of users following the user without being followed back.
+     *
+     * @return the follower count
+     */
+    public int getFollowersCount() {
+        return this.followersCount;
+    }
+
+    /**
+     * Gets the number of users the user follows without being followed back.
+     *
+     * @return the following count
+     */
+    public int getFollowingCount() {
+        return this.followingCount;
+    }
+
+    /**
+     * Gets the version of the tokens of the user.
+     *
+     * @return the token version
+     */
+    public int getTokenVersion() {
+        return this.tokenVersion;
+    }
+
     /**
      * Returns a string representation of the user.
      *
@@ -0,0 +1,46 @@
+package G2.SafeSpace.event;
+
+/**
+ * The {@code CommentEvent} class represents an event triggered when a comment is added to or removed from a post.
+ */
+public class CommentEvent {
+
+    /**
+     * The ID of the post the comment belongs to.
+     */
+    private final int postID;
+
+    /**
+     * The type of the event, {@code comment_added} or {@code comment_removed}.
+     */
+    private final String eventType;
+
+    /**
+     * Constructs a new {@code CommentEvent} for the specified post.
+     *
+     * @param postID    the ID of the post the comment belongs to
+     * @param eventType the type of the event, {@code comment_added} or {@code comment_removed}
+     */
+    public CommentEvent(int postID, String eventType) {
+        this.postID = postID;
+        this.eventType = eventType;
+    }
+
+    /**
+     * Returns the ID of the post the comment belongs to.
+     *
+     * @return the ID of the post
+     */
+    public int getPostID() {
+        return postID;
+    }
+
+    /**
+     * Returns the type of the event.
+     *
+     * @return {@code comment_added} or {@code comment_removed}
+     */
+    public String getEventType() {
+        return eventType;
+    }
+}
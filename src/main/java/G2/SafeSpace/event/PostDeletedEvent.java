@@ -0,0 +1,30 @@
+package G2.SafeSpace.event;
+
+/**
+ * The {@code PostDeletedEvent} class represents an event triggered when a post has been deleted.
+ */
+public class PostDeletedEvent {
+
+    /**
+     * The ID of the deleted post.
+     */
+    private final int postID;
+
+    /**
+     * Constructs a new {@code PostDeletedEvent} for the specified post.
+     *
+     * @param postID the ID of the deleted post
+     */
+    public PostDeletedEvent(int postID) {
+        this.postID = postID;
+    }
+
+    /**
+     * Returns the ID of the deleted post.
+     *
+     * @return the ID of the post
+     */
+    public int getPostID() {
+        return postID;
+    }
+}
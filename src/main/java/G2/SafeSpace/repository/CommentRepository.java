@@ -3,6 +3,7 @@ package G2.SafeSpace.repository;
 import G2.SafeSpace.entity.Comment;
 import G2.SafeSpace.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
@@ -22,4 +23,14 @@ public interface CommentRepository extends JpaRepository<Comment, Integer> {
      * @return a list of {@link Comment} entities that belong to the specified user
      */
     List<Comment> findAllByUser(User user);
+
+    /**
+     * Finds all {@link Comment} entities written by the user with the given ID,
+     * without needing the {@link User} entity itself.
+     *
+     * @param userId the ID of the user whose comments are to be retrieved
+     * @return a list of {@link Comment} entities that belong to the user
+     */
+    @Query("SELECT c FROM Comment c WHERE c.user.userID = :userId")
+    List<Comment> findAllByUserId(int userId);
 }
@@ -1,7 +1,16 @@
 package G2.SafeSpace.repository;
 
+import G2.SafeSpace.dto.PostDTO;
 import G2.SafeSpace.entity.Post;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * The {@code PostRepository} interface is a Spring Data JPA repository that provides CRUD operations
@@ -10,4 +19,164 @@ import org.springframework.data.jpa.repository.JpaRepository;
  *
  * <p>This repository provides standard database operations such as saving, deleting, and querying posts.</p>
  */
-public interface PostRepository extends JpaRepository<Post, Integer> {}
+public interface PostRepository extends JpaRepository<Post, Integer> {
+
+    /**
+     * Fetches one page of the feed, newest first, starting before the given post ID (keyset pagination).
+     * Post IDs grow with the creation time, so the order is served by the primary key alone.
+     * <p>
+     * The rows are built directly as {@link PostDTO} objects with their creator, and their like and comment
+     * counts are read from the counters on the post row, so the page takes one query whatever its size.
+     * A post has a single creator, so the join does not multiply the rows.
+     * </p>
+     *
+     * @param beforeId the ID of the last post of the previous page
+     * @param pageable the page size, the page number is always {@code 0}
+     * @return a list of at most {@code pageable.getPageSize()} posts with an ID less than {@code beforeId}
+     */
+    @Query("SELECT new G2.SafeSpace.dto.PostDTO(p.postID, p.Post_content, p.Post_pictureID, p.Post_date, " +
+            "u.userID, u.username, p.likeCount, p.commentCount) " +
+            "FROM Post p LEFT JOIN p.users u WHERE p.postID < :beforeId ORDER BY p.postID DESC")
+    List<PostDTO> findPageBefore(int beforeId, Pageable pageable);
+
+    /**
+     * Fetches one page of the feed like {@link #findPageBefore(int, Pageable)}, without the creator and the counts.
+     *
+     * @param beforeId the ID of the last post of the previous page
+     * @param pageable the page size, the page number is always {@code 0}
+     * @return a list of at most {@code pageable.getPageSize()} posts with an ID less than {@code beforeId}
+     */
+    @Query("SELECT new G2.SafeSpace.dto.PostDTO(p.postID, p.Post_content, p.Post_pictureID, p.Post_date) " +
+            "FROM Post p WHERE p.postID < :beforeId ORDER BY p.postID DESC")
+    List<PostDTO> findBasicPageBefore(int beforeId, Pageable pageable);
+
+    /**
+     * Fetches a post as a {@link PostDTO} with its creator and counts, in a single query.
+     *
+     * @param postId the ID of the post
+     * @return the post, or empty if not found
+     */
+    @Query("SELECT new G2.SafeSpace.dto.PostDTO(p.postID, p.Post_content, p.Post_pictureID, p.Post_date, " +
+            "u.userID, u.username, p.likeCount, p.commentCount) " +
+            "FROM Post p LEFT JOIN p.users u WHERE p.postID = :postId")
+    Optional<PostDTO> findDTOById(int postId);
+
+    /**
+     * Fetches the given posts as {@link PostDTO} objects with their creator and counts, in a single query.
+     *
+     * @param postIds the IDs of the posts
+     * @return the posts that exist, in no particular order
+     */
+    @Query("SELECT new G2.SafeSpace.dto.PostDTO(p.postID, p.Post_content, p.Post_pictureID, p.Post_date, " +
+            "u.userID, u.username, p.likeCount, p.commentCount) " +
+            "FROM Post p LEFT JOIN p.users u WHERE p.postID IN :postIds")
+    List<PostDTO> findDTOsByIds(Collection<Integer> postIds);
+
+    /**
+     * Fetches the IDs of the newest posts of the given users, starting before the given post ID.
+     *
+     * @param userIds  the IDs of the creators
+     * @param beforeId the ID of the last post of the previous page
+     * @param pageable the number of posts, the page number is always {@code 0}
+     * @return the post IDs, newest first
+     */
+    @Query("SELECT p.postID FROM User u JOIN u.posts p WHERE u.userID IN :userIds AND p.postID < :beforeId " +
+            "ORDER BY p.postID DESC")
+    List<Integer> findPostIdsByCreatorsBefore(Collection<Integer> userIds, int beforeId, Pageable pageable);
+
+    /**
+     * Finds the posts created by a user, without loading the user.
+     *
+     * @param userId the ID of the user
+     * @return the posts the user has created
+     */
+    @Query("SELECT p FROM User u JOIN u.posts p WHERE u.userID = :userId")
+    List<Post> findAllPostedBy(int userId);
+
+    /**
+     * Finds the posts liked by a user, without loading the user.
+     *
+     * @param userId the ID of the user
+     * @return the posts the user has liked
+     */
+    @Query("SELECT p FROM User u JOIN u.likedPosts p WHERE u.userID = :userId")
+    List<Post> findAllLikedBy(int userId);
+
+    /**
+     * Finds the IDs of the posts liked by a user.
+     *
+     * @param userId the ID of the user
+     * @return the IDs of the posts the user has liked
+     */
+    @Query("SELECT p.postID FROM User u JOIN u.likedPosts p WHERE u.userID = :userId")
+    List<Integer> findLikedPostIds(int userId);
+
+    /**
+     * Finds the IDs of the posts a comment belongs to.
+     *
+     * @param commentId the ID of the comment
+     * @return the IDs of the posts with the comment
+     */
+    @Query("SELECT p.postID FROM Post p JOIN p.comments c WHERE c.commentID = :commentId")
+    List<Integer> findPostIdsByCommentId(int commentId);
+
+    /**
+     * Atomically adjusts the like counters of the given posts.
+     *
+     * @param postIds the IDs of the posts to update
+     * @param delta   the change of the like count
+     * @return the number of updated rows
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET p.likeCount = p.likeCount + :delta WHERE p.postID IN :postIds")
+    int adjustLikeCount(Collection<Integer> postIds, int delta);
+
+    /**
+     * Atomically adjusts the comment counters of the given posts.
+     *
+     * @param postIds the IDs of the posts to update
+     * @param delta   the change of the comment count
+     * @return the number of updated rows
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Post p SET p.commentCount = p.commentCount + :delta WHERE p.postID IN :postIds")
+    int adjustCommentCount(Collection<Integer> postIds, int delta);
+
+    /**
+     * Finds the highest post ID, the end of the range covered by the counter repair.
+     *
+     * @return the highest post ID, or {@code null} if there are no posts
+     */
+    @Query("SELECT MAX(p.postID) FROM Post p")
+    Integer findMaxPostId();
+
+    /**
+     * Recounts the likes of the posts in an ID range, updating only the counters that are wrong.
+     *
+     * @param fromId the first post ID of the range
+     * @param toId   the post ID after the range
+     * @return the number of repaired counters
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE posts p SET p.likeCount = (SELECT COUNT(*) FROM likes l WHERE l.postID = p.postID) " +
+            "WHERE p.postID >= :fromId AND p.postID < :toId " +
+            "AND p.likeCount <> (SELECT COUNT(*) FROM likes l WHERE l.postID = p.postID)", nativeQuery = true)
+    int repairLikeCounts(int fromId, int toId);
+
+    /**
+     * Recounts the comments of the posts in an ID range, updating only the counters that are wrong.
+     *
+     * @param fromId the first post ID of the range
+     * @param toId   the post ID after the range
+     * @return the number of repaired counters
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE posts p SET p.commentCount = (SELECT COUNT(*) FROM postComments c WHERE c.post_ID = p.postID) " +
+            "WHERE p.postID >= :fromId AND p.postID < :toId " +
+            "AND p.commentCount <> (SELECT COUNT(*) FROM postComments c WHERE c.post_ID = p.postID)", nativeQuery = true)
+    int repairCommentCounts(int fromId, int toId);
+}
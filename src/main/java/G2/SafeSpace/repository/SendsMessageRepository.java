@@ -5,6 +5,7 @@ import G2.SafeSpace.entity.SendsMessage;
 import G2.SafeSpace.entity.SendsMessageID;
 import G2.SafeSpace.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 
@@ -49,4 +50,14 @@ public interface SendsMessageRepository extends JpaRepository<SendsMessage, Send
      * @return a list of {@link SendsMessage} instances where the user is involved as sender or receiver
      */
     List<SendsMessage> findBySenderOrReceiver(User user, User user1);
+
+    /**
+     * Fetches all {@link SendsMessage} instances where the user with the given ID is either the sender or the receiver,
+     * without needing the {@link User} entity itself.
+     *
+     * @param userId the ID of the user who may be either the sender or the receiver
+     * @return a list of {@link SendsMessage} instances where the user is involved as sender or receiver
+     */
+    @Query("SELECT s FROM SendsMessage s WHERE s.sender.userID = :userId OR s.receiver.userID = :userId")
+    List<SendsMessage> findBySenderOrReceiverId(int userId);
 }
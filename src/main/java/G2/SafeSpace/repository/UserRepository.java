@@ -1,9 +1,16 @@
 package G2.SafeSpace.repository;
 
+import G2.SafeSpace.dto.UserDTO;
+import G2.SafeSpace.dto.UserStatsDTO;
+import G2.SafeSpace.dto.UserSummaryDTO;
 import G2.SafeSpace.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -11,8 +18,8 @@ import java.util.List;
  * for the {@link User} entity. It extends {@link JpaRepository} and includes custom query methods to
  * retrieve {@link User} entities based on specific criteria.
  *
- * <p>This repository includes methods for finding users by their username and finding users who follow
- * the specified user but are not yet friends with them.</p>
+ * <p>This repository includes methods for finding users by their username, case-insensitively through the
+ * normalized username column, and for reading users and friendships through projections.</p>
  */
 public interface UserRepository extends JpaRepository<User, Integer> {
 
@@ -25,13 +32,304 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     User findByUsername(String username);
 
     /**
-     * Finds a list of users who are following the specified user but are not friends with them.
-     * This query joins the friends relationship and excludes users who are already friends with the
-     * specified user.
+     * Fetches a {@link User} entity by its normalized username, using the unique index on the column.
      *
-     * @param userId the user ID of the current user to find followers for
-     * @return a list of {@link User} entities who follow the current user but are not friends with them
+     * @param normalizedUsername the trimmed, lower-cased username, see {@link User#normalizeUsername(String)}
+     * @return the {@link User} entity with the given username, or {@code null} if none exists
      */
-    @Query("SELECT u FROM User u JOIN u.friends f WHERE f.userID = :userId AND u NOT IN (SELECT uf FROM User u2 JOIN u2.friends uf WHERE u2.userID = :userId)")
-    List<User> findFollowers(int userId);
+    User findByNormalizedUsername(String normalizedUsername);
+
+    /**
+     * Checks whether a {@link User} with the given normalized username exists.
+     *
+     * @param normalizedUsername the trimmed, lower-cased username, see {@link User#normalizeUsername(String)}
+     * @return {@code true} if the username is taken, {@code false} otherwise
+     */
+    boolean existsByNormalizedUsername(String normalizedUsername);
+
+    /**
+     * Fetches the normalized usernames of all users, without loading the {@link User} entities.
+     *
+     * @return a list of the trimmed, lower-cased usernames of all users
+     */
+    @Query("SELECT u.normalizedUsername FROM User u")
+    List<String> findAllNormalizedUsernames();
+
+    /**
+     * Fetches a {@link UserSummaryDTO} of every user, built directly by the query without loading the
+     * {@link User} entities or their relationships.
+     *
+     * @return a list of the summaries of all users
+     */
+    @Query("SELECT new G2.SafeSpace.dto.UserSummaryDTO(u.userID, u.username, u.ProfilePictureID) FROM User u")
+    List<UserSummaryDTO> findAllSummaries();
+
+    /**
+     * Fetches one page of users ordered by ID, starting after the given ID (keyset pagination).
+     * The rows are built directly as {@link UserDTO} objects, so no lazy collection is ever loaded.
+     *
+     * @param afterId  the ID of the last user of the previous page, {@code 0} for the first page
+     * @param pageable the page size, the page number is always {@code 0}
+     * @return a list of at most {@code pageable.getPageSize()} users with an ID greater than {@code afterId}
+     */
+    @Query("SELECT new G2.SafeSpace.dto.UserDTO(u.userID, u.username, u.Bio, u.ProfilePictureID, u.dateOfCreation) " +
+            "FROM User u WHERE u.userID > :afterId ORDER BY u.userID")
+    List<UserDTO> findPageAfter(int afterId, Pageable pageable);
+
+    /**
+     * Fetches the given users as {@link UserDTO} objects, without loading the {@link User} entities.
+     *
+     * @param userIds the IDs of the users to fetch
+     * @return a list of the users that exist, in no particular order
+     */
+    @Query("SELECT new G2.SafeSpace.dto.UserDTO(u.userID, u.username, u.Bio, u.ProfilePictureID, u.dateOfCreation) " +
+            "FROM User u WHERE u.userID IN :userIds")
+    List<UserDTO> findDTOsByIds(Collection<Integer> userIds);
+
+    /**
+     * Fetches every row of the {@code friendship} table as a pair of user IDs.
+     * Each row is a directed edge from the user who added a friend to the added user.
+     *
+     * @return rows of {@code [User1, User2]}
+     */
+    @Query("SELECT u.userID, f.userID FROM User u JOIN u.friends f")
+    List<Object[]> findAllFriendshipEdges();
+
+    /**
+     * Counts the rows of the {@code friendship} table, used to validate a restored snapshot of the graph.
+     *
+     * @return the number of directed friendship edges
+     */
+    @Query(value = "SELECT COUNT(*) FROM friendship", nativeQuery = true)
+    long countFriendships();
+
+    /**
+     * Computes an order-independent checksum of the rows of the {@code friendship} table,
+     * used together with {@link #countFriendships()} to validate a restored snapshot of the graph.
+     * Each edge contributes a non-linear mix of its two users, so that replacing edges by as many other edges
+     * is caught as well. Must stay in sync with {@code FriendshipGraphService.edgeChecksum}.
+     *
+     * @return the sum of the checksums of all directed friendship edges
+     */
+    @Query(value = "SELECT COALESCE(SUM(MOD(User1 * 1000003 + User2 * 7919 + User1 * User2, 2147483647)), 0) " +
+            "FROM friendship", nativeQuery = true)
+    long checksumFriendships();
+
+    /**
+     * Adds the friendship edge from one user to another unless it already exists.
+     * The unique key on {@code (User1, User2)} makes concurrent identical requests insert the edge only once,
+     * so the returned row count tells the one request that actually added it.
+     *
+     * @param fromUserId the ID of the user who adds the friend
+     * @param toUserId   the ID of the user who is added
+     * @return {@code 1} if the edge was added, {@code 0} if it already existed
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO friendship (User1, User2) VALUES (:fromUserId, :toUserId)", nativeQuery = true)
+    int insertFriendship(int fromUserId, int toUserId);
+
+    /**
+     * Removes the friendship edge from one user to another.
+     *
+     * @param fromUserId the ID of the user who removes the friend
+     * @param toUserId   the ID of the user who is removed
+     * @return {@code 1} if the edge was removed, {@code 0} if it did not exist
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM friendship WHERE User1 = :fromUserId AND User2 = :toUserId", nativeQuery = true)
+    int deleteFriendship(int fromUserId, int toUserId);
+
+    /**
+     * Records that a user likes a post unless they already do.
+     * The unique key on {@code (userID, postID)} makes concurrent identical requests insert the like only once.
+     *
+     * @param userId the ID of the user
+     * @param postId the ID of the liked post
+     * @return {@code 1} if the like was added, {@code 0} if it already existed
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT IGNORE INTO likes (userID, postID) VALUES (:userId, :postId)", nativeQuery = true)
+    int insertLike(int userId, int postId);
+
+    /**
+     * Removes the like of a user from a post.
+     *
+     * @param userId the ID of the user
+     * @param postId the ID of the post
+     * @return {@code 1} if the like was removed, {@code 0} if it did not exist
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM likes WHERE userID = :userId AND postID = :postId", nativeQuery = true)
+    int deleteLike(int userId, int postId);
+
+    /**
+     * Sets the mutual flag of the friendship edge from one user to another.
+     * Being an update, it reads the latest version of the row, so concurrent requests are seen.
+     *
+     * @param fromUserId the ID of the user who added the friend
+     * @param toUserId   the ID of the user who was added
+     * @param mutual     whether the reverse edge exists
+     * @return the number of updated rows, {@code 0} if the edge does not exist
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE friendship SET mutual = :mutual WHERE User1 = :fromUserId AND User2 = :toUserId",
+            nativeQuery = true)
+    int updateFriendshipMutual(int fromUserId, int toUserId, boolean mutual);
+
+    /**
+     * Checks whether two users have added each other as friends, using the mutual flag of the edge.
+     *
+     * @param fromUserId the ID of the first user
+     * @param toUserId   the ID of the second user
+     * @return {@code 1} if the friendship is mutual, {@code 0} otherwise
+     */
+    @Query(value = "SELECT COUNT(*) FROM friendship WHERE User1 = :fromUserId AND User2 = :toUserId AND mutual = TRUE",
+            nativeQuery = true)
+    int countMutualFriendship(int fromUserId, int toUserId);
+
+    /**
+     * Fetches the profile summary of a user, built from the denormalized counters on the user row.
+     *
+     * @param userId the ID of the user
+     * @return the {@link UserStatsDTO} of the user, or {@code null} if the user does not exist
+     */
+    @Query("SELECT new G2.SafeSpace.dto.UserStatsDTO(u.userID, u.username, u.ProfilePictureID, u.postCount, " +
+            "u.likesGivenCount, u.friendsCount, u.followersCount, u.followingCount) FROM User u WHERE u.userID = :userId")
+    UserStatsDTO findStatsById(int userId);
+
+    /**
+     * Atomically adjusts the friendship counters of the given users.
+     *
+     * @param userIds   the IDs of the users to update
+     * @param friends   the change of the friend count
+     * @param following the change of the following count
+     * @param followers the change of the follower count
+     * @return the number of updated rows
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.friendsCount = u.friendsCount + :friends, " +
+            "u.followingCount = u.followingCount + :following, " +
+            "u.followersCount = u.followersCount + :followers WHERE u.userID IN :userIds")
+    int adjustFriendshipCounts(Collection<Integer> userIds, int friends, int following, int followers);
+
+    /**
+     * Atomically adjusts the post counters of the given users.
+     *
+     * @param userIds the IDs of the users to update
+     * @param delta   the change of the post count
+     * @return the number of updated rows
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.postCount = u.postCount + :delta WHERE u.userID IN :userIds")
+    int adjustPostCount(Collection<Integer> userIds, int delta);
+
+    /**
+     * Atomically adjusts the counters of given likes of the given users.
+     *
+     * @param userIds the IDs of the users to update
+     * @param delta   the change of the count of likes given
+     * @return the number of updated rows
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.likesGivenCount = u.likesGivenCount + :delta WHERE u.userID IN :userIds")
+    int adjustLikesGivenCount(Collection<Integer> userIds, int delta);
+
+    /**
+     * Atomically decrements the post counters of the creators of a post, without loading them.
+     * Must run before the post is deleted, while its rows in {@code posted} still exist.
+     *
+     * @param postId the ID of the post being deleted
+     * @return the number of updated rows
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE users SET postCount = postCount - 1 " +
+            "WHERE userID IN (SELECT userID FROM posted WHERE postID = :postId)", nativeQuery = true)
+    int decrementPostCountOfCreators(int postId);
+
+    /**
+     * Atomically decrements the counters of given likes of the users who liked a post, without loading them.
+     * Must run before the post is deleted, while its rows in {@code likes} still exist.
+     *
+     * @param postId the ID of the post being deleted
+     * @return the number of updated rows
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE users SET likesGivenCount = likesGivenCount - 1 " +
+            "WHERE userID IN (SELECT userID FROM likes WHERE postID = :postId)", nativeQuery = true)
+    int decrementLikesGivenCountOfLikers(int postId);
+
+    /**
+     * Finds the highest user ID, the end of the range covered by the counter repair.
+     *
+     * @return the highest user ID, or {@code null} if there are no users
+     */
+    @Query("SELECT MAX(u.userID) FROM User u")
+    Integer findMaxUserId();
+
+    /**
+     * Recounts the posts, given likes and friendships of the users in an ID range,
+     * updating only the rows where a counter is wrong.
+     *
+     * @param fromId the first user ID of the range
+     * @param toId   the user ID after the range
+     * @return the number of repaired users
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE users u SET " +
+            "u.postCount = (SELECT COUNT(*) FROM posted p WHERE p.userID = u.userID), " +
+            "u.likesGivenCount = (SELECT COUNT(*) FROM likes l WHERE l.userID = u.userID), " +
+            "u.friendsCount = (SELECT COUNT(*) FROM friendship f WHERE f.User1 = u.userID AND f.mutual = TRUE), " +
+            "u.followersCount = (SELECT COUNT(*) FROM friendship f WHERE f.User2 = u.userID AND f.mutual = FALSE), " +
+            "u.followingCount = (SELECT COUNT(*) FROM friendship f WHERE f.User1 = u.userID AND f.mutual = FALSE) " +
+            "WHERE u.userID >= :fromId AND u.userID < :toId AND (" +
+            "u.postCount <> (SELECT COUNT(*) FROM posted p WHERE p.userID = u.userID) " +
+            "OR u.likesGivenCount <> (SELECT COUNT(*) FROM likes l WHERE l.userID = u.userID) " +
+            "OR u.friendsCount <> (SELECT COUNT(*) FROM friendship f WHERE f.User1 = u.userID AND f.mutual = TRUE) " +
+            "OR u.followersCount <> (SELECT COUNT(*) FROM friendship f WHERE f.User2 = u.userID AND f.mutual = FALSE) " +
+            "OR u.followingCount <> (SELECT COUNT(*) FROM friendship f WHERE f.User1 = u.userID AND f.mutual = FALSE))",
+            nativeQuery = true)
+    int repairUserCounts(int fromId, int toId);
+
+    /**
+     * Finds the token version of a user, without loading the user.
+     *
+     * @param userId the ID of the user
+     * @return the token version, or {@code null} if the user does not exist
+     */
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.userID = :userId")
+    Integer findTokenVersion(int userId);
+
+    /**
+     * Atomically increments the token version of a user, revoking the tokens issued before.
+     *
+     * @param userId the ID of the user
+     * @return the number of updated rows
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.userID = :userId")
+    int incrementTokenVersion(int userId);
+
+    /**
+     * Replaces the stored password hash of a user without loading the {@link User} entity.
+     *
+     * @param userId   the user ID of the user whose password is updated
+     * @param password the new password hash
+     * @return the number of updated rows
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.userID = :userId")
+    int updatePassword(int userId, String password);
 }
@@ -6,99 +6,150 @@ import G2.SafeSpace.entity.User;
 import G2.SafeSpace.config.JwtService;
 import G2.SafeSpace.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * The {@code AuthenticationService} class provides authentication functionality for user registration and login.
- * It interacts with the {@link UserRepository} to handle user data, the {@link JwtService} to manage JWT tokens,
- * and the {@link AuthenticationManager} for authentication processing. This service is responsible for authenticating
- * users, registering new users, and generating JWT tokens for authenticated users.
+ * It interacts with the {@link UserRepository} to handle user data and the {@link JwtService} to manage JWT tokens.
+ * This service is responsible for authenticating users, registering new users, and generating JWT tokens
+ * for authenticated users.
+ * <p>
+ * Only password hashing and verification run on the {@link PasswordHashingService} pool, so both operations
+ * complete asynchronously. The database work and the token generation that follow continue on the application
+ * task executor, so database latency never holds a hashing thread.
+ * </p>
  */
 @Service
 public class AuthenticationService {
 
-    private final AuthenticationManager authenticationManager;
     private final UserRepository userRepository;
     private final JwtService jwtService;
     private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final UsernameRegistry usernameRegistry;
+    private final UserSearchIndex userSearchIndex;
+    private final Executor ioExecutor;
 
     /**
      * Constructs an {@code AuthenticationService} instance with the required dependencies.
      *
-     * @param authenticationManager the {@link AuthenticationManager} to handle authentication
      * @param userRepository the {@link UserRepository} for interacting with user data
      * @param jwtService the {@link JwtService} for JWT token generation
      * @param passwordEncoder the {@link PasswordEncoder} to encode user passwords
+     * @param passwordHashingService the {@link PasswordHashingService} running the password hashing
+     * @param usernameRegistry the {@link UsernameRegistry} recording taken usernames
+     * @param userSearchIndex the {@link UserSearchIndex} used for username search
+     * @param ioExecutor the {@link Executor} the work after hashing continues on
      */
     @Autowired
-    public AuthenticationService(AuthenticationManager authenticationManager,
-                                 UserRepository userRepository,
+    public AuthenticationService(UserRepository userRepository,
                                  JwtService jwtService,
-                                 PasswordEncoder passwordEncoder) {
-        this.authenticationManager = authenticationManager;
+                                 PasswordEncoder passwordEncoder,
+                                 PasswordHashingService passwordHashingService,
+                                 UsernameRegistry usernameRegistry,
+                                 UserSearchIndex userSearchIndex,
+                                 @Qualifier("applicationTaskExecutor") Executor ioExecutor) {
         this.userRepository = userRepository;
         this.jwtService = jwtService;
         this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
+        this.usernameRegistry = usernameRegistry;
+        this.userSearchIndex = userSearchIndex;
+        this.ioExecutor = ioExecutor;
     }
 
     /**
      * Registers a new user by accepting an {@link AuthenticationRequest} and creating a new {@link User} entity.
-     * The user's password is encoded, and a JWT token is generated for the newly created user.
+     * The user's password is encoded on the hashing pool, then the user is saved and a JWT token is generated
+     * on the application task executor.
      *
      * @param request the {@link AuthenticationRequest} containing the user's registration information
-     * @return a {@link UserDTO} containing the new user's details and JWT token
+     * @return a {@link CompletableFuture} completed with a {@link UserDTO} containing the new user's details
+     *         and JWT token, or completed exceptionally if the hashing queue is full or the username was taken
+     *         concurrently
      */
-    public UserDTO register(AuthenticationRequest request) {
+    public CompletableFuture<UserDTO> register(AuthenticationRequest request) {
+        String rawPassword = request.getPassword().trim();
 
-        User user = new User();
-        user.setUsername(request.getUsername().trim());
-        user.setPassword(passwordEncoder.encode(request.getPassword().trim()));
-        user.setBio(null);
-        user.setProfilePictureID("default");
+        return passwordHashingService.submit(() -> passwordEncoder.encode(rawPassword))
+                .thenApplyAsync(encodedPassword -> {
+                    User user = new User();
+                    user.setUsername(request.getUsername().trim());
+                    user.setPassword(encodedPassword);
+                    user.setBio(null);
+                    user.setProfilePictureID("default");
 
-        // Generate JWT token for the user
-        String token = jwtService.generateToken(user, generateExtraClaims(user));
-        // Save the user to the repository
-        User savedUser = userRepository.save(user);
-        // Create a DTO for the saved user
-        UserDTO userDTO = new UserDTO(savedUser, false);
-        userDTO.setJwt(token);
+                    // Save the user to the repository
+                    User savedUser = userRepository.save(user);
+                    usernameRegistry.register(savedUser.getUsername());
+                    userSearchIndex.put(savedUser);
+                    // Generate JWT token for the user, after saving so that the id claim is set
+                    String token = jwtService.generateToken(savedUser, generateExtraClaims(savedUser));
+                    // Create a DTO for the saved user
+                    UserDTO userDTO = new UserDTO(savedUser, false);
+                    userDTO.setJwt(token);
 
-        return userDTO;
+                    return userDTO;
+                }, ioExecutor);
     }
 
     /**
      * Authenticates a user by accepting an {@link AuthenticationRequest} containing their username and password.
-     * The user is authenticated using {@link AuthenticationManager}, and a JWT token is generated for the user.
+     * The user is loaded on the calling thread by the normalized username, so the lookup ignores case and
+     * surrounding whitespace like registration does. Only the password is verified on the hashing pool,
+     * and the JWT token is generated on the application task executor.
+     * A password hashed with an outdated cost factor is rehashed on the hashing pool and stored, this is the
+     * only place passwords are upgraded; the login still succeeds if the rehash is rejected by a full queue.
      *
      * @param request the {@link AuthenticationRequest} containing the user's login credentials
-     * @return a {@link UserDTO} containing the authenticated user's details and JWT token
+     * @return a {@link CompletableFuture} completed with a {@link UserDTO} containing the authenticated user's
+     *         details and JWT token, or completed exceptionally with a {@link BadCredentialsException}
+     *         if authentication fails or with a {@link java.util.concurrent.RejectedExecutionException}
+     *         if the hashing queue is full
      */
-    public UserDTO login(AuthenticationRequest request) {
-        // Create authentication token for the user
-        UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(
-                request.getUsername(),
-                request.getPassword()
-        );
+    public CompletableFuture<UserDTO> login(AuthenticationRequest request) {
+        User user = userRepository.findByNormalizedUsername(User.normalizeUsername(request.getUsername()));
+        if (user == null) {
+            return CompletableFuture.failedFuture(new BadCredentialsException("Bad credentials"));
+        }
+        String rawPassword = request.getPassword();
+        String storedPassword = user.getPassword();
 
-        // Authenticate the user
-        authenticationManager.authenticate(token);
-        // Retrieve the user from the database
-        User user = userRepository.findByUsername(request.getUsername());
-        // Generate JWT token for the authenticated user
-        String jwt = jwtService.generateToken(user, generateExtraClaims(user));
+        return passwordHashingService.submit(() -> passwordEncoder.matches(rawPassword, storedPassword))
+                .thenComposeAsync(matches -> {
+                    if (!matches) {
+                        throw new BadCredentialsException("Bad credentials");
+                    }
+                    if (!passwordEncoder.upgradeEncoding(storedPassword)) {
+                        return CompletableFuture.completedFuture(user);
+                    }
+                    return passwordHashingService.submit(() -> passwordEncoder.encode(rawPassword))
+                            .handleAsync((upgradedPassword, failure) -> {
+                                if (upgradedPassword != null) {
+                                    userRepository.updatePassword(user.getUserID(), upgradedPassword);
+                                    user.setPassword(upgradedPassword);
+                                }
+                                return user;
+                            }, ioExecutor);
+                }, ioExecutor)
+                .thenApplyAsync(authenticatedUser -> {
+                    // Generate JWT token for the authenticated user
+                    String jwt = jwtService.generateToken(authenticatedUser, generateExtraClaims(authenticatedUser));
 
-        // Create a DTO for the authenticated user
-        UserDTO userDTO = new UserDTO(user, false);
-        userDTO.setJwt(jwt);
+                    // Create a DTO for the authenticated user
+                    UserDTO userDTO = new UserDTO(authenticatedUser, false);
+                    userDTO.setJwt(jwt);
 
-        return userDTO;
+                    return userDTO;
+                }, ioExecutor);
     }
 
     /**
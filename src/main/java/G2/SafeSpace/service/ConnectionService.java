@@ -0,0 +1,375 @@
+package G2.SafeSpace.service;
+
+import G2.SafeSpace.dto.ConnectionDTO;
+import G2.SafeSpace.dto.UserSummaryDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service for finding the shortest chain of friendships between two users ("how you're connected").
+ * <p>
+ * Searches run a bidirectional breadth-first search over a {@link CsrGraph} snapshot of the friendship graph,
+ * always expanding the smaller frontier by one full level, so no query is issued per hop.
+ * The snapshot is rebuilt in the background when the graph has changed.
+ * </p>
+ * <p>
+ * A search keeps the parents of the users it has visited in open-addressing {@code int} hash maps and its frontiers
+ * in growable {@code int} arrays, so its memory grows with the users it actually visits, which the depth cap
+ * and the time budget bound, rather than with the highest user ID. These structures are pooled and reused,
+ * so a search allocates nothing per visited user, and the pool size bounds the number of concurrent searches.
+ * A pooled structure that grew beyond {@value #RETAINED_CAPACITY} entries is released after its search,
+ * which bounds the memory the pool holds between searches.
+ * </p>
+ */
+@Service
+public class ConnectionService {
+
+    private static final int NO_PARENT = -1;
+    private static final int TIME_CHECK_INTERVAL = 1024;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int RETAINED_CAPACITY = 1 << 16;
+
+    private final FriendshipGraphService friendshipGraph;
+    private final UserSearchIndex userSearchIndex;
+    private final int maxDepth;
+    private final long timeBudgetNanos;
+    private final BlockingQueue<SearchState> statePool;
+
+    private volatile CsrGraph snapshot;
+    private volatile long snapshotVersion = -1;
+
+    /**
+     * Constructs a ConnectionService.
+     *
+     * @param friendshipGraph       The in-memory friendship graph the snapshots are built from.
+     * @param userSearchIndex       The in-memory index used to look up the users on a path.
+     * @param maxDepth              The maximum number of friendships on a path.
+     * @param timeBudgetMillis      The time a single search may take, in milliseconds.
+     * @param maxConcurrentSearches The number of searches that may run at the same time.
+     */
+    @Autowired
+    public ConnectionService(FriendshipGraphService friendshipGraph,
+                             UserSearchIndex userSearchIndex,
+                             @Value("${users.connections.max-depth:6}") int maxDepth,
+                             @Value("${users.connections.time-budget-ms:50}") long timeBudgetMillis,
+                             @Value("${users.connections.max-concurrent-searches:4}") int maxConcurrentSearches) {
+        this.friendshipGraph = friendshipGraph;
+        this.userSearchIndex = userSearchIndex;
+        this.maxDepth = maxDepth;
+        this.timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+        this.statePool = new ArrayBlockingQueue<>(maxConcurrentSearches);
+        for (int i = 0; i < maxConcurrentSearches; i++) {
+            statePool.add(new SearchState());
+        }
+    }
+
+    /**
+     * Builds the first snapshot once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildInitialSnapshot() {
+        refreshSnapshot();
+    }
+
+    /**
+     * Rebuilds the snapshot if the friendship graph has changed since it was built.
+     */
+    @Scheduled(fixedDelayString = "${users.connections.snapshot-refresh-ms:10000}")
+    public void refreshSnapshot() {
+        long version = friendshipGraph.getVersion();
+        if (snapshot == null || version != snapshotVersion) {
+            CsrGraph rebuilt = CsrGraph.of(friendshipGraph);
+            snapshot = rebuilt;
+            snapshotVersion = version;
+        }
+    }
+
+    /**
+     * Finds the shortest chain of friendships from one user to another.
+     *
+     * @param fromUserId The ID of the current user.
+     * @param toUserId   The ID of the other user.
+     * @return A {@link ConnectionDTO} with the path, or an empty path if none was found within the limits.
+     */
+    public ConnectionDTO findConnection(int fromUserId, int toUserId) {
+        long deadline = System.nanoTime() + timeBudgetNanos;
+        CsrGraph graph = snapshot;
+        if (graph == null) {
+            refreshSnapshot();
+            graph = snapshot;
+        }
+        if (fromUserId >= graph.size() || toUserId >= graph.size()) {
+            // at least one of the users has no friends in the snapshot
+            return notFound(false);
+        }
+
+        SearchState state;
+        try {
+            state = statePool.poll(timeBudgetNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return notFound(true);
+        }
+        if (state == null) {
+            return notFound(true);
+        }
+        try {
+            return search(graph, state, fromUserId, toUserId, deadline);
+        } finally {
+            state.reset();
+            statePool.add(state);
+        }
+    }
+
+    /**
+     * Runs the bidirectional breadth-first search.
+     * A meeting is detected when a newly discovered user has already been reached from the other side.
+     * As each side is expanded one full level at a time, the first meeting gives a shortest path.
+     */
+    private ConnectionDTO search(CsrGraph graph, SearchState state, int from, int to, long deadline) {
+        int[] neighbors = graph.neighbors();
+
+        Side forward = state.forward;
+        Side backward = state.backward;
+        forward.start(from);
+        backward.start(to);
+        if (from == to) {
+            return found(state, from);
+        }
+
+        int depth = 0;
+        int scanned = 0;
+        while (depth < maxDepth && forward.hasFrontier() && backward.hasFrontier()) {
+            Side expanding = forward.frontierSize() <= backward.frontierSize() ? forward : backward;
+            Side other = expanding == forward ? backward : forward;
+
+            int levelEnd = expanding.tail;
+            for (int i = expanding.head; i < levelEnd; i++) {
+                int user = expanding.queue.get(i);
+                for (int e = graph.start(user), end = graph.end(user); e < end; e++) {
+                    int friend = neighbors[e];
+                    if (++scanned % TIME_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                        return notFound(true);
+                    }
+                    if (expanding.parents.containsKey(friend)) {
+                        continue;
+                    }
+                    expanding.visit(friend, user);
+                    if (other.parents.containsKey(friend)) {
+                        return found(state, friend);
+                    }
+                }
+            }
+            expanding.head = levelEnd;
+            depth++;
+        }
+        return notFound(false);
+    }
+
+    /**
+     * Builds the result for a path through the given meeting user, whose parents lead back to both ends.
+     */
+    private ConnectionDTO found(SearchState state, int meeting) {
+        List<Integer> ids = new ArrayList<>();
+        for (int user = meeting; user != NO_PARENT; user = state.forward.parents.get(user)) {
+            ids.add(0, user);
+        }
+        for (int user = state.backward.parents.get(meeting); user != NO_PARENT; user = state.backward.parents.get(user)) {
+            ids.add(user);
+        }
+
+        List<UserSummaryDTO> path = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            UserSummaryDTO summary = userSearchIndex.getSummary(id);
+            if (summary == null) {
+                // a user on the path was deleted after the snapshot was built
+                return notFound(false);
+            }
+            path.add(summary);
+        }
+        return new ConnectionDTO(true, ids.size() - 1, false, path);
+    }
+
+    private ConnectionDTO notFound(boolean timedOut) {
+        return new ConnectionDTO(false, -1, timedOut, List.of());
+    }
+
+    /**
+     * One direction of the search: the parent of every user reached from its end, and the queue of users
+     * in the order they were reached. The current frontier is {@code queue[head]} up to, but not including,
+     * {@code queue[tail]}.
+     */
+    private static final class Side {
+
+        private final IntIntMap parents = new IntIntMap();
+        private final IntQueue queue = new IntQueue();
+        private int head;
+        private int tail;
+
+        private void start(int user) {
+            parents.put(user, NO_PARENT);
+            queue.add(user);
+            head = 0;
+            tail = 1;
+        }
+
+        private void visit(int user, int from) {
+            parents.put(user, from);
+            queue.add(user);
+            tail++;
+        }
+
+        private boolean hasFrontier() {
+            return head < tail;
+        }
+
+        private int frontierSize() {
+            return tail - head;
+        }
+
+        private void reset() {
+            parents.clear();
+            queue.clear();
+            head = 0;
+            tail = 0;
+        }
+    }
+
+    /**
+     * Reusable structures of one search, one {@link Side} per direction.
+     */
+    private static final class SearchState {
+
+        private final Side forward = new Side();
+        private final Side backward = new Side();
+
+        private void reset() {
+            forward.reset();
+            backward.reset();
+        }
+    }
+
+    /**
+     * Open-addressing hash map from user IDs to user IDs with linear probing, without boxing.
+     * It only grows during a search; clearing it releases the arrays if they grew beyond
+     * {@value #RETAINED_CAPACITY} entries.
+     */
+    private static final class IntIntMap {
+
+        private static final int EMPTY = Integer.MIN_VALUE;
+
+        private int[] keys;
+        private int[] values;
+        private int mask;
+        private int size;
+
+        private IntIntMap() {
+            allocate(INITIAL_CAPACITY);
+        }
+
+        private boolean containsKey(int key) {
+            return keys[slot(key)] == key;
+        }
+
+        /**
+         * Returns the value of a key, which must be present.
+         */
+        private int get(int key) {
+            return values[slot(key)];
+        }
+
+        private void put(int key, int value) {
+            int slot = slot(key);
+            if (keys[slot] == EMPTY) {
+                keys[slot] = key;
+                size++;
+            }
+            values[slot] = value;
+            // kept at most half full, so probes stay short
+            if (size > keys.length / 2) {
+                grow();
+            }
+        }
+
+        private void clear() {
+            if (keys.length > RETAINED_CAPACITY) {
+                allocate(INITIAL_CAPACITY);
+            } else if (size > 0) {
+                Arrays.fill(keys, EMPTY);
+                size = 0;
+            }
+        }
+
+        /**
+         * Finds the slot of a key, or the empty slot where it would be inserted.
+         */
+        private int slot(int key) {
+            int hash = key * 0x9E3779B9;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            allocate(oldKeys.length * 2);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = slot(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                    size++;
+                }
+            }
+        }
+
+        private void allocate(int capacity) {
+            keys = new int[capacity];
+            values = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            mask = capacity - 1;
+            size = 0;
+        }
+    }
+
+    /**
+     * Growable array of user IDs. Clearing it releases the array if it grew beyond {@value #RETAINED_CAPACITY} entries.
+     */
+    private static final class IntQueue {
+
+        private int[] values = new int[INITIAL_CAPACITY];
+        private int size;
+
+        private int get(int index) {
+            return values[index];
+        }
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private void clear() {
+            if (values.length > RETAINED_CAPACITY) {
+                values = new int[INITIAL_CAPACITY];
+            }
+            size = 0;
+        }
+    }
+}
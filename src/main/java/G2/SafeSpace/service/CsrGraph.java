@@ -0,0 +1,131 @@
+package G2.SafeSpace.service;
+
+import java.util.function.IntFunction;
+
+/**
+ * Immutable compressed sparse row (CSR) adjacency of users, used as a compact snapshot of the friendship graph.
+ * <p>
+ * The neighbors of the user with ID {@code id} are {@code neighbors[offsets[id]]} up to, but not including,
+ * {@code neighbors[offsets[id + 1]]}, sorted by ID. User IDs index the offsets array directly,
+ * so a snapshot of the whole graph is two {@code int} arrays and needs no lookup table.
+ * </p>
+ */
+public final class CsrGraph {
+
+    private final int[] offsets;
+    private final int[] neighbors;
+
+    /**
+     * Constructs a CsrGraph from its arrays, which are taken over without copying.
+     *
+     * @param offsets   the start of the neighbors of each user in {@code neighbors}, one more entry than users
+     * @param neighbors the neighbors of all users, concatenated in the order of their IDs
+     */
+    public CsrGraph(int[] offsets, int[] neighbors) {
+        this.offsets = offsets;
+        this.neighbors = neighbors;
+    }
+
+    /**
+     * Builds a snapshot of the mutual friendships in the in-memory graph, where both users have added each other.
+     *
+     * @param graph the friendship graph to copy
+     * @return the snapshot of the mutual friendships
+     */
+    public static CsrGraph of(FriendshipGraphService graph) {
+        return build(graph, graph::getFriends);
+    }
+
+    /**
+     * Builds a snapshot of all directed edges in the in-memory graph, from the user who added a friend
+     * to the added user, which is the content of the {@code friendship} table.
+     *
+     * @param graph the friendship graph to copy
+     * @return the snapshot of the outgoing edges
+     */
+    public static CsrGraph ofOutgoing(FriendshipGraphService graph) {
+        return build(graph, graph::getOutgoing);
+    }
+
+    /**
+     * Copies the adjacency arrays of all users with outgoing edges into CSR form.
+     *
+     * @param graph     the friendship graph to copy
+     * @param adjacency the sorted neighbors of a user
+     * @return the snapshot
+     */
+    private static CsrGraph build(FriendshipGraphService graph, IntFunction<int[]> adjacency) {
+        int maxId = 0;
+        for (int userId : graph.getConnectedUserIds()) {
+            maxId = Math.max(maxId, userId);
+        }
+
+        int[][] lists = new int[maxId + 1][];
+        int[] offsets = new int[maxId + 2];
+        for (int userId = 0; userId <= maxId; userId++) {
+            lists[userId] = adjacency.apply(userId);
+            offsets[userId + 1] = offsets[userId] + lists[userId].length;
+        }
+        int[] neighbors = new int[offsets[maxId + 1]];
+        for (int userId = 0; userId <= maxId; userId++) {
+            System.arraycopy(lists[userId], 0, neighbors, offsets[userId], lists[userId].length);
+        }
+        return new CsrGraph(offsets, neighbors);
+    }
+
+    /**
+     * Returns the number of user IDs covered by the snapshot, one more than the highest ID.
+     *
+     * @return the size of the ID range
+     */
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * Returns the number of edges in the snapshot, a mutual friendship counting once per direction.
+     *
+     * @return the length of the neighbors array
+     */
+    public int edgeCount() {
+        return neighbors.length;
+    }
+
+    /**
+     * Returns the start of the neighbors of a user in {@link #neighbors()}.
+     *
+     * @param userId the ID of the user, which must be less than {@link #size()}
+     * @return the index of the first neighbor
+     */
+    public int start(int userId) {
+        return offsets[userId];
+    }
+
+    /**
+     * Returns the end of the neighbors of a user in {@link #neighbors()}.
+     *
+     * @param userId the ID of the user, which must be less than {@link #size()}
+     * @return the index after the last neighbor
+     */
+    public int end(int userId) {
+        return offsets[userId + 1];
+    }
+
+    /**
+     * Returns the offsets array, which must not be modified.
+     *
+     * @return the offsets array
+     */
+    public int[] offsets() {
+        return offsets;
+    }
+
+    /**
+     * Returns the neighbors array, which must not be modified.
+     *
+     * @return the neighbors array
+     */
+    public int[] neighbors() {
+        return neighbors;
+    }
+}
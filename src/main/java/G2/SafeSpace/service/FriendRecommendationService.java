@@ -0,0 +1,264 @@
+package G2.SafeSpace.service;
+
+import G2.SafeSpace.dto.FriendshipDTO;
+import G2.SafeSpace.dto.RecommendationDTO;
+import G2.SafeSpace.dto.UserSummaryDTO;
+import G2.SafeSpace.event.FriendrequestEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service for "people you may know" recommendations, ranking friends of friends by their number of mutual friends.
+ * <p>
+ * Recommendations are computed in memory from the {@link FriendshipGraphService} and kept per user,
+ * so serving them is a map lookup. A friendship change affects the two users involved and everyone
+ * who is friends with one of them, these users are marked dirty and recomputed by a background task.
+ * At startup, all users with friends are queued for the first computation.
+ * </p>
+ */
+@Service
+public class FriendRecommendationService {
+
+    private final FriendshipGraphService friendshipGraph;
+    private final UserSearchIndex userSearchIndex;
+    private final int maxRecommendations;
+    private final int batchSize;
+    private final Map<Integer, Recommendations> recommendations = new ConcurrentHashMap<>();
+    private final Set<Integer> dirtyUsers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructs a FriendRecommendationService.
+     *
+     * @param friendshipGraph    The in-memory friendship graph.
+     * @param userSearchIndex    The in-memory index used to look up the recommended users.
+     * @param maxRecommendations The number of recommendations kept per user.
+     * @param batchSize          The maximum number of users recomputed per background run.
+     */
+    @Autowired
+    public FriendRecommendationService(FriendshipGraphService friendshipGraph,
+                                       UserSearchIndex userSearchIndex,
+                                       @Value("${users.recommendations.size:20}") int maxRecommendations,
+                                       @Value("${users.recommendations.batch-size:10000}") int batchSize) {
+        this.friendshipGraph = friendshipGraph;
+        this.userSearchIndex = userSearchIndex;
+        this.maxRecommendations = maxRecommendations;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Queues every user with friends for the first computation once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void queueAllUsers() {
+        dirtyUsers.addAll(friendshipGraph.getConnectedUserIds());
+    }
+
+    /**
+     * Marks the users whose recommendations change with a friendship: the two users involved and their friends.
+     *
+     * @param event The event describing the friendship change.
+     */
+    @EventListener
+    public void handleFriendshipEvent(FriendrequestEvent event) {
+        FriendshipDTO friendship = event.getFriendshipDTO();
+        markDirty(friendship.getRequestingUserId());
+        markDirty(friendship.getReceivingUserId());
+    }
+
+    /**
+     * Removes a deleted user, whose friends are then recomputed without them.
+     *
+     * @param userId    The ID of the deleted user.
+     * @param friendIds The friends the user had before the deletion.
+     */
+    public void removeUser(int userId, int[] friendIds) {
+        recommendations.remove(userId);
+        dirtyUsers.remove(userId);
+        for (int friendId : friendIds) {
+            markDirty(friendId);
+        }
+    }
+
+    /**
+     * Recomputes the recommendations of a bounded number of dirty users.
+     */
+    @Scheduled(fixedDelayString = "${users.recommendations.refresh-ms:5000}")
+    public void refreshDirtyUsers() {
+        Iterator<Integer> iterator = dirtyUsers.iterator();
+        int processed = 0;
+        while (iterator.hasNext() && processed < batchSize) {
+            int userId = iterator.next();
+            iterator.remove();
+            recommendations.put(userId, compute(userId));
+            processed++;
+        }
+    }
+
+    /**
+     * Returns the recommendations of a user.
+     * A user without precomputed recommendations, for example right after startup, is computed on the spot.
+     *
+     * @param userId The ID of the user.
+     * @param limit  The maximum number of recommendations.
+     * @return A list of recommended users, best first.
+     */
+    public List<RecommendationDTO> getRecommendations(int userId, int limit) {
+        Recommendations cached = recommendations.get(userId);
+        if (cached == null) {
+            cached = compute(userId);
+            recommendations.put(userId, cached);
+        }
+
+        List<RecommendationDTO> result = new ArrayList<>();
+        for (int i = 0; i < cached.userIds.length && result.size() < limit; i++) {
+            UserSummaryDTO summary = userSearchIndex.getSummary(cached.userIds[i]);
+            // skips users deleted since the computation
+            if (summary != null) {
+                result.add(new RecommendationDTO(summary, cached.mutualCounts[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Marks a user and all of their friends dirty.
+     *
+     * @param userId The ID of the user.
+     */
+    private void markDirty(int userId) {
+        dirtyUsers.add(userId);
+        for (int friendId : friendshipGraph.getFriends(userId)) {
+            dirtyUsers.add(friendId);
+        }
+    }
+
+    /**
+     * Computes the best recommendations of a user.
+     * The friend lists of all friends are already sorted, so they are merged through a heap of list cursors,
+     * which yields every candidate once with the number of lists it occurs in, their number of mutual friends.
+     * This takes O(n log k) for n friends of friends spread over k friends, without copying the lists.
+     * Candidates the user already follows are skipped, the rest are ranked by mutual friends, then by ID.
+     *
+     * @param userId The ID of the user.
+     * @return The recommendations of the user.
+     */
+    Recommendations compute(int userId) {
+        int[] friends = friendshipGraph.getFriends(userId);
+        if (friends.length == 0) {
+            return Recommendations.EMPTY;
+        }
+
+        int[][] friendsOfFriends = new int[friends.length][];
+        int[] positions = new int[friends.length];
+        // min-heap of the indexes of the lists that are not exhausted, ordered by their current element
+        int[] heap = new int[friends.length];
+        int heapSize = 0;
+        for (int i = 0; i < friends.length; i++) {
+            friendsOfFriends[i] = friendshipGraph.getFriends(friends[i]);
+            if (friendsOfFriends[i].length > 0) {
+                heap[heapSize++] = i;
+            }
+        }
+        for (int i = heapSize / 2 - 1; i >= 0; i--) {
+            siftDown(heap, heapSize, i, friendsOfFriends, positions);
+        }
+
+        int[] following = friendshipGraph.getOutgoing(userId);
+        // the head of the queue is the weakest of the kept candidates, each entry is {userId, mutualCount}
+        PriorityQueue<int[]> best = new PriorityQueue<>(maxRecommendations + 1,
+                (a, b) -> a[1] != b[1] ? Integer.compare(a[1], b[1]) : Integer.compare(b[0], a[0]));
+        while (heapSize > 0) {
+            int candidate = friendsOfFriends[heap[0]][positions[heap[0]]];
+            int mutualCount = 0;
+            while (heapSize > 0 && friendsOfFriends[heap[0]][positions[heap[0]]] == candidate) {
+                mutualCount++;
+                int list = heap[0];
+                if (++positions[list] == friendsOfFriends[list].length) {
+                    heap[0] = heap[--heapSize];
+                }
+                if (heapSize > 0) {
+                    siftDown(heap, heapSize, 0, friendsOfFriends, positions);
+                }
+            }
+            if (candidate != userId && Arrays.binarySearch(following, candidate) < 0) {
+                best.add(new int[]{candidate, mutualCount});
+                if (best.size() > maxRecommendations) {
+                    best.poll();
+                }
+            }
+        }
+
+        int size = best.size();
+        int[] userIds = new int[size];
+        int[] mutualCounts = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            int[] entry = best.poll();
+            userIds[i] = entry[0];
+            mutualCounts[i] = entry[1];
+        }
+        return new Recommendations(userIds, mutualCounts);
+    }
+
+    /**
+     * Restores the order of the heap of list cursors below the given slot.
+     *
+     * @param heap      The indexes of the lists, ordered by their current element.
+     * @param size      The number of lists in the heap.
+     * @param slot      The slot whose list may be out of order.
+     * @param lists     The sorted lists being merged.
+     * @param positions The current position in each list.
+     */
+    private static void siftDown(int[] heap, int size, int slot, int[][] lists, int[] positions) {
+        int list = heap[slot];
+        int value = lists[list][positions[list]];
+        while (true) {
+            int child = 2 * slot + 1;
+            if (child >= size) {
+                break;
+            }
+            int childValue = lists[heap[child]][positions[heap[child]]];
+            if (child + 1 < size) {
+                int rightValue = lists[heap[child + 1]][positions[heap[child + 1]]];
+                if (rightValue < childValue) {
+                    child++;
+                    childValue = rightValue;
+                }
+            }
+            if (childValue >= value) {
+                break;
+            }
+            heap[slot] = heap[child];
+            slot = child;
+        }
+        heap[slot] = list;
+    }
+
+    /**
+     * Precomputed recommendations of one user, as parallel arrays ordered best first.
+     */
+    static final class Recommendations {
+
+        private static final Recommendations EMPTY = new Recommendations(new int[0], new int[0]);
+
+        private final int[] userIds;
+        private final int[] mutualCounts;
+
+        private Recommendations(int[] userIds, int[] mutualCounts) {
+            this.userIds = userIds;
+            this.mutualCounts = mutualCounts;
+        }
+    }
+}
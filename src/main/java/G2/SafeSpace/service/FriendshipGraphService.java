@@ -0,0 +1,472 @@
+package G2.SafeSpace.service;
+
+import G2.SafeSpace.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory copy of the {@code friendship} table, used to classify relationships without loading any entities.
+ * <p>
+ * A friendship row is a directed edge from the user who added a friend to the added user.
+ * Both directions are kept per user as sorted {@code int} arrays: the outgoing edges (users being followed)
+ * and the incoming edges (users following). Two users are friends when the edge exists in both directions.
+ * </p>
+ * <p>
+ * The arrays are never modified in place. Every change replaces the array of the affected user,
+ * so readers never lock and always see a consistent array. Changes are serialized by the service.
+ * </p>
+ * <p>
+ * The graph is built once at startup and kept current by {@link UserService} when friends are added or removed
+ * and when users are deleted.
+ * </p>
+ * <p>
+ * Startup restores the graph from the {@link FriendshipGraphStore} snapshot and its delta log when they are
+ * present and agree with the number of rows in the table, and scans the table otherwise.
+ * A fresh snapshot is written after startup and at shutdown, and every change is appended to the delta log.
+ * </p>
+ */
+@Service
+public class FriendshipGraphService {
+
+    private static final Logger log = LoggerFactory.getLogger(FriendshipGraphService.class);
+    private static final int[] EMPTY = new int[0];
+
+    private final UserRepository userRepository;
+    private final FriendshipGraphStore graphStore;
+    private final Map<Integer, int[]> outgoing = new ConcurrentHashMap<>();
+    private final Map<Integer, int[]> incoming = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Constructs a FriendshipGraphService.
+     *
+     * @param userRepository The repository for accessing user data.
+     * @param graphStore     The on-disk snapshot of the graph.
+     */
+    @Autowired
+    public FriendshipGraphService(UserRepository userRepository, FriendshipGraphStore graphStore) {
+        this.userRepository = userRepository;
+        this.graphStore = graphStore;
+    }
+
+    /**
+     * Builds the graph at startup, from the snapshot if it is current and from the {@code friendship} table otherwise,
+     * then writes a fresh snapshot.
+     */
+    @PostConstruct
+    public void load() {
+        if (!graphStore.isEnabled()) {
+            scan();
+            return;
+        }
+        long expectedEdges = userRepository.countFriendships();
+        long expectedChecksum = userRepository.checksumFriendships();
+        if (!restore(expectedEdges, expectedChecksum)) {
+            outgoing.clear();
+            incoming.clear();
+            scan();
+        }
+        graphStore.writeSnapshot(CsrGraph.ofOutgoing(this));
+    }
+
+    /**
+     * Writes a snapshot of the graph at shutdown, so the next startup does not need to replay the delta log.
+     * Holding the lock of the service keeps changes from landing between the snapshot and the emptied delta log.
+     */
+    @PreDestroy
+    public synchronized void save() {
+        if (graphStore.isEnabled()) {
+            graphStore.writeSnapshot(CsrGraph.ofOutgoing(this));
+        }
+    }
+
+    /**
+     * Builds the graph by scanning the {@code friendship} table.
+     */
+    private void scan() {
+        Map<Integer, IntList> out = new HashMap<>();
+        Map<Integer, IntList> in = new HashMap<>();
+        for (Object[] edge : userRepository.findAllFriendshipEdges()) {
+            int from = ((Number) edge[0]).intValue();
+            int to = ((Number) edge[1]).intValue();
+            out.computeIfAbsent(from, id -> new IntList()).add(to);
+            in.computeIfAbsent(to, id -> new IntList()).add(from);
+        }
+        out.forEach((id, list) -> outgoing.put(id, list.toSortedArray()));
+        in.forEach((id, list) -> incoming.put(id, list.toSortedArray()));
+    }
+
+    /**
+     * Restores the graph from the snapshot and replays the delta log on top of it.
+     * The restored graph is only accepted if its number of edges and its edge checksum match the table,
+     * which catches snapshots that missed changes made while the application was not writing them,
+     * including changes that added and removed the same number of edges.
+     *
+     * @param expectedEdges    The number of rows in the {@code friendship} table.
+     * @param expectedChecksum The checksum of the rows in the {@code friendship} table.
+     * @return {@code true} if the graph was restored, {@code false} if the table has to be scanned.
+     */
+    private boolean restore(long expectedEdges, long expectedChecksum) {
+        CsrGraph snapshot = graphStore.readSnapshot();
+        if (snapshot == null) {
+            return false;
+        }
+        int[] neighbors = snapshot.neighbors();
+        Map<Integer, IntList> in = new HashMap<>();
+        for (int userId = 0; userId < snapshot.size(); userId++) {
+            int start = snapshot.start(userId);
+            int end = snapshot.end(userId);
+            if (start < end) {
+                outgoing.put(userId, Arrays.copyOfRange(neighbors, start, end));
+                for (int e = start; e < end; e++) {
+                    in.computeIfAbsent(neighbors[e], id -> new IntList()).add(userId);
+                }
+            }
+        }
+        in.forEach((id, list) -> incoming.put(id, list.toSortedArray()));
+
+        boolean replayed = graphStore.replayDeltas((operation, first, second) -> {
+            switch (operation) {
+                case FriendshipGraphStore.ADD_EDGE -> applyAddEdge(first, second);
+                case FriendshipGraphStore.REMOVE_EDGE -> applyRemoveEdge(first, second);
+                case FriendshipGraphStore.REMOVE_USER -> applyRemoveUser(first);
+                default -> throw new IllegalStateException("Unknown delta operation " + operation);
+            }
+        });
+        long edges = 0;
+        long checksum = 0;
+        for (Map.Entry<Integer, int[]> entry : outgoing.entrySet()) {
+            edges += entry.getValue().length;
+            for (int to : entry.getValue()) {
+                checksum += edgeChecksum(entry.getKey(), to);
+            }
+        }
+        if (!replayed || edges != expectedEdges || checksum != expectedChecksum) {
+            log.warn("Friendship graph snapshot has {} edges with checksum {} but the table has {} with checksum {}, "
+                    + "scanning the table", edges, checksum, expectedEdges, expectedChecksum);
+            return false;
+        }
+        log.info("Restored friendship graph with {} edges from the snapshot", edges);
+        return true;
+    }
+
+    /**
+     * Computes the checksum of one directed edge, the same mix {@link UserRepository#checksumFriendships()}
+     * sums over the {@code friendship} table.
+     *
+     * @param from The user who added the other.
+     * @param to   The user who was added.
+     * @return The checksum of the edge, between {@code 0} and {@code 2^31 - 2}.
+     */
+    static long edgeChecksum(int from, int to) {
+        return ((long) from * 1000003 + (long) to * 7919 + (long) from * to) % 2147483647;
+    }
+
+    /**
+     * Checks whether a user has added another user as a friend, whether or not the friendship is mutual.
+     *
+     * @param from The user who may have added the other.
+     * @param to   The user who may have been added.
+     * @return {@code true} if the edge exists, {@code false} otherwise.
+     */
+    public boolean isFollowing(int from, int to) {
+        return Arrays.binarySearch(getOutgoing(from), to) >= 0;
+    }
+
+    /**
+     * Checks whether two users have added each other as friends.
+     *
+     * @param first  The first user.
+     * @param second The second user.
+     * @return {@code true} if the friendship is mutual, {@code false} otherwise.
+     */
+    public boolean areFriends(int first, int second) {
+        return isFollowing(first, second) && isFollowing(second, first);
+    }
+
+    /**
+     * Returns the users a user has added as a friend, whether or not the friendship is mutual.
+     *
+     * @param userId The ID of the user.
+     * @return A sorted array of user IDs, which must not be modified.
+     */
+    public int[] getOutgoing(int userId) {
+        return outgoing.getOrDefault(userId, EMPTY);
+    }
+
+    /**
+     * Returns the users who have added a user as a friend, whether or not the friendship is mutual.
+     *
+     * @param userId The ID of the user.
+     * @return A sorted array of user IDs, which must not be modified.
+     */
+    public int[] getIncoming(int userId) {
+        return incoming.getOrDefault(userId, EMPTY);
+    }
+
+    /**
+     * Returns the mutual friends of a user.
+     *
+     * @param userId The ID of the user.
+     * @return A sorted array of the IDs of users who have added the user and were added by the user.
+     */
+    public int[] getFriends(int userId) {
+        return intersect(getOutgoing(userId), getIncoming(userId));
+    }
+
+    /**
+     * Returns the friends two users have in common.
+     * Only the smallest of the four adjacency arrays involved is iterated, and each of its values is
+     * binary-searched in the other three, so the cost grows with the smaller degree of the two users.
+     *
+     * @param first  The ID of the first user.
+     * @param second The ID of the second user.
+     * @return A sorted array of the IDs of users who are mutual friends with both users.
+     */
+    public int[] getMutualFriends(int first, int second) {
+        int[][] sides = {getOutgoing(first), getIncoming(first), getOutgoing(second), getIncoming(second)};
+        int smallest = 0;
+        for (int i = 1; i < sides.length; i++) {
+            if (sides[i].length < sides[smallest].length) {
+                smallest = i;
+            }
+        }
+
+        int[] result = new int[sides[smallest].length];
+        int count = 0;
+        for (int candidate : sides[smallest]) {
+            boolean inAll = true;
+            for (int i = 0; i < sides.length && inAll; i++) {
+                inAll = i == smallest || Arrays.binarySearch(sides[i], candidate) >= 0;
+            }
+            if (inAll) {
+                result[count++] = candidate;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Returns the users a user follows without being followed back.
+     *
+     * @param userId The ID of the user.
+     * @return A sorted array of user IDs.
+     */
+    public int[] getFollowing(int userId) {
+        return subtract(getOutgoing(userId), getIncoming(userId));
+    }
+
+    /**
+     * Returns the users who follow a user without being followed back.
+     *
+     * @param userId The ID of the user.
+     * @return A sorted array of user IDs.
+     */
+    public int[] getFollowers(int userId) {
+        return subtract(getIncoming(userId), getOutgoing(userId));
+    }
+
+    /**
+     * Returns a number that changes whenever the graph changes, used to tell whether a snapshot is stale.
+     *
+     * @return The current version of the graph.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Returns the users who have added at least one friend, the only users who can have mutual friends.
+     *
+     * @return A live, unmodifiable view of the user IDs.
+     */
+    public Set<Integer> getConnectedUserIds() {
+        return Collections.unmodifiableSet(outgoing.keySet());
+    }
+
+    /**
+     * Records that a user has added another user as a friend.
+     *
+     * @param from The user who added the friend.
+     * @param to   The user who was added.
+     */
+    public synchronized void addEdge(int from, int to) {
+        applyAddEdge(from, to);
+        graphStore.appendDelta(FriendshipGraphStore.ADD_EDGE, from, to);
+    }
+
+    /**
+     * Records that a user has removed another user from their friends.
+     *
+     * @param from The user who removed the friend.
+     * @param to   The user who was removed.
+     */
+    public synchronized void removeEdge(int from, int to) {
+        applyRemoveEdge(from, to);
+        graphStore.appendDelta(FriendshipGraphStore.REMOVE_EDGE, from, to);
+    }
+
+    /**
+     * Removes a deleted user and all of their edges in both directions.
+     *
+     * @param userId The ID of the deleted user.
+     */
+    public synchronized void removeUser(int userId) {
+        applyRemoveUser(userId);
+        graphStore.appendDelta(FriendshipGraphStore.REMOVE_USER, userId, 0);
+    }
+
+    private void applyAddEdge(int from, int to) {
+        outgoing.put(from, insert(getOutgoing(from), to));
+        incoming.put(to, insert(getIncoming(to), from));
+        version.incrementAndGet();
+    }
+
+    private void applyRemoveEdge(int from, int to) {
+        replace(outgoing, from, delete(getOutgoing(from), to));
+        replace(incoming, to, delete(getIncoming(to), from));
+        version.incrementAndGet();
+    }
+
+    private void applyRemoveUser(int userId) {
+        int[] out = outgoing.remove(userId);
+        int[] in = incoming.remove(userId);
+        if (out != null) {
+            for (int to : out) {
+                replace(incoming, to, delete(getIncoming(to), userId));
+            }
+        }
+        if (in != null) {
+            for (int from : in) {
+                replace(outgoing, from, delete(getOutgoing(from), userId));
+            }
+        }
+        version.incrementAndGet();
+    }
+
+    /**
+     * Stores a changed array, dropping the entry of a user who has no edges left.
+     */
+    private static void replace(Map<Integer, int[]> edges, int userId, int[] values) {
+        if (values.length == 0) {
+            edges.remove(userId);
+        } else {
+            edges.put(userId, values);
+        }
+    }
+
+    /**
+     * Returns a copy of a sorted array with the value added, or the same array if it is already present.
+     */
+    private static int[] insert(int[] values, int value) {
+        int index = Arrays.binarySearch(values, value);
+        if (index >= 0) {
+            return values;
+        }
+        int position = -index - 1;
+        int[] result = new int[values.length + 1];
+        System.arraycopy(values, 0, result, 0, position);
+        result[position] = value;
+        System.arraycopy(values, position, result, position + 1, values.length - position);
+        return result;
+    }
+
+    /**
+     * Returns a copy of a sorted array without the value, or the same array if it is not present.
+     */
+    private static int[] delete(int[] values, int value) {
+        int index = Arrays.binarySearch(values, value);
+        if (index < 0) {
+            return values;
+        }
+        int[] result = new int[values.length - 1];
+        System.arraycopy(values, 0, result, 0, index);
+        System.arraycopy(values, index + 1, result, index, values.length - index - 1);
+        return result;
+    }
+
+    /**
+     * Returns the values present in both sorted arrays, in a single merge pass.
+     */
+    static int[] intersect(int[] first, int[] second) {
+        int[] result = new int[Math.min(first.length, second.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                result[count++] = first[i];
+                i++;
+                j++;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Returns the values of the first sorted array that are not in the second, in a single merge pass.
+     */
+    static int[] subtract(int[] first, int[] second) {
+        int[] result = new int[first.length];
+        int count = 0;
+        int j = 0;
+        for (int value : first) {
+            while (j < second.length && second[j] < value) {
+                j++;
+            }
+            if (j >= second.length || second[j] != value) {
+                result[count++] = value;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Converts an array of user IDs into a list, in the same order.
+     *
+     * @param ids The user IDs.
+     * @return A list of the user IDs.
+     */
+    public static List<Integer> toList(int[] ids) {
+        return Arrays.stream(ids).boxed().toList();
+    }
+
+    /**
+     * Growable list of primitive ints, used while building the graph.
+     */
+    private static final class IntList {
+
+        private int[] values = new int[4];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private int[] toSortedArray() {
+            int[] result = Arrays.copyOf(values, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
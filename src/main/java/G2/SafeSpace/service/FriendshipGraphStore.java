@@ -0,0 +1,285 @@
+package G2.SafeSpace.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Persists the friendship graph to disk, so that it can be restored at startup without scanning the
+ * {@code friendship} table.
+ * <p>
+ * The snapshot file holds the directed edges of the {@code friendship} table in compressed sparse row form,
+ * all values big-endian:
+ * </p>
+ * <ul>
+ *     <li>the magic number {@code 0x53534731} ("SSG1"),</li>
+ *     <li>the number of offsets as an {@code int} and the number of neighbors as an {@code int},</li>
+ *     <li>the offsets array, then the neighbors array, both as {@code int}s (see {@link CsrGraph}).</li>
+ * </ul>
+ * <p>
+ * Changes made after the snapshot was written are appended to a delta log next to it ({@code <snapshot>.delta}),
+ * as records of one operation byte followed by two {@code int}s. The snapshot is read through a memory-mapped
+ * {@link FileChannel}. Writing a new snapshot empties the delta log.
+ * </p>
+ * <p>
+ * Persistence is disabled when no snapshot path is configured. Failures are logged and never affect the caller,
+ * a snapshot that could not be kept current is deleted so that the next startup scans the table instead.
+ * </p>
+ * <p>
+ * Delta records are handed to the operating system as they are appended, but not forced to the disk, as a sync
+ * per friendship change would cost more than the scan it saves. A crash of the application loses no records,
+ * a crash of the machine may lose the last ones; the restored graph is then rejected by the edge count and
+ * checksum validation of {@link FriendshipGraphService#load()} and the table is scanned instead.
+ * </p>
+ */
+@Component
+public class FriendshipGraphStore {
+
+    /**
+     * Delta operation recording an added edge, the values are the two users of the edge.
+     */
+    public static final byte ADD_EDGE = 1;
+
+    /**
+     * Delta operation recording a removed edge, the values are the two users of the edge.
+     */
+    public static final byte REMOVE_EDGE = 2;
+
+    /**
+     * Delta operation recording a deleted user, the first value is the user and the second is unused.
+     */
+    public static final byte REMOVE_USER = 3;
+
+    private static final Logger log = LoggerFactory.getLogger(FriendshipGraphStore.class);
+    private static final int MAGIC = 0x53534731;
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+    private static final int DELTA_BYTES = 1 + 2 * Integer.BYTES;
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+
+    private final Path snapshotPath;
+    private final Path deltaPath;
+    private FileChannel deltaChannel;
+
+    /**
+     * Consumer of the records of the delta log.
+     */
+    @FunctionalInterface
+    public interface DeltaHandler {
+
+        /**
+         * Applies one recorded change.
+         *
+         * @param operation one of {@link #ADD_EDGE}, {@link #REMOVE_EDGE} and {@link #REMOVE_USER}
+         * @param first     the first value of the record
+         * @param second    the second value of the record
+         */
+        void apply(byte operation, int first, int second);
+    }
+
+    /**
+     * Constructs a FriendshipGraphStore.
+     *
+     * @param snapshotPath the path of the snapshot file, empty to disable persistence
+     */
+    public FriendshipGraphStore(@Value("${users.graph.snapshot-path:}") String snapshotPath) {
+        if (snapshotPath == null || snapshotPath.isBlank()) {
+            this.snapshotPath = null;
+            this.deltaPath = null;
+        } else {
+            this.snapshotPath = Path.of(snapshotPath);
+            this.deltaPath = Path.of(snapshotPath + ".delta");
+        }
+    }
+
+    /**
+     * @return {@code true} if a snapshot path is configured.
+     */
+    public boolean isEnabled() {
+        return snapshotPath != null;
+    }
+
+    /**
+     * Reads the snapshot through a memory-mapped file.
+     *
+     * @return the snapshot of the directed edges, or {@code null} if there is no readable snapshot.
+     */
+    public CsrGraph readSnapshot() {
+        if (!isEnabled() || !Files.isRegularFile(snapshotPath)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC) {
+                log.warn("Ignoring friendship graph snapshot {} with an unknown format", snapshotPath);
+                return null;
+            }
+            int offsetCount = buffer.getInt();
+            int neighborCount = buffer.getInt();
+            if (offsetCount < 1 || neighborCount < 0
+                    || size != HEADER_BYTES + ((long) offsetCount + neighborCount) * Integer.BYTES) {
+                log.warn("Ignoring truncated friendship graph snapshot {}", snapshotPath);
+                return null;
+            }
+            IntBuffer ints = buffer.asIntBuffer();
+            int[] offsets = new int[offsetCount];
+            int[] neighbors = new int[neighborCount];
+            ints.get(offsets);
+            ints.get(neighbors);
+            if (offsets[offsetCount - 1] != neighborCount) {
+                log.warn("Ignoring inconsistent friendship graph snapshot {}", snapshotPath);
+                return null;
+            }
+            return new CsrGraph(offsets, neighbors);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read friendship graph snapshot {}: {}", snapshotPath, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Replays the delta log recorded since the snapshot was written.
+     * A partially written last record, left by a crash, is ignored.
+     *
+     * @param handler the handler applying each change.
+     * @return {@code true} if the log was read, {@code false} if it could not be read.
+     */
+    public boolean replayDeltas(DeltaHandler handler) {
+        if (!isEnabled() || !Files.isRegularFile(deltaPath)) {
+            return true;
+        }
+        try (FileChannel channel = FileChannel.open(deltaPath, StandardOpenOption.READ)) {
+            long records = channel.size() / DELTA_BYTES;
+            if (records == 0) {
+                return true;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, records * DELTA_BYTES);
+            for (long i = 0; i < records; i++) {
+                handler.apply(buffer.get(), buffer.getInt(), buffer.getInt());
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read friendship graph delta log {}: {}", deltaPath, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Appends a change to the delta log.
+     *
+     * @param operation one of {@link #ADD_EDGE}, {@link #REMOVE_EDGE} and {@link #REMOVE_USER}
+     * @param first     the first value of the record
+     * @param second    the second value of the record
+     */
+    public synchronized void appendDelta(byte operation, int first, int second) {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            if (deltaChannel == null) {
+                deltaChannel = FileChannel.open(deltaPath, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            ByteBuffer record = ByteBuffer.allocate(DELTA_BYTES).put(operation).putInt(first).putInt(second).flip();
+            while (record.hasRemaining()) {
+                deltaChannel.write(record);
+            }
+        } catch (IOException e) {
+            log.warn("Could not append to friendship graph delta log {}, discarding the snapshot: {}",
+                    deltaPath, e.getMessage());
+            discard();
+        }
+    }
+
+    /**
+     * Writes a new snapshot and empties the delta log.
+     * The snapshot is written to a temporary file first and then moved into place.
+     *
+     * @param graph the directed edges to write, see {@link CsrGraph#ofOutgoing(FriendshipGraphService)}.
+     */
+    public synchronized void writeSnapshot(CsrGraph graph) {
+        if (!isEnabled()) {
+            return;
+        }
+        Path temporary = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+        try {
+            Path parent = snapshotPath.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES);
+                buffer.putInt(MAGIC).putInt(graph.offsets().length).putInt(graph.neighbors().length);
+                writeInts(channel, buffer, graph.offsets());
+                writeInts(channel, buffer, graph.neighbors());
+                flush(channel, buffer);
+                channel.force(true);
+            }
+            closeDeltaChannel();
+            Files.move(temporary, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(deltaPath);
+        } catch (IOException e) {
+            log.warn("Could not write friendship graph snapshot {}: {}", snapshotPath, e.getMessage());
+            discard();
+        }
+    }
+
+    /**
+     * Writes an int array through the buffer, flushing it whenever it is full.
+     */
+    private void writeInts(FileChannel channel, ByteBuffer buffer, int[] values) throws IOException {
+        for (int value : values) {
+            if (buffer.remaining() < Integer.BYTES) {
+                flush(channel, buffer);
+            }
+            buffer.putInt(value);
+        }
+    }
+
+    private void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Deletes the snapshot and the delta log, so that the next startup scans the table.
+     */
+    private void discard() {
+        closeDeltaChannel();
+        try {
+            Files.deleteIfExists(snapshotPath);
+            Files.deleteIfExists(deltaPath);
+        } catch (IOException e) {
+            log.warn("Could not delete friendship graph snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    private void closeDeltaChannel() {
+        if (deltaChannel != null) {
+            try {
+                deltaChannel.close();
+            } catch (IOException e) {
+                log.debug("Could not close friendship graph delta log {}", deltaPath, e);
+            }
+            deltaChannel = null;
+        }
+    }
+}
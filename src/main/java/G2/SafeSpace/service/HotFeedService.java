@@ -0,0 +1,243 @@
+package G2.SafeSpace.service;
+
+import G2.SafeSpace.dto.PostDTO;
+import G2.SafeSpace.event.CommentEvent;
+import G2.SafeSpace.event.LikeEvent;
+import G2.SafeSpace.event.PostCreatedEvent;
+import G2.SafeSpace.event.PostDeletedEvent;
+import G2.SafeSpace.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Service for the hot feed: the posts ranked by their likes and comments, decayed by their age.
+ * <p>
+ * The score of a post halves every {@code posts.hot.half-life-hours} hours. As the decay is the same
+ * for every post, it never changes the order of two posts, only likes and comments do. Each post is therefore
+ * ranked by a key that is fixed until its counts change, {@code log2(1 + likes + 2 * comments) + age in half-lives
+ * since the epoch}, and kept in a skip list ordered by that key. Likes and comments move a single post in the list,
+ * and reading the top of the feed walks the head of the list without sorting anything.
+ * </p>
+ * <p>
+ * Only the newest {@code posts.hot.max-posts} posts are loaded when the application starts, and when the list
+ * is full the post with the lowest key is dropped. Likes and comments on posts that are not in the list are ignored,
+ * as their age keeps them far below the posts that are.
+ * </p>
+ */
+@Service
+public class HotFeedService {
+
+    private static final Logger log = LoggerFactory.getLogger(HotFeedService.class);
+
+    private static final int COMMENT_WEIGHT = 2;
+
+    private final PostRepository postRepository;
+    private final double halfLifeSeconds;
+    private final int maxPosts;
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(
+            Comparator.comparingDouble(Entry::key).reversed().thenComparing(Comparator.comparingInt(Entry::postId).reversed()));
+
+    /**
+     * Constructs a HotFeedService.
+     *
+     * @param postRepository The repository for accessing posts.
+     * @param halfLifeHours  The number of hours after which the score of a post has halved.
+     * @param maxPosts       The number of posts kept in the ranking.
+     */
+    @Autowired
+    public HotFeedService(PostRepository postRepository,
+                          @Value("${posts.hot.half-life-hours:12}") double halfLifeHours,
+                          @Value("${posts.hot.max-posts:10000}") int maxPosts) {
+        this.postRepository = postRepository;
+        this.halfLifeSeconds = halfLifeHours * 3600;
+        this.maxPosts = maxPosts;
+    }
+
+    /**
+     * Loads the newest posts with their counts once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<PostDTO> posts = postRepository.findPageBefore(Integer.MAX_VALUE, PageRequest.of(0, maxPosts));
+        for (PostDTO post : posts) {
+            track(post);
+        }
+        log.info("Loaded {} posts into the hot feed", posts.size());
+    }
+
+    /**
+     * Adds a new post to the ranking.
+     *
+     * @param event The event describing the new post.
+     */
+    @EventListener
+    public void handlePostCreatedEvent(PostCreatedEvent event) {
+        track(event.getPost());
+    }
+
+    /**
+     * Moves a post in the ranking when it is liked or unliked.
+     *
+     * @param event The event describing the like.
+     */
+    @EventListener
+    public void handleLikeEvent(LikeEvent event) {
+        int delta = "like_removed".equals(event.getLikeDTO().getEventType()) ? -1 : 1;
+        update(event.getLikeDTO().getPostID(), delta, 0);
+    }
+
+    /**
+     * Moves a post in the ranking when it is commented or a comment is removed.
+     *
+     * @param event The event describing the comment.
+     */
+    @EventListener
+    public void handleCommentEvent(CommentEvent event) {
+        int delta = "comment_removed".equals(event.getEventType()) ? -1 : 1;
+        update(event.getPostID(), 0, delta);
+    }
+
+    /**
+     * Drops a deleted post from the ranking.
+     *
+     * @param event The event describing the deleted post.
+     */
+    @EventListener
+    public void handlePostDeletedEvent(PostDeletedEvent event) {
+        remove(event.getPostID());
+    }
+
+    /**
+     * Retrieves the hottest posts, hottest first.
+     * Only the posts of the page are loaded, with one query.
+     *
+     * @param limit The maximum number of posts.
+     * @return The posts, with their creator and counts.
+     */
+    public List<PostDTO> getHotPosts(int limit) {
+        Set<Integer> postIds = new LinkedHashSet<>();
+        // an entry being moved may be seen twice, the set keeps its first place
+        for (Iterator<Entry> it = ranking.iterator(); it.hasNext() && postIds.size() < limit; ) {
+            postIds.add(it.next().postId());
+        }
+        if (postIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, PostDTO> loaded = new HashMap<>();
+        for (PostDTO post : postRepository.findDTOsByIds(postIds)) {
+            loaded.put(post.getPostID(), post);
+        }
+        List<PostDTO> posts = new ArrayList<>(postIds.size());
+        for (int postId : postIds) {
+            PostDTO post = loaded.get(postId);
+            if (post != null) {
+                posts.add(post);
+            } else {
+                // the post has been deleted
+                remove(postId);
+            }
+        }
+        return posts;
+    }
+
+    /**
+     * Adds a post to the ranking, dropping the lowest ranked post if the ranking is full.
+     */
+    private synchronized void track(PostDTO post) {
+        if (entries.containsKey(post.getPostID())) {
+            return;
+        }
+        int likes = post.getLikeCount() != null ? post.getLikeCount() : 0;
+        int comments = post.getCommentCount() != null ? post.getCommentCount() : 0;
+        put(rank(post.getPostID(), parseCreated(post.getPostDate()), likes, comments));
+        while (entries.size() > maxPosts) {
+            Entry lowest = ranking.pollLast();
+            if (lowest == null) {
+                break;
+            }
+            entries.remove(lowest.postId());
+        }
+    }
+
+    /**
+     * Re-ranks a post in the ranking with its changed counts.
+     */
+    private synchronized void update(int postId, int likesDelta, int commentsDelta) {
+        Entry entry = entries.get(postId);
+        if (entry == null) {
+            return;
+        }
+        ranking.remove(entry);
+        put(rank(postId, entry.created(),
+                Math.max(0, entry.likes() + likesDelta), Math.max(0, entry.comments() + commentsDelta)));
+    }
+
+    /**
+     * Removes a post from the ranking.
+     */
+    private synchronized void remove(int postId) {
+        Entry entry = entries.remove(postId);
+        if (entry != null) {
+            ranking.remove(entry);
+        }
+    }
+
+    /**
+     * Computes the key of a post, which only changes with its counts.
+     */
+    private Entry rank(int postId, long created, int likes, int comments) {
+        double key = Math.log1p(likes + COMMENT_WEIGHT * comments) / Math.log(2) + created / halfLifeSeconds;
+        return new Entry(postId, created, likes, comments, key);
+    }
+
+    /**
+     * Adds an entry to the index and the ranking.
+     */
+    private void put(Entry entry) {
+        entries.put(entry.postId(), entry);
+        ranking.add(entry);
+    }
+
+    /**
+     * Parses the creation date of a post, as written by the database, into epoch seconds.
+     * A post without a readable date is treated as created now.
+     */
+    private static long parseCreated(String postDate) {
+        if (postDate != null) {
+            try {
+                return LocalDateTime.parse(postDate.trim().replace(' ', 'T'))
+                        .atZone(ZoneId.systemDefault()).toEpochSecond();
+            } catch (DateTimeParseException e) {
+                log.debug("Unreadable post date {}", postDate);
+            }
+        }
+        return System.currentTimeMillis() / 1000;
+    }
+
+    /**
+     * A ranked post: its creation time in epoch seconds, its counts, and the key it is ranked by.
+     */
+    private record Entry(int postId, long created, int likes, int comments, double key) {
+    }
+}
@@ -68,8 +68,19 @@ public class MessageService {
      * @return a list of {@link ConversationDTO} objects representing the user's conversations
      */
     public List<ConversationDTO> getConversations(User user) {
+        return getConversations(user.getUserID());
+    }
+
+    /**
+     * Retrieves a list of all conversations for the user with the given ID, including the messages exchanged.
+     * Only the ID is needed, so the conversations can be built on another thread than the one the user was loaded on.
+     *
+     * @param userId the ID of the user whose conversations are to be retrieved
+     * @return a list of {@link ConversationDTO} objects representing the user's conversations
+     */
+    public List<ConversationDTO> getConversations(int userId) {
         // Get all the messages sent or received by the user
-        List<SendsMessage> allMessages = sendsMessageRepository.findBySenderOrReceiver(user, user);
+        List<SendsMessage> allMessages = sendsMessageRepository.findBySenderOrReceiverId(userId);
 
         // Initialize new list that will be filled with all the conversations
         List<ConversationDTO> conversations = new ArrayList<>();
@@ -82,10 +93,11 @@ public class MessageService {
             // flag if user is sender or receiver
             boolean isSender = false;
 
-            if (message.getSender().equals(user)) {
+            // compared by ID, the messages may have been loaded by another persistence context than the user
+            if (message.getSender().getUserID() == userId) {
                 isSender = true;
                 participant = message.getReceiver();
-            } else if (message.getReceiver().equals(user)) {
+            } else if (message.getReceiver().getUserID() == userId) {
                 participant = message.getSender();
             }
 
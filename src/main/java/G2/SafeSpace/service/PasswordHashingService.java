@@ -0,0 +1,95 @@
+package G2.SafeSpace.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Service that runs password hashing on a dedicated, bounded worker pool.
+ * <p>
+ * BCrypt is deliberately slow, running it on the servlet request threads lets a burst of logins
+ * occupy every request thread. Hashing work is therefore queued to a separately sized pool instead.
+ * When the queue is full, new work is rejected immediately with a {@link RejectedExecutionException},
+ * which the authentication endpoints answer with {@code 503 Service Unavailable}.
+ * </p>
+ * <p>
+ * The time spent waiting in the queue and the time spent hashing are published as the
+ * {@code auth.hash.queue.wait} and {@code auth.hash.time} metrics.
+ * </p>
+ */
+@Service
+public class PasswordHashingService {
+
+    private final ThreadPoolExecutor executor;
+    private final Timer queueWait;
+    private final Timer hashTime;
+    private final Counter rejected;
+
+    /**
+     * Constructs a PasswordHashingService with a worker pool of the given size.
+     *
+     * @param threads       the number of hashing threads.
+     * @param queueCapacity the maximum number of hashing tasks waiting for a thread.
+     * @param meterRegistry the {@link MeterRegistry} the hashing metrics are registered to.
+     */
+    @Autowired
+    public PasswordHashingService(@Value("${security.password.hash-threads:2}") int threads,
+                                  @Value("${security.password.hash-queue-capacity:50}") int queueCapacity,
+                                  MeterRegistry meterRegistry) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.queueWait = Timer.builder("auth.hash.queue.wait").register(meterRegistry);
+        this.hashTime = Timer.builder("auth.hash.time").register(meterRegistry);
+        this.rejected = Counter.builder("auth.hash.rejected").register(meterRegistry);
+        Gauge.builder("auth.hash.queue.size", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+    }
+
+    /**
+     * Runs a password hashing task on the hashing pool.
+     *
+     * @param task the task that hashes or verifies a password.
+     * @param <T>  the result type of the task.
+     * @return a {@link CompletableFuture} completed with the result of the task, or completed exceptionally
+     *         with a {@link RejectedExecutionException} if the hashing queue is full.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                queueWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return hashTime.record(task);
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Stops the hashing pool when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
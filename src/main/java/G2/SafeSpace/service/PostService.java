@@ -1,13 +1,23 @@
 package G2.SafeSpace.service;
 
+import G2.SafeSpace.dto.CursorPageDTO;
+import G2.SafeSpace.dto.FieldSelection;
 import G2.SafeSpace.dto.PostDTO;
 import G2.SafeSpace.entity.Comment;
 import G2.SafeSpace.entity.Post;
 import G2.SafeSpace.entity.User;
+import G2.SafeSpace.event.CommentEvent;
 import G2.SafeSpace.event.PostCreatedEvent;
+import G2.SafeSpace.event.PostDeletedEvent;
 import G2.SafeSpace.repository.CommentRepository;
 import G2.SafeSpace.repository.PostRepository;
+import G2.SafeSpace.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,39 +35,53 @@ import java.util.Optional;
 @Service
 public class PostService {
 
+    private static final Logger log = LoggerFactory.getLogger(PostService.class);
+
     private final PostRepository postRepository;
     private final ApplicationEventPublisher eventPublisher;
     private final CommentRepository commentRepository;
+    private final UserRepository userRepository;
+    private final int counterRepairBatchSize;
+    private int counterRepairCursor;
 
     /**
      * Constructs a PostService with the provided repositories and event publisher.
      *
      * @param postRepository    Repository for managing Post entities.
      * @param commentRepository Repository for managing Comment entities.
-     * @param eventPublisher    Publisher for PostCreatedEvent.
+     * @param userRepository    Repository for updating the post counters of users.
+     * @param eventPublisher    Publisher for PostCreatedEvent, PostDeletedEvent and CommentEvent.
+     * @param counterRepairBatchSize The number of post IDs whose counters are checked per repair run.
      */
     public PostService(PostRepository postRepository,
                        CommentRepository commentRepository,
-                       ApplicationEventPublisher eventPublisher) {
+                       UserRepository userRepository,
+                       ApplicationEventPublisher eventPublisher,
+                       @Value("${posts.counters.repair-batch-size:1000}") int counterRepairBatchSize) {
         this.postRepository = postRepository;
         this.eventPublisher = eventPublisher;
         this.commentRepository = commentRepository;
+        this.userRepository = userRepository;
+        this.counterRepairBatchSize = counterRepairBatchSize;
     }
 
     /**
      * Creates a new post and associates it with a user. The post is saved to the database
-     * and a PostCreatedEvent is published.
+     * and the post counter of the user is incremented in the same transaction,
+     * and a PostCreatedEvent is published once it has committed.
      *
      * @param post  The Post object to create.
      * @param user  The user creating the post.
      * @return      The created Post object, or null if the content is invalid.
      */
+    @Transactional
     public Post createPost(Post post, User user) {
         if (post.getPost_content() != null || post.getPost_pictureID() != null) {
             post.setPost_content(post.getPost_content().trim());
             post.setPost_pictureID(post.getPost_pictureID());
             user.addPost(post);
             Post createdPost = postRepository.save(post);
+            userRepository.adjustPostCount(List.of(user.getUserID()), 1);
             LocalDateTime now = LocalDateTime.now();
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
             String formattedDate = now.format(formatter);
@@ -65,7 +89,9 @@ public class PostService {
             postDTO.setPostDate(formattedDate);
             postDTO.setPostCreatorID(user.getUserID());
             postDTO.setPostCreatorName(user.getUsername());
-            eventPublisher.publishEvent(new PostCreatedEvent(this, postDTO));
+            postDTO.setLikeCount(0);
+            postDTO.setCommentCount(0);
+            TransactionCallbacks.runAfterCommit(() -> eventPublisher.publishEvent(new PostCreatedEvent(this, postDTO)));
             return createdPost;
         }
         return null;
@@ -122,58 +148,94 @@ public class PostService {
     }
 
     /**
-     * Associates a user with a post and sets relevant post information in the provided PostDTO.
+     * Retrieves a post as a PostDTO with its creator and its like and comment counts, in a single query.
      *
-     * @param post    The Post object to associate.
-     * @param postDTO The PostDTO object to set user-related information.
+     * @param id     The ID of the post.
+     * @param fields The sections to include, any of {@code creator} and {@code counts}.
+     * @return The PostDTO of the post, or {@code null} if not found.
      */
-    public void associateUserToPost(Post post, PostDTO postDTO) {
-        if (!post.getUsers().isEmpty()) {
-            User postCreator = post.getUsers().iterator().next();
-            postDTO.setPostCreatorID(postCreator.getUserID());
-            postDTO.setPostCreatorName(postCreator.getUsername());
-        }
-
-        if (!post.getLikedUsers().isEmpty()) {
-            postDTO.setLikeCount(post.getLikedUsers().size());
-            postDTO.setCommentCount(post.getComments().size());
+    public PostDTO findPostDTOById(int id, FieldSelection fields) {
+        try {
+            return postRepository.findDTOById(id).map(postDTO -> selectFields(postDTO, fields)).orElse(null);
+        } catch (Exception e) {
+            throw new RuntimeException("No posts found with id " + id + " " + e.getMessage());
         }
     }
 
     /**
-     * Retrieves all posts from the repository, converts them into PostDTO objects,
-     * and associates each post with relevant user information.
+     * Retrieves one page of the feed, newest first, as PostDTO objects (keyset pagination).
+     * <p>
+     * The page is read through a projection that includes the creator and the like and comment counts,
+     * so it takes one query whatever its size. When neither the {@code creator} nor the {@code counts}
+     * are selected, a plain projection of the post columns is used instead.
+     * </p>
      *
-     * @return A list of PostDTO objects representing all posts.
+     * @param beforeId The ID of the last post of the previous page, {@code null} for the first page.
+     * @param limit    The maximum number of posts on the page.
+     * @param fields   The sections to include, any of {@code creator} and {@code counts}.
+     * @return A {@link CursorPageDTO} with the posts of the page and the cursor of the next page.
      */
-    @Transactional(readOnly = true)
-    public List<PostDTO> findAllPosts() {
+    public CursorPageDTO<PostDTO> findPostsPage(Integer beforeId, int limit, FieldSelection fields) {
         try {
-            List<Post> rawPosts = postRepository.findAll();
-            List<PostDTO> postDTOS = new ArrayList<>();
-            for (Post rawPost : rawPosts) {
-                PostDTO postDTO = new PostDTO(rawPost);
-                associateUserToPost(rawPost, postDTO);
-                postDTOS.add(postDTO);
+            int before = beforeId == null ? Integer.MAX_VALUE : beforeId;
+            // one extra row tells whether another page follows
+            PageRequest page = PageRequest.of(0, limit + 1);
+            boolean detailed = fields.includes("creator") || fields.includes("counts");
+            List<PostDTO> postDTOS = detailed
+                    ? postRepository.findPageBefore(before, page)
+                    : postRepository.findBasicPageBefore(before, page);
+            Integer nextCursor = null;
+            if (postDTOS.size() > limit) {
+                postDTOS = postDTOS.subList(0, limit);
+                nextCursor = postDTOS.get(limit - 1).getPostID();
+            }
+            if (detailed) {
+                postDTOS.forEach(postDTO -> selectFields(postDTO, fields));
             }
-            return postDTOS;
+            return new CursorPageDTO<>(postDTOS, nextCursor);
         } catch (Exception e) {
             throw new RuntimeException("No posts found " + e.getMessage());
         }
     }
 
+    /**
+     * Clears the sections of a PostDTO that were not selected.
+     *
+     * @param postDTO The PostDTO read with its creator and counts.
+     * @param fields  The sections to keep.
+     * @return The same PostDTO.
+     */
+    private PostDTO selectFields(PostDTO postDTO, FieldSelection fields) {
+        if (!fields.includes("creator")) {
+            postDTO.setPostCreatorID(null);
+            postDTO.setPostCreatorName(null);
+        }
+        if (!fields.includes("counts")) {
+            postDTO.setLikeCount(null);
+            postDTO.setCommentCount(null);
+        }
+        return postDTO;
+    }
+
     /**
      * Deletes a post by its ID.
+     * The post counters of its creators and the like counters of its likers are decremented
+     * in the same transaction, before the delete, and a PostDeletedEvent is published once it has committed.
      *
      * @param id The ID of the post to delete.
      * @return   True if the post was deleted successfully, false otherwise.
      */
+    @Transactional
     public boolean deletePost(int id) {
         try {
             Optional<Post> optionalPost = postRepository.findById(id);
             if (optionalPost.isPresent()) {
                 Post post = optionalPost.get();
+                // the counters are adjusted from the join tables, so the likers are never loaded
+                userRepository.decrementPostCountOfCreators(id);
+                userRepository.decrementLikesGivenCountOfLikers(id);
                 postRepository.delete(post);
+                TransactionCallbacks.runAfterCommit(() -> eventPublisher.publishEvent(new PostDeletedEvent(id)));
                 return true;
             } else {
                 return false;
@@ -217,18 +279,24 @@ public class PostService {
 
     /**
      * Creates a comment on a post, associates it with the user, and saves it.
+     * The comment counter of the post is incremented in the same transaction,
+     * and a CommentEvent is published once it has committed.
      *
      * @param comment The Comment object to create.
      * @param user    The user creating the comment.
      * @param post    The post to associate the comment with.
      * @return        The created Comment object, or null if content is invalid.
      */
+    @Transactional
     public Comment createComment(Comment comment, User user, Post post) {
         if (comment.getCommentContent() != null) {
             comment.setUser(user);
             commentRepository.save(comment);
             post.addComment(comment);
             postRepository.save(post);
+            postRepository.adjustCommentCount(List.of(post.getPostID()), 1);
+            int postId = post.getPostID();
+            TransactionCallbacks.runAfterCommit(() -> eventPublisher.publishEvent(new CommentEvent(postId, "comment_added")));
             return comment;
         }
         return null;
@@ -255,18 +323,30 @@ public class PostService {
      * This method attempts to find the comment with the given ID in the repository.
      * If the comment is found, it is deleted and the method returns true.
      * If no comment is found with the given ID, the method returns false.
+     * The comment counters of its posts are decremented in the same transaction,
+     * and a CommentEvent is published for each post once it has committed.
      * </p>
      *
      * @param commentID The ID of the comment to delete.
      * @return          True if the comment was successfully deleted, false if no comment with the given ID was found.
      * @throws RuntimeException If an error occurs while deleting the comment.
      */
+    @Transactional
     public boolean deleteComment(int commentID) {
         try {
             Optional<Comment> optionalComment = commentRepository.findById(commentID);
             if (optionalComment.isPresent()) {
                 Comment comment = optionalComment.get();
+                List<Integer> postIds = postRepository.findPostIdsByCommentId(commentID);
                 commentRepository.delete(comment);
+                if (!postIds.isEmpty()) {
+                    postRepository.adjustCommentCount(postIds, -1);
+                }
+                TransactionCallbacks.runAfterCommit(() -> {
+                    for (int postId : postIds) {
+                        eventPublisher.publishEvent(new CommentEvent(postId, "comment_removed"));
+                    }
+                });
                 return true;
             } else {
                 return false;
@@ -300,4 +380,30 @@ public class PostService {
             throw new RuntimeException("Comment update failed, " + e.getMessage());
         }
     }
+
+    /**
+     * Reconciles the like and comment counters of one range of posts with the {@code likes}
+     * and {@code postComments} tables.
+     * <p>
+     * The counters are adjusted atomically when likes and comments change, this task repairs the drift
+     * left by changes that bypass the services, such as rows removed by cascading deletes of users.
+     * Each run checks the next range of post IDs and starts over from the beginning after the last post,
+     * so the whole table is covered without ever locking more than one range.
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "${posts.counters.repair-ms:60000}")
+    public void repairCounters() {
+        Integer maxPostId = postRepository.findMaxPostId();
+        if (maxPostId == null || counterRepairCursor > maxPostId) {
+            counterRepairCursor = 0;
+            return;
+        }
+        int fromId = counterRepairCursor;
+        int toId = fromId + counterRepairBatchSize;
+        int repaired = postRepository.repairLikeCounts(fromId, toId) + postRepository.repairCommentCounts(fromId, toId);
+        if (repaired > 0) {
+            log.info("Repaired {} post counters for post IDs {} to {}", repaired, fromId, toId - 1);
+        }
+        counterRepairCursor = toId;
+    }
 }
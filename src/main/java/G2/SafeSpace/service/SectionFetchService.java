@@ -0,0 +1,116 @@
+package G2.SafeSpace.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Service that fetches the independent sections of a composite response concurrently on a bounded worker pool.
+ * <p>
+ * Each section is started with {@link #fetch(String, Supplier)} and collected with
+ * {@link #await(String, CompletableFuture, long)} against a deadline shared by all sections of the response,
+ * so the response takes as long as its slowest section instead of the sum of all of them.
+ * A section that fails or misses the deadline is reported as missing, and the response is built without it.
+ * </p>
+ * <p>
+ * Sections must not touch lazy collections of entities loaded by the calling thread, as the persistence context
+ * of a request is not thread-safe. They load what they need through repositories instead.
+ * When the queue of the pool is full, a section runs on the calling thread, so requests are slowed down
+ * rather than rejected.
+ * </p>
+ * <p>
+ * The time each section takes is published as the {@code sections.fetch.time} metric,
+ * and missing sections are counted by the {@code sections.fetch.missing} metric, both tagged with the section.
+ * </p>
+ */
+@Service
+public class SectionFetchService {
+
+    private static final Logger log = LoggerFactory.getLogger(SectionFetchService.class);
+
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Constructs a SectionFetchService with a worker pool of the given size.
+     *
+     * @param threads       the number of worker threads.
+     * @param queueCapacity the maximum number of sections waiting for a thread.
+     * @param meterRegistry the {@link MeterRegistry} the section metrics are registered to.
+     */
+    @Autowired
+    public SectionFetchService(@Value("${sections.fetch.threads:8}") int threads,
+                               @Value("${sections.fetch.queue-capacity:100}") int queueCapacity,
+                               MeterRegistry meterRegistry) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "section-fetch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Starts fetching a section on the worker pool.
+     *
+     * @param section the name of the section, used in metrics and logs.
+     * @param loader  the task that loads the section.
+     * @param <T>     the type of the section.
+     * @return a {@link CompletableFuture} completed with the section.
+     */
+    public <T> CompletableFuture<T> fetch(String section, Supplier<T> loader) {
+        Timer timer = Timer.builder("sections.fetch.time").tag("section", section).register(meterRegistry);
+        return CompletableFuture.supplyAsync(() -> timer.record(loader), executor);
+    }
+
+    /**
+     * Waits for a section until the deadline.
+     *
+     * @param section  the name of the section, used in metrics and logs.
+     * @param future   the future returned by {@link #fetch(String, Supplier)}.
+     * @param deadline the {@link System#nanoTime()} by which the section must be complete.
+     * @param <T>      the type of the section.
+     * @return the section, or {@code null} if it failed or was not complete by the deadline.
+     */
+    public <T> T await(String section, CompletableFuture<T> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            log.warn("Section {} was not fetched in time", section);
+        } catch (ExecutionException e) {
+            log.warn("Fetching section {} failed: {}", section, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Counter.builder("sections.fetch.missing").tag("section", section).register(meterRegistry).increment();
+        return null;
+    }
+
+    /**
+     * Stops the worker pool when the application shuts down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
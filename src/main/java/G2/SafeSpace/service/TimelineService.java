@@ -0,0 +1,263 @@
+package G2.SafeSpace.service;
+
+import G2.SafeSpace.dto.CursorPageDTO;
+import G2.SafeSpace.dto.FriendshipDTO;
+import G2.SafeSpace.dto.PostDTO;
+import G2.SafeSpace.event.FriendrequestEvent;
+import G2.SafeSpace.event.PostCreatedEvent;
+import G2.SafeSpace.repository.PostRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for the home timeline of a user: the newest posts of the users they have added as friends,
+ * whether or not the friendship is mutual.
+ * <p>
+ * Timelines are built on write. When a post is created, its ID is pushed into a bounded ring buffer
+ * of every follower of the creator, so reading a page is a scan of the ring followed by one query
+ * that loads the posts of the page. Posts older than the ring are no longer part of the timeline.
+ * </p>
+ * <p>
+ * Creators with many followers would make every post a large write, their posts are therefore not pushed.
+ * Instead, the timeline reads the newest posts of the followed celebrities with one query per page
+ * and merges them with the ring (fan-out on read).
+ * </p>
+ * <p>
+ * Rings are kept for a bounded number of recently read users only, so the memory they take is bounded by
+ * {@code users.timeline.max-users} times {@code users.timeline.size} times four bytes. A user without a ring gets it loaded
+ * from the database on their next read, which is also how timelines are rebuilt after a restart.
+ * Adding a friend drops the ring of the user so that the new friend's posts are loaded,
+ * and posts of users who are no longer followed are filtered out when a page is read.
+ * </p>
+ */
+@Service
+public class TimelineService {
+
+    private final PostRepository postRepository;
+    private final FriendshipGraphService friendshipGraph;
+    private final int timelineSize;
+    private final int celebrityFollowers;
+    private final Map<Integer, Timeline> timelines;
+
+    /**
+     * Constructs a TimelineService.
+     *
+     * @param postRepository     The repository for accessing posts.
+     * @param friendshipGraph    The in-memory friendship graph, telling who follows whom.
+     * @param timelineSize       The number of post IDs kept per timeline.
+     * @param celebrityFollowers The number of followers from which posts are read on demand instead of pushed.
+     * @param maxTimelines       The number of timelines kept in memory.
+     */
+    @Autowired
+    public TimelineService(PostRepository postRepository,
+                           FriendshipGraphService friendshipGraph,
+                           @Value("${users.timeline.size:200}") int timelineSize,
+                           @Value("${users.timeline.celebrity-followers:10000}") int celebrityFollowers,
+                           @Value("${users.timeline.max-users:20000}") int maxTimelines) {
+        this.postRepository = postRepository;
+        this.friendshipGraph = friendshipGraph;
+        this.timelineSize = timelineSize;
+        this.celebrityFollowers = celebrityFollowers;
+        this.timelines = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Timeline> eldest) {
+                return size() > maxTimelines;
+            }
+        });
+    }
+
+    /**
+     * Pushes a new post into the timelines of the followers of its creator, unless the creator is a celebrity.
+     * Only timelines in memory are updated, the others load the post when they are next read.
+     *
+     * @param event The event describing the new post.
+     */
+    @EventListener
+    public void handlePostCreatedEvent(PostCreatedEvent event) {
+        PostDTO post = event.getPost();
+        Integer creatorId = post.getPostCreatorID();
+        if (creatorId == null) {
+            return;
+        }
+        int[] followers = friendshipGraph.getIncoming(creatorId);
+        if (followers.length >= celebrityFollowers) {
+            return;
+        }
+        for (int followerId : followers) {
+            Timeline timeline = timelines.get(followerId);
+            if (timeline != null) {
+                timeline.add(post.getPostID());
+            }
+        }
+    }
+
+    /**
+     * Drops the timeline of a user who added a friend, so that it is reloaded with the posts of the new friend.
+     *
+     * @param event The event describing the friendship change.
+     */
+    @EventListener
+    public void handleFriendshipEvent(FriendrequestEvent event) {
+        FriendshipDTO friendship = event.getFriendshipDTO();
+        timelines.remove(friendship.getRequestingUserId());
+    }
+
+    /**
+     * Retrieves one page of the timeline of a user, newest first (keyset pagination).
+     *
+     * @param userId   The ID of the user.
+     * @param beforeId The ID of the last post of the previous page, {@code null} for the first page.
+     * @param limit    The maximum number of posts on the page.
+     * @return A {@link CursorPageDTO} with the posts of the page and the cursor of the next page.
+     */
+    public CursorPageDTO<PostDTO> getTimeline(int userId, Integer beforeId, int limit) {
+        int before = beforeId == null ? Integer.MAX_VALUE : beforeId;
+        int[] following = friendshipGraph.getOutgoing(userId);
+
+        List<Integer> celebrities = new ArrayList<>();
+        for (int followedId : following) {
+            if (friendshipGraph.getIncoming(followedId).length >= celebrityFollowers) {
+                celebrities.add(followedId);
+            }
+        }
+
+        // one extra post tells whether another page follows
+        int[] pushed = getOrLoad(userId, following).before(before, limit + 1);
+        List<Integer> pulled = celebrities.isEmpty()
+                ? List.of()
+                : postRepository.findPostIdsByCreatorsBefore(celebrities, before, PageRequest.of(0, limit + 1));
+        List<Integer> pageIds = merge(pushed, pulled, limit + 1);
+
+        Integer nextCursor = null;
+        if (pageIds.size() > limit) {
+            pageIds = pageIds.subList(0, limit);
+            nextCursor = pageIds.get(limit - 1);
+        }
+        return new CursorPageDTO<>(hydrate(pageIds, following), nextCursor);
+    }
+
+    /**
+     * Returns the timeline of a user, loading the newest posts of the followed non-celebrities if it is not in memory.
+     */
+    private Timeline getOrLoad(int userId, int[] following) {
+        Timeline timeline = timelines.get(userId);
+        if (timeline != null) {
+            return timeline;
+        }
+        List<Integer> authors = new ArrayList<>(following.length);
+        for (int followedId : following) {
+            if (friendshipGraph.getIncoming(followedId).length < celebrityFollowers) {
+                authors.add(followedId);
+            }
+        }
+        Timeline loaded = new Timeline(timelineSize);
+        if (!authors.isEmpty()) {
+            List<Integer> postIds = postRepository.findPostIdsByCreatorsBefore(authors, Integer.MAX_VALUE,
+                    PageRequest.of(0, timelineSize));
+            // the ring is filled oldest first
+            for (int i = postIds.size() - 1; i >= 0; i--) {
+                loaded.add(postIds.get(i));
+            }
+        }
+        Timeline existing = timelines.putIfAbsent(userId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    /**
+     * Merges two lists of post IDs sorted newest first, dropping duplicates.
+     */
+    private static List<Integer> merge(int[] first, List<Integer> second, int max) {
+        List<Integer> merged = new ArrayList<>(Math.min(max, first.length + second.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < max && (i < first.length || j < second.size())) {
+            int next;
+            if (j >= second.size() || (i < first.length && first[i] > second.get(j))) {
+                next = first[i++];
+            } else {
+                next = second.get(j++);
+            }
+            if (merged.isEmpty() || merged.get(merged.size() - 1) != next) {
+                merged.add(next);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Loads the posts of a page with one query, in the order of the page.
+     * Deleted posts and posts of users who are no longer followed are left out.
+     */
+    private List<PostDTO> hydrate(List<Integer> postIds, int[] following) {
+        if (postIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, PostDTO> loaded = new HashMap<>();
+        for (PostDTO post : postRepository.findDTOsByIds(postIds)) {
+            loaded.put(post.getPostID(), post);
+        }
+        List<PostDTO> posts = new ArrayList<>(postIds.size());
+        for (int postId : postIds) {
+            PostDTO post = loaded.get(postId);
+            if (post != null && post.getPostCreatorID() != null
+                    && Arrays.binarySearch(following, post.getPostCreatorID()) >= 0) {
+                posts.add(post);
+            }
+        }
+        return posts;
+    }
+
+    /**
+     * Bounded ring buffer of post IDs in the order they were added, which is ascending as post IDs grow,
+     * apart from posts created concurrently. When full, adding a post overwrites the oldest one.
+     */
+    private static final class Timeline {
+
+        private final int[] postIds;
+        private int next;
+        private int size;
+
+        Timeline(int capacity) {
+            this.postIds = new int[capacity];
+        }
+
+        synchronized void add(int postId) {
+            postIds[next] = postId;
+            next = (next + 1) % postIds.length;
+            size = Math.min(size + 1, postIds.length);
+        }
+
+        /**
+         * Returns up to {@code max} post IDs lower than {@code beforeId}, newest first.
+         * Posts created concurrently may have been added out of order, so every post below the cursor
+         * is collected and sorted before the page is cut, the ring is small enough for that.
+         */
+        synchronized int[] before(int beforeId, int max) {
+            int[] matching = new int[size];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                int postId = postIds[i];
+                if (postId < beforeId) {
+                    matching[count++] = postId;
+                }
+            }
+            Arrays.sort(matching, 0, count);
+            int[] page = new int[Math.min(max, count)];
+            for (int i = 0; i < page.length; i++) {
+                page[i] = matching[count - 1 - i];
+            }
+            return page;
+        }
+    }
+}
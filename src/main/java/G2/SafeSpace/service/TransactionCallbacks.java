@@ -0,0 +1,35 @@
+package G2.SafeSpace.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers work of the services until the surrounding transaction has committed.
+ */
+final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    /**
+     * Runs an action once the current transaction has committed, or right away if there is no transaction.
+     * <p>
+     * In-memory state such as the friendship graph and the caches fed by events must not see writes that
+     * may still be rolled back, as nothing would undo them.
+     * </p>
+     *
+     * @param action The action to run after the commit.
+     */
+    static void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
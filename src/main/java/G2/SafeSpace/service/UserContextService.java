@@ -1,5 +1,6 @@
 package G2.SafeSpace.service;
 
+import G2.SafeSpace.config.JwtPrincipal;
 import G2.SafeSpace.entity.User;
 import G2.SafeSpace.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,8 +14,8 @@ import java.util.Optional;
  * Service for managing and retrieving the current authenticated user context.
  * <p>
  * This service interacts with the security context to retrieve the currently authenticated user's details
- * from the `SecurityContextHolder`, and provides methods to access the user entity from the repository
- * based on the authenticated username.
+ * from the `SecurityContextHolder`. The user entity is resolved lazily, at most once per request, and stored
+ * on the request's {@link JwtPrincipal} so that every later caller in the same request reuses it.
  * </p>
  */
 @Service
@@ -35,9 +36,9 @@ public class UserContextService {
     /**
      * Retrieves the current authenticated user.
      * <p>
-     * This method checks the current authentication object and uses the username from the authentication
-     * to fetch the corresponding user entity from the `UserRepository`. If no authenticated user is found,
-     * it returns an empty {@link Optional}.
+     * The user is loaded by the ID carried by the {@link JwtPrincipal} the first time this method is called
+     * during a request, later calls return the same entity without querying the `UserRepository` again.
+     * If no authenticated user is found, it returns an empty {@link Optional}.
      * </p>
      *
      * @return An {@link Optional} containing the {@link User} if the user is authenticated, or an empty
@@ -45,9 +46,36 @@ public class UserContextService {
      */
     public Optional<User> getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null && authentication.getName() != null) {
+        if (authentication == null) {
+            return Optional.empty();
+        }
+        if (authentication.getPrincipal() instanceof JwtPrincipal principal) {
+            if (!principal.isUserLoaded()) {
+                principal.setUser(userRepository.findById(principal.getUserId()).orElse(null));
+            }
+            return Optional.ofNullable(principal.getUser());
+        }
+        if (authentication.getName() != null) {
             return Optional.ofNullable(userRepository.findByUsername(authentication.getName()));
         }
         return Optional.empty();
     }
-}
\ No newline at end of file
+
+    /**
+     * Retrieves the ID of the current authenticated user without loading the user entity.
+     * <p>
+     * Endpoints that only need to know who the caller is should prefer this method over
+     * {@link #getCurrentUser()}, as it is answered from the verified token claims.
+     * </p>
+     *
+     * @return An {@link Optional} containing the ID of the authenticated user, or an empty
+     *         {@link Optional} if no authenticated user is found.
+     */
+    public Optional<Integer> getCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof JwtPrincipal principal) {
+            return Optional.of(principal.getUserId());
+        }
+        return getCurrentUser().map(User::getUserID);
+    }
+}
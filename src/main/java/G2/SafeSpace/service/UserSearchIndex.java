@@ -0,0 +1,148 @@
+package G2.SafeSpace.service;
+
+import G2.SafeSpace.dto.UserSummaryDTO;
+import G2.SafeSpace.entity.User;
+import G2.SafeSpace.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory prefix index of usernames, used for typeahead search without {@code LIKE} queries.
+ * <p>
+ * Users are bucketed by the length of their normalized username (see {@link User#normalizeUsername(String)}),
+ * and each bucket is a {@link ConcurrentSkipListMap} ordered by the name, so the names of one length starting
+ * with a prefix form one contiguous range that is found in logarithmic time. Walking the buckets from the
+ * length of the prefix upwards yields the matches already ranked shortest first and then alphabetically,
+ * so a search reads only the entries it returns, however many names share the prefix.
+ * </p>
+ * <p>
+ * The index is loaded once at startup and kept current by registration, update and deletion of users.
+ * </p>
+ */
+@Service
+public class UserSearchIndex {
+
+    private final UserRepository userRepository;
+    private final ConcurrentSkipListMap<Integer, ConcurrentSkipListMap<String, UserSummaryDTO>> byLength =
+            new ConcurrentSkipListMap<>();
+    private final Map<Integer, String> namesById = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a UserSearchIndex.
+     *
+     * @param userRepository The repository for accessing user data.
+     */
+    @Autowired
+    public UserSearchIndex(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Loads the summaries of all existing users at startup.
+     */
+    @PostConstruct
+    public void load() {
+        for (UserSummaryDTO summary : userRepository.findAllSummaries()) {
+            put(summary);
+        }
+    }
+
+    /**
+     * Finds the users whose username starts with the given prefix, ignoring case and surrounding whitespace.
+     * An exact match is ranked first, followed by the shortest names, with ties broken alphabetically.
+     * The buckets are read in that order, so the search stops as soon as {@code limit} users are found.
+     *
+     * @param prefix The beginning of the username.
+     * @param limit  The maximum number of results.
+     * @return A list of matching users, at most {@code limit} long.
+     */
+    public List<UserSummaryDTO> search(String prefix, int limit) {
+        String normalizedPrefix = User.normalizeUsername(prefix);
+        List<UserSummaryDTO> results = new ArrayList<>(limit);
+        if (normalizedPrefix.isEmpty() || limit <= 0) {
+            return results;
+        }
+
+        // the exact match is the only name in the bucket of the length of the prefix
+        for (NavigableMap<String, UserSummaryDTO> bucket : byLength.tailMap(normalizedPrefix.length(), true).values()) {
+            for (UserSummaryDTO summary
+                    : bucket.subMap(normalizedPrefix, true, normalizedPrefix + Character.MAX_VALUE, false).values()) {
+                results.add(summary);
+                if (results.size() >= limit) {
+                    return results;
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Returns the indexed summary of a user.
+     *
+     * @param userId The ID of the user.
+     * @return The summary of the user, or {@code null} if the user is not indexed.
+     */
+    public UserSummaryDTO getSummary(int userId) {
+        String name = namesById.get(userId);
+        if (name == null) {
+            return null;
+        }
+        Map<String, UserSummaryDTO> bucket = byLength.get(name.length());
+        return bucket == null ? null : bucket.get(name);
+    }
+
+    /**
+     * Adds a new user or replaces the indexed data of an existing one, for example after a rename.
+     *
+     * @param user The saved user.
+     */
+    public void put(User user) {
+        put(new UserSummaryDTO(user));
+    }
+
+    /**
+     * Removes a deleted user from the index.
+     *
+     * @param userId The ID of the deleted user.
+     */
+    public synchronized void remove(int userId) {
+        String name = namesById.remove(userId);
+        if (name != null) {
+            removeName(name);
+        }
+    }
+
+    /**
+     * Indexes a summary under its normalized username, dropping the entry of a previous username.
+     *
+     * @param summary The summary to index.
+     */
+    private synchronized void put(UserSummaryDTO summary) {
+        String name = User.normalizeUsername(summary.getUsername());
+        String previousName = namesById.put(summary.getId(), name);
+        if (previousName != null && !previousName.equals(name)) {
+            removeName(previousName);
+        }
+        byLength.computeIfAbsent(name.length(), length -> new ConcurrentSkipListMap<>()).put(name, summary);
+    }
+
+    /**
+     * Removes a name from its length bucket. Emptied buckets are kept, as there is at most one per length.
+     *
+     * @param name The normalized username to remove.
+     */
+    private void removeName(String name) {
+        Map<String, UserSummaryDTO> bucket = byLength.get(name.length());
+        if (bucket != null) {
+            bucket.remove(name);
+        }
+    }
+}
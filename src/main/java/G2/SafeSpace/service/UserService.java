@@ -1,20 +1,31 @@
 package G2.SafeSpace.service;
 
 import G2.SafeSpace.config.JwtService;
+import G2.SafeSpace.config.TokenRevocationRegistry;
 import G2.SafeSpace.dto.*;
-import G2.SafeSpace.entity.Comment;
 import G2.SafeSpace.entity.Post;
 import G2.SafeSpace.entity.User;
 import G2.SafeSpace.event.FriendrequestEvent;
 import G2.SafeSpace.event.LikeEvent;
 import G2.SafeSpace.repository.CommentRepository;
+import G2.SafeSpace.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 import G2.SafeSpace.repository.UserRepository;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -28,6 +39,8 @@ import java.util.stream.Collectors;
 @Service
 public class UserService {
 
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
     private final UserRepository userRepository;
     private final UserContextService userContextService;
     private final PasswordEncoder passwordEncoder;
@@ -35,6 +48,16 @@ public class UserService {
     private final ApplicationEventPublisher eventPublisher;
     private final MessageService messageService;
     private final CommentRepository commentRepository;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final UsernameRegistry usernameRegistry;
+    private final UserSearchIndex userSearchIndex;
+    private final FriendshipGraphService friendshipGraph;
+    private final FriendRecommendationService friendRecommendationService;
+    private final PostRepository postRepository;
+    private final SectionFetchService sectionFetchService;
+    private final long sectionTimeoutNanos;
+    private final int counterRepairBatchSize;
+    private int counterRepairCursor;
 
     /**
      * Constructor to initialize the UserService with dependencies.
@@ -46,6 +69,15 @@ public class UserService {
      * @param eventPublisher      The publisher for application events.
      * @param messageService      The service for handling messages.
      * @param commentRepository   The repository for accessing comments.
+     * @param tokenRevocationRegistry The registry for revoking the JWT tokens of a user.
+     * @param usernameRegistry    The in-memory registry of taken usernames.
+     * @param userSearchIndex     The in-memory prefix index of usernames.
+     * @param friendshipGraph     The in-memory friendship graph.
+     * @param friendRecommendationService The service for friend recommendations.
+     * @param postRepository      The repository for accessing posts.
+     * @param sectionFetchService The service fetching the sections of the detailed user concurrently.
+     * @param sectionTimeoutMillis The time the sections of the detailed user may take, in milliseconds.
+     * @param counterRepairBatchSize The number of user IDs whose counters are checked per repair run.
      */
     @Autowired
     public UserService(UserRepository userRepository,
@@ -54,7 +86,16 @@ public class UserService {
                        JwtService jwtService,
                        ApplicationEventPublisher eventPublisher,
                        MessageService messageService,
-                       CommentRepository commentRepository) {
+                       CommentRepository commentRepository,
+                       TokenRevocationRegistry tokenRevocationRegistry,
+                       UsernameRegistry usernameRegistry,
+                       UserSearchIndex userSearchIndex,
+                       FriendshipGraphService friendshipGraph,
+                       FriendRecommendationService friendRecommendationService,
+                       PostRepository postRepository,
+                       SectionFetchService sectionFetchService,
+                       @Value("${users.me.section-timeout-ms:500}") long sectionTimeoutMillis,
+                       @Value("${users.counters.repair-batch-size:1000}") int counterRepairBatchSize) {
         this.userRepository = userRepository;
         this.userContextService = userContextService;
         this.passwordEncoder = passwordEncoder;
@@ -62,46 +103,76 @@ public class UserService {
         this.eventPublisher = eventPublisher;
         this.messageService = messageService;
         this.commentRepository = commentRepository;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
+        this.usernameRegistry = usernameRegistry;
+        this.userSearchIndex = userSearchIndex;
+        this.friendshipGraph = friendshipGraph;
+        this.friendRecommendationService = friendRecommendationService;
+        this.postRepository = postRepository;
+        this.sectionFetchService = sectionFetchService;
+        this.sectionTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sectionTimeoutMillis);
+        this.counterRepairBatchSize = counterRepairBatchSize;
     }
 
     /**
-     * Retrieves all users in the system, excluding sensitive data and including necessary user details.
+     * Retrieves one page of users ordered by ID, excluding sensitive data (keyset pagination).
+     * <p>
+     * The users are read through a projection, so none of their posts, likes or friends are loaded.
+     * The friendship counts are only computed on request, from the in-memory {@link FriendshipGraphService}.
+     * </p>
      *
-     * @return A list of {@link UserDTO} representing all users.
+     * @param afterId       The ID of the last user of the previous page, {@code 0} for the first page.
+     * @param limit         The maximum number of users on the page.
+     * @param includeCounts Whether to include the friend, following and follower counts of each user.
+     * @return A {@link CursorPageDTO} with the users of the page and the cursor of the next page.
      */
-    public List<UserDTO> findAllUsers() {
+    public CursorPageDTO<UserDTO> findUsersPage(int afterId, int limit, boolean includeCounts) {
         try {
-            List<User> rawUsers = userRepository.findAll();
-            List<UserDTO> userDTOS = new ArrayList<>();
-            for (User rawUser : rawUsers) {
-                UserDTO userDTO = new UserDTO(rawUser, true);
-                userDTO.setUserData(createUserData(rawUser));
-                userDTOS.add(userDTO);
+            // one extra row tells whether another page follows
+            List<UserDTO> users = new ArrayList<>(userRepository.findPageAfter(afterId, PageRequest.of(0, limit + 1)));
+            Integer nextCursor = null;
+            if (users.size() > limit) {
+                users = users.subList(0, limit);
+                nextCursor = users.get(limit - 1).getId();
+            }
+            if (includeCounts && !users.isEmpty()) {
+                addFriendshipCounts(users);
             }
-            return userDTOS;
+            return new CursorPageDTO<>(users, nextCursor);
         } catch (RuntimeException e) {
-            throw new RuntimeException("Could not find all users " + e.getMessage());
+            throw new RuntimeException("Could not find users " + e.getMessage());
+        }
+    }
+
+    /**
+     * Sets the friend, following and follower counts of the given users, without the lists of users.
+     *
+     * @param users The users to add the counts to.
+     */
+    private void addFriendshipCounts(List<UserDTO> users) {
+        for (UserDTO user : users) {
+            int friends = friendshipGraph.getFriends(user.getId()).length;
+            UserData userData = new UserData();
+            userData.setFriendsCount(friends);
+            userData.setFollowingCount(friendshipGraph.getOutgoing(user.getId()).length - friends);
+            userData.setFollowersCount(friendshipGraph.getIncoming(user.getId()).length - friends);
+            user.setUserData(userData);
         }
     }
 
     /**
      * Checks if a username is available (i.e., not already taken by another user).
+     * The comparison ignores case and surrounding whitespace. It is usually answered by the in-memory
+     * {@link UsernameRegistry}, which falls back to the unique index on the normalized username.
      *
      * @param username The username to check.
      * @return {@code true} if the username is available, {@code false} otherwise.
      */
     public boolean isUsernameAvailable(String username) {
-        List<User> users = userRepository.findAll();
-        boolean available = true;
-        if (!users.isEmpty()) {
-            for (User user : users) {
-                if (user.getUsername().equalsIgnoreCase(username)) {
-                    available = false;
-                    break;
-                }
-            }
+        if (username == null) {
+            return true;
         }
-        return available;
+        return usernameRegistry.isAvailable(username);
     }
 
     /**
@@ -132,16 +203,20 @@ public class UserService {
         String password = updatedUser.getPassword();
         String bio = updatedUser.getBio();
         String profilepictureID = updatedUser.getProfilePictureID();
+        String previousUsername = existingUser.getUsername();
+        boolean credentialsChanged = false;
 
         if (!existingUser.getUsername().equals(username) && username != null && !username.trim().isEmpty()) {
             if (isUsernameAvailable(username)) {
                 existingUser.setUsername(username.trim());
+                credentialsChanged = true;
             } else {
                 return null;
             }
         }
         if (!existingUser.getPassword().equals(password) && password != null && !password.trim().isEmpty()) {
             existingUser.setPassword(passwordEncoder.encode(password.trim()));
+            credentialsChanged = true;
         }
 
         //bio updating, null should be sent if no changes were made
@@ -159,6 +234,15 @@ public class UserService {
         }
 
         User savedUser = userRepository.save(existingUser);
+        if (!previousUsername.equals(savedUser.getUsername())) {
+            usernameRegistry.rename(previousUsername, savedUser.getUsername());
+        }
+        userSearchIndex.put(savedUser);
+
+        // tokens issued with the old credentials must not keep working
+        if (credentialsChanged) {
+            tokenRevocationRegistry.revokeTokens(savedUser.getUserID());
+        }
 
         UserDTO userDTO = new UserDTO(savedUser, false);
         userDTO.setJwt(jwtService.generateToken(savedUser, generateExtraClaims(savedUser)));
@@ -168,14 +252,43 @@ public class UserService {
 
     /**
      * Deletes the current authenticated user from the system.
+     * The user and the counters of their neighbors and liked posts are updated in one transaction,
+     * and the in-memory indexes only forget the user once it has committed.
      *
      * @return {@code true} if the user was successfully deleted, {@code false} if no authenticated user was found.
      */
+    @Transactional
     public boolean deleteUser() {
         try {
             Optional<User> existingUserOptional = userContextService.getCurrentUser();
             if (existingUserOptional.isPresent()) {
-                userRepository.deleteById(existingUserOptional.get().getUserID());
+                int userId = existingUserOptional.get().getUserID();
+                int[] friendIds = friendshipGraph.getFriends(userId);
+                int[] followingIds = friendshipGraph.getFollowing(userId);
+                int[] followerIds = friendshipGraph.getFollowers(userId);
+                List<Integer> likedPostIds = postRepository.findLikedPostIds(userId);
+                userRepository.deleteById(userId);
+                // the relationships of the deleted user disappear from the counters of their neighbors
+                if (friendIds.length > 0) {
+                    userRepository.adjustFriendshipCounts(FriendshipGraphService.toList(friendIds), -1, 0, 0);
+                }
+                if (followingIds.length > 0) {
+                    userRepository.adjustFriendshipCounts(FriendshipGraphService.toList(followingIds), 0, 0, -1);
+                }
+                if (followerIds.length > 0) {
+                    userRepository.adjustFriendshipCounts(FriendshipGraphService.toList(followerIds), 0, -1, 0);
+                }
+                if (!likedPostIds.isEmpty()) {
+                    postRepository.adjustLikeCount(likedPostIds, -1);
+                }
+                String username = existingUserOptional.get().getUsername();
+                TransactionCallbacks.runAfterCommit(() -> {
+                    usernameRegistry.remove(username);
+                    userSearchIndex.remove(userId);
+                    friendshipGraph.removeUser(userId);
+                    friendRecommendationService.removeUser(userId, friendIds);
+                    tokenRevocationRegistry.revokeTokens(userId);
+                });
                 return true;
             } else return false;
         } catch (Exception e) {
@@ -184,21 +297,17 @@ public class UserService {
     }
 
     /**
-     * Retrieves a user by their username.
+     * Retrieves a user by their username, ignoring case and surrounding whitespace.
      *
      * @param username The username of the user to retrieve.
      * @return The user with the specified username, or {@code null} if not found.
      */
     public User findUserByUsername(String username) {
+        if (username == null) {
+            return null;
+        }
         try {
-            List<User> optionalUsers = userRepository.findAll();
-            if (!optionalUsers.isEmpty()) {
-                for (User user : optionalUsers) {
-                    if (user.getUsername().equalsIgnoreCase(username)) {
-                        return user;
-                    }
-                }
-            } return null;
+            return userRepository.findByNormalizedUsername(User.normalizeUsername(username));
         } catch (Exception e) {
             throw new RuntimeException("Failed to find user " + username + " " + e.getMessage());
         }
@@ -206,86 +315,315 @@ public class UserService {
 
     /**
      * Generates a detailed DTO for a user, including their posts, liked posts, comments, and conversations.
+     * <p>
+     * Only the selected sections are loaded: {@code relationships}, {@code counts}, {@code posts},
+     * {@code likedPosts}, {@code conversations} and {@code comments}. The basic user information is always included,
+     * and the counts come from the counters on the user row when the relationships are not selected.
+     * </p>
+     * <p>
+     * The sections are independent, so they are fetched concurrently by the {@link SectionFetchService}
+     * against a shared deadline, and each of them reads through repositories by user ID.
+     * A section that fails or is late is left out and named in {@link UserDetailedDTO#getMissingSections()};
+     * when the relationships are missing, the counts are still filled in from the counters on the user row.
+     * </p>
      *
-     * @param user The user for whom the detailed DTO is to be generated.
-     * @return A {@link UserDetailedDTO} containing all relevant information about the user.
+     * @param user   The user for whom the detailed DTO is to be generated.
+     * @param fields The sections to include.
+     * @return A {@link UserDetailedDTO} containing the selected information about the user.
      */
-    public UserDetailedDTO generateUserDetailedDTO(User user) {
+    public UserDetailedDTO generateUserDetailedDTO(User user, FieldSelection fields) {
+        int userId = user.getUserID();
+        long deadline = System.nanoTime() + sectionTimeoutNanos;
+        CompletableFuture<UserData> userData = fetchSection(fields, "relationships",
+                () -> createUserData(userId));
+        CompletableFuture<List<PostDTO>> posts = fetchSection(fields, "posts",
+                () -> postRepository.findAllPostedBy(userId).stream().map(PostDTO::new).collect(Collectors.toList()));
+        CompletableFuture<List<PostDTO>> likedPosts = fetchSection(fields, "likedPosts",
+                () -> postRepository.findAllLikedBy(userId).stream().map(PostDTO::new).collect(Collectors.toList()));
+        CompletableFuture<List<ConversationDTO>> conversations = fetchSection(fields, "conversations",
+                () -> messageService.getConversations(userId));
+        CompletableFuture<List<CommentDTO>> comments = fetchSection(fields, "comments",
+                () -> commentRepository.findAllByUserId(userId).stream().map(CommentDTO::new).collect(Collectors.toList()));
+
         UserDetailedDTO userDetailedDTO = new UserDetailedDTO();
         UserDTO userDTO = new UserDTO(user, false);
         userDetailedDTO.setUser(userDTO);
-        userDetailedDTO.setPosts(user.getPosts().stream().map(PostDTO::new).collect(Collectors.toList()));
-        userDetailedDTO.setLikedPosts(user.getLikedPosts().stream().map(PostDTO::new).collect(Collectors.toList()));
-        userDTO.setUserData(createUserData(user));
-        userDetailedDTO.setConversations(messageService.getConversations(user));
-        List<Comment> comments = commentRepository.findAllByUser(user);
-        ArrayList<CommentDTO> commentDTOS = new ArrayList<>();
-        for (Comment userComment : comments) {
-            commentDTOS.add(new CommentDTO(userComment));
+        List<String> missingSections = new ArrayList<>();
+        if (userData != null) {
+            userDTO.setUserData(sectionFetchService.await("relationships", userData, deadline));
+            if (userDTO.getUserData() == null) {
+                missingSections.add("relationships");
+                userDTO.setUserData(createUserCounts(user));
+            }
+        } else if (fields.includes("counts")) {
+            userDTO.setUserData(createUserCounts(user));
         }
-        userDetailedDTO.setComments(commentDTOS);
+        userDetailedDTO.setPosts(awaitSection("posts", posts, deadline, missingSections));
+        userDetailedDTO.setLikedPosts(awaitSection("likedPosts", likedPosts, deadline, missingSections));
+        userDetailedDTO.setConversations(awaitSection("conversations", conversations, deadline, missingSections));
+        userDetailedDTO.setComments(awaitSection("comments", comments, deadline, missingSections));
+        userDetailedDTO.setMissingSections(missingSections);
         return userDetailedDTO;
     }
 
+    /**
+     * Starts fetching a section of the detailed user if it is selected.
+     *
+     * @return the future of the section, or {@code null} if the section is not selected.
+     */
+    private <T> CompletableFuture<T> fetchSection(FieldSelection fields, String section, Supplier<T> loader) {
+        return fields.includes(section) ? sectionFetchService.fetch(section, loader) : null;
+    }
+
+    /**
+     * Waits for an optional section of the detailed user, recording its name if it is missing.
+     * A section that was not selected has no future and is left out silently.
+     */
+    private <T> T awaitSection(String section, CompletableFuture<T> future, long deadline,
+                               List<String> missingSections) {
+        if (future == null) {
+            return null;
+        }
+        T value = sectionFetchService.await(section, future, deadline);
+        if (value == null) {
+            missingSections.add(section);
+        }
+        return value;
+    }
+
+    /**
+     * Creates the UserDTO of a viewed profile with the selected sections: the ID lists {@code posts},
+     * {@code likedPosts} and {@code friends}, and either the full {@code relationships} or only their {@code counts}.
+     * The counts come from the counters on the user row, so they need no query of their own.
+     *
+     * @param user   The viewed user.
+     * @param fields The sections to include.
+     * @return The UserDTO of the user.
+     */
+    public UserDTO createUserDTO(User user, FieldSelection fields) {
+        UserDTO userDTO = new UserDTO(user, false);
+        if (fields.includes("posts")) {
+            userDTO.setPosts(user.getPosts().stream().map(Post::getPostID).collect(Collectors.toList()));
+        }
+        if (fields.includes("likedPosts")) {
+            userDTO.setLikedPosts(user.getLikedPosts().stream().map(Post::getPostID).collect(Collectors.toList()));
+        }
+        if (fields.includes("friends")) {
+            userDTO.setFriends(user.getFriends().stream().map(User::getUserID).collect(Collectors.toList()));
+        }
+        if (fields.includes("relationships")) {
+            userDTO.setUserData(createUserData(user.getUserID()));
+        } else if (fields.includes("counts")) {
+            userDTO.setUserData(createUserCounts(user));
+        }
+        return userDTO;
+    }
+
     /**
      * Creates user data containing information about the user's followers, following, and friends.
+     * The relationships are classified by the in-memory {@link FriendshipGraphService},
+     * and the related users are then loaded with a single projection query.
      *
-     * @param user The user whose data is to be created.
+     * @param userId The ID of the user whose data is to be created.
      * @return A {@link UserData} object containing the user's relationship data.
      */
-    public UserData createUserData(User user) {
+    public UserData createUserData(int userId) {
         UserData userData = new UserData();
 
         // separate different friendship statuses
-        ArrayList<UserDTO> following = new ArrayList<>();
-        ArrayList<UserDTO> followers = new ArrayList<>();
-        ArrayList<UserDTO> friends = new ArrayList<>();
-        List<User> followersList = userRepository.findFollowers(user.getUserID());
-        for (User friend : user.getFriends()) {
-            //check if both users are following each other
-            if (friend.getFriends().contains(user)) {
-                userData.addFriendCount();
-                friends.add(new UserDTO(friend, false));
-            } else {
-                // otherwise current user is just following
-                userData.addFollowingCount();
-                following.add(new UserDTO(friend, false));
+        int[] friendIds = friendshipGraph.getFriends(userId);
+        int[] followingIds = friendshipGraph.getFollowing(userId);
+        int[] followerIds = friendshipGraph.getFollowers(userId);
+
+        Set<Integer> relatedIds = new HashSet<>();
+        Arrays.stream(friendIds).forEach(relatedIds::add);
+        Arrays.stream(followingIds).forEach(relatedIds::add);
+        Arrays.stream(followerIds).forEach(relatedIds::add);
+        Map<Integer, UserDTO> related = new HashMap<>();
+        if (!relatedIds.isEmpty()) {
+            for (UserDTO relatedUser : userRepository.findDTOsByIds(relatedIds)) {
+                related.put(relatedUser.getId(), relatedUser);
             }
         }
-        for (User follower : followersList) {
-            // if other users have added current user but not vise versa
-            userData.addFollowerCount();
-            followers.add(new UserDTO(follower, false));
-        }
+
+        List<UserDTO> friends = collectUsers(friendIds, related);
+        List<UserDTO> following = collectUsers(followingIds, related);
+        List<UserDTO> followers = collectUsers(followerIds, related);
+        userData.setFriendsCount(friends.size());
+        userData.setFollowingCount(following.size());
+        userData.setFollowersCount(followers.size());
         userData.setFollowing(following);
         userData.setFollowers(followers);
         userData.setFriends(friends);
         return userData;
     }
 
+    /**
+     * Retrieves one page of the friends two users have in common, ordered by ID.
+     * The intersection is computed from the in-memory {@link FriendshipGraphService}
+     * and the users are looked up in the {@link UserSearchIndex}, so no entity is loaded.
+     *
+     * @param userId  The ID of the current user.
+     * @param otherId The ID of the other user.
+     * @param afterId The ID of the last user of the previous page, {@code 0} for the first page.
+     * @param limit   The maximum number of users on the page.
+     * @return A {@link CursorPageDTO} with the mutual friends of the page and their total count.
+     */
+    public CursorPageDTO<UserSummaryDTO> findMutualFriends(int userId, int otherId, int afterId, int limit) {
+        int[] mutual = friendshipGraph.getMutualFriends(userId, otherId);
+        int index = Arrays.binarySearch(mutual, afterId);
+        int start = index >= 0 ? index + 1 : -index - 1;
+        int end = Math.min(start + limit, mutual.length);
+
+        List<UserSummaryDTO> users = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            UserSummaryDTO summary = userSearchIndex.getSummary(mutual[i]);
+            if (summary != null) {
+                users.add(summary);
+            }
+        }
+        Integer nextCursor = end < mutual.length ? mutual[end - 1] : null;
+        CursorPageDTO<UserSummaryDTO> page = new CursorPageDTO<>(users, nextCursor);
+        page.setTotalCount(mutual.length);
+        return page;
+    }
+
+    /**
+     * Classifies the relationship of the current user to each of the given users.
+     * The statuses are answered from the in-memory {@link FriendshipGraphService} with two binary searches per user:
+     * <ul>
+     *     <li>{@code self} - the current user.</li>
+     *     <li>{@code friend} - both users have added each other.</li>
+     *     <li>{@code following} - the current user has sent a friend request.</li>
+     *     <li>{@code follower} - the other user has sent a friend request.</li>
+     *     <li>{@code none} - neither user has added the other.</li>
+     * </ul>
+     * Users that do not exist are left out.
+     *
+     * @param userId   The ID of the current user.
+     * @param otherIds The IDs of the other users.
+     * @return A map from user ID to relationship status, in the order of the given IDs.
+     */
+    public Map<Integer, String> getRelationships(int userId, Collection<Integer> otherIds) {
+        Map<Integer, String> relationships = new LinkedHashMap<>();
+        for (Integer otherId : otherIds) {
+            if (otherId == null || relationships.containsKey(otherId) || userSearchIndex.getSummary(otherId) == null) {
+                continue;
+            }
+            String status;
+            if (otherId == userId) {
+                status = "self";
+            } else {
+                boolean following = friendshipGraph.isFollowing(userId, otherId);
+                boolean follower = friendshipGraph.isFollowing(otherId, userId);
+                if (following && follower) {
+                    status = "friend";
+                } else if (following) {
+                    status = "following";
+                } else if (follower) {
+                    status = "follower";
+                } else {
+                    status = "none";
+                }
+            }
+            relationships.put(otherId, status);
+        }
+        return relationships;
+    }
+
+    /**
+     * Creates user data with only the friend, following and follower counts of the user,
+     * read from the denormalized counters on the user row.
+     *
+     * @param user The user whose counts are returned.
+     * @return A {@link UserData} object containing the counts, without the lists of users.
+     */
+    public UserData createUserCounts(User user) {
+        UserData userData = new UserData();
+        userData.setFriendsCount(user.getFriendsCount());
+        userData.setFollowingCount(user.getFollowingCount());
+        userData.setFollowersCount(user.getFollowersCount());
+        return userData;
+    }
+
+    /**
+     * Retrieves the profile summary of a user with their denormalized social counters.
+     *
+     * @param id The ID of the user.
+     * @return The {@link UserStatsDTO} of the user, or {@code null} if not found.
+     */
+    public UserStatsDTO findUserStats(int id) {
+        return userRepository.findStatsById(id);
+    }
+
+    /**
+     * Looks up the loaded users of the given IDs, skipping users that no longer exist.
+     *
+     * @param ids     The IDs of the users.
+     * @param related The loaded users, keyed by ID.
+     * @return A list of the users, in the order of the IDs.
+     */
+    private List<UserDTO> collectUsers(int[] ids, Map<Integer, UserDTO> related) {
+        List<UserDTO> users = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            UserDTO relatedUser = related.get(id);
+            if (relatedUser != null) {
+                users.add(relatedUser);
+            }
+        }
+        return users;
+    }
+
     /**
      * Adds a friend to the user's friend list. If the users are not already friends, a friend request is sent.
+     * <p>
+     * The edge is inserted with a single statement, and the counters are only adjusted if that statement
+     * actually inserted it, so two concurrent identical requests count the friendship once.
+     * If the friend has already added the user, both edges are marked mutual in the same transaction.
+     * The in-memory friendship graph and the listeners of the event are only updated once the transaction
+     * has committed, so a rolled back friendship never reaches them.
+     * </p>
+     * <p>
+     * The friends collection of the given user entity is not updated.
+     * </p>
      *
      * @param user  The user who is adding a friend.
      * @param friend The user to be added as a friend.
-     * @return An {@link Optional} containing the updated user if successful, or an empty {@link Optional} if unsuccessful.
+     * @return An {@link Optional} containing the user if the user follows the friend afterwards,
+     *         whether or not this call added the edge.
      */
+    @Transactional
     public Optional<User> addFriend(User user, User friend) {
         try {
-            user.addFriends(friend);
-            User savedUser = userRepository.save(user);
+            int userId = user.getUserID();
+            int friendId = friend.getUserID();
+            if (userRepository.insertFriendship(userId, friendId) == 0) {
+                // added by a concurrent request, which also counted it
+                return Optional.of(user);
+            }
 
-            if (savedUser.getFriends().contains(friend)) {
-                String eventType;
-                if (areFriends(savedUser, friend)) {
-                    eventType = "new_friend";
-                } else {
-                    eventType = "friend_request";
-                }
-                eventPublisher.publishEvent(new FriendrequestEvent(new FriendshipDTO(savedUser.getUserID(), friend.getUserID(), eventType)));
-                return Optional.of(savedUser);
+            // marking the reverse edge only succeeds if it exists
+            boolean mutual = userRepository.updateFriendshipMutual(friendId, userId, true) > 0;
+            if (mutual) {
+                userRepository.updateFriendshipMutual(userId, friendId, true);
+                // the friend was following the user, now both are friends
+                userRepository.adjustFriendshipCounts(List.of(userId), 1, 0, -1);
+                userRepository.adjustFriendshipCounts(List.of(friendId), 1, -1, 0);
+            } else {
+                userRepository.adjustFriendshipCounts(List.of(userId), 0, 1, 0);
+                userRepository.adjustFriendshipCounts(List.of(friendId), 0, 0, 1);
+            }
+            String eventType;
+            if (mutual) {
+                eventType = "new_friend";
+            } else {
+                eventType = "friend_request";
             }
-            return Optional.empty();
+            TransactionCallbacks.runAfterCommit(() -> {
+                friendshipGraph.addEdge(userId, friendId);
+                eventPublisher.publishEvent(new FriendrequestEvent(new FriendshipDTO(userId, friendId, eventType)));
+            });
+            return Optional.of(user);
         } catch (Exception e) {
             throw new RuntimeException("Failed to add friend " + e.getMessage());
         }
@@ -293,44 +631,62 @@ public class UserService {
 
     /**
      * Adds a like to a post from the specified user.
+     * <p>
+     * The like is inserted with a single statement, and the counters of the user and the post are only adjusted
+     * if that statement actually inserted it, so two concurrent identical requests count the like once.
+     * The like and the counters commit together, and the event is published after the commit.
+     * The liked posts collection of the given user entity is not updated.
+     * </p>
      *
      * @param user The user who is adding a like.
      * @param post The post to which the like is being added.
-     * @return {@code true} if the like was successfully added, {@code false} otherwise.
+     * @return {@code true} if the user likes the post afterwards, whether or not this call added the like;
+     *         {@code false} if the like could not be stored.
      */
+    @Transactional
     public boolean likeAdded(User user, Post post) {
         try {
-            user.addLikedPost(post);
-            User savedUser = userRepository.save(user);
-
-            if (savedUser.getLikedPosts().contains(post)) {
-                eventPublisher.publishEvent(new LikeEvent(new LikeDTO(user.getUserID(), post.getPostID(), "like_added")));
-                return true;
+            if (userRepository.insertLike(user.getUserID(), post.getPostID()) > 0) {
+                userRepository.adjustLikesGivenCount(List.of(user.getUserID()), 1);
+                postRepository.adjustLikeCount(List.of(post.getPostID()), 1);
+                LikeDTO like = new LikeDTO(user.getUserID(), post.getPostID(), "like_added");
+                TransactionCallbacks.runAfterCommit(() -> eventPublisher.publishEvent(new LikeEvent(like)));
             }
-            return false;
+            return true;
         } catch (Exception e) {
+            // roll back the like together with any counter already adjusted
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return false;
         }
     }
 
     /**
      * Removes a like from a post for the specified user.
+     * <p>
+     * The counters of the user and the post are only adjusted if the delete actually removed the like,
+     * so two concurrent identical requests count the removal once.
+     * The removal and the counters commit together, and the event is published after the commit.
+     * The liked posts collection of the given user entity is not updated.
+     * </p>
      *
      * @param user The user who is removing the like.
      * @param post The post from which the like is being removed.
-     * @return {@code true} if the like was successfully removed, {@code false} otherwise.
+     * @return {@code true} if the user does not like the post afterwards, whether or not this call removed the like;
+     *         {@code false} if the removal could not be stored.
      */
+    @Transactional
     public boolean likeRemoved(User user, Post post) {
         try {
-            user.removeLikedPost(post);
-            User savedUser = userRepository.save(user);
-
-            if (!savedUser.getLikedPosts().contains(post)) {
-                eventPublisher.publishEvent(new LikeEvent(new LikeDTO(user.getUserID(), post.getPostID(), "like_removed")));
-                return true;
+            if (userRepository.deleteLike(user.getUserID(), post.getPostID()) > 0) {
+                userRepository.adjustLikesGivenCount(List.of(user.getUserID()), -1);
+                postRepository.adjustLikeCount(List.of(post.getPostID()), -1);
+                LikeDTO like = new LikeDTO(user.getUserID(), post.getPostID(), "like_removed");
+                TransactionCallbacks.runAfterCommit(() -> eventPublisher.publishEvent(new LikeEvent(like)));
             }
-            return false;
+            return true;
         } catch (Exception e) {
+            // roll back the removal together with any counter already adjusted
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return false;
         }
     }
@@ -343,7 +699,7 @@ public class UserService {
      * @return {@code true} if the sender has sent a friend request to the receiver, {@code false} otherwise.
      */
     public boolean hasSentFriendRequest(User sender, User receiver) {
-        return sender.getFriends().contains(receiver);
+        return friendshipGraph.isFollowing(sender.getUserID(), receiver.getUserID());
     }
 
     /**
@@ -354,44 +710,60 @@ public class UserService {
      * @return {@code true} if both users are friends, {@code false} otherwise.
      */
     public boolean areFriends(User sender, User receiver) {
-        return sender.getFriends().contains(receiver) && receiver.getFriends().contains(sender);
+        return friendshipGraph.areFriends(sender.getUserID(), receiver.getUserID());
     }
 
     /**
      * Removes a friend from the user's friend list.
      * <p>
-     * This method checks if the specified user and friend are currently friends. If they are, it removes the friend
-     * from the user's friend list and updates the user in the repository. An event is published to indicate whether
-     * the friend was removed or if the friend request was removed.
+     * The edge is deleted with a single statement, and the counters are only adjusted if that statement
+     * actually deleted it, so two concurrent identical requests count the removal once.
+     * An event is published to indicate whether the friend was removed or if the friend request was removed.
+     * The edge of the friend, if any, is no longer mutual afterwards, which is updated in the same transaction.
+     * The in-memory friendship graph and the listeners of the event are only updated once the transaction
+     * has committed. The friends collection of the given user entity is not updated.
      * </p>
      *
      * @param user The user from whose friend list the friend should be removed.
      * @param friend The user to be removed from the friend's list of the specified user.
-     * @return An Optional containing the updated user if the friend was successfully removed,
-     *         or an empty Optional if the removal was unsuccessful.
+     * @return An Optional containing the user if the user no longer follows the friend afterwards,
+     *         whether or not this call removed the edge.
      * @throws RuntimeException if an error occurs while attempting to remove the friend.
      */
+    @Transactional
     public Optional<User> removeFriend(User user, User friend) {
         try {
-            boolean wereFriends = areFriends(user, friend);
-
-            user.removeFriends(friend);
-            User savedUser = userRepository.save(user);
+            int userId = user.getUserID();
+            int friendId = friend.getUserID();
+            boolean wereFriends = userRepository.countMutualFriendship(userId, friendId) > 0;
+            if (userRepository.deleteFriendship(userId, friendId) == 0) {
+                // removed by a concurrent request, which also counted it
+                return Optional.of(user);
+            }
 
-            if (!savedUser.getFriends().contains(friend)) {
-                String eventType = wereFriends ? "friend_removed" : "friend_request_removed";
+            if (wereFriends) {
+                // the friend keeps following the user
+                userRepository.updateFriendshipMutual(friendId, userId, false);
+                userRepository.adjustFriendshipCounts(List.of(userId), -1, 0, 1);
+                userRepository.adjustFriendshipCounts(List.of(friendId), -1, 1, 0);
+            } else {
+                userRepository.adjustFriendshipCounts(List.of(userId), 0, -1, 0);
+                userRepository.adjustFriendshipCounts(List.of(friendId), 0, 0, -1);
+            }
+            String eventType = wereFriends ? "friend_removed" : "friend_request_removed";
+            TransactionCallbacks.runAfterCommit(() -> {
+                friendshipGraph.removeEdge(userId, friendId);
                 eventPublisher.publishEvent(
                         new FriendrequestEvent(
                                 new FriendshipDTO(
-                                        savedUser.getUserID(),
-                                        friend.getUserID(),
+                                        userId,
+                                        friendId,
                                         eventType
                                 )
                         )
                 );
-                return Optional.of(savedUser);
-            }
-            return Optional.empty();
+            });
+            return Optional.of(user);
         } catch (Exception e) {
             throw new RuntimeException("Failed to remove friend: " + e.getMessage(), e);
         }
@@ -410,9 +782,7 @@ public class UserService {
      * */
     public List<Integer> getFriends(User user) {
         try {
-            return user.getFriends().stream()
-                    .map(User::getUserID)
-                    .collect(Collectors.toList());
+            return FriendshipGraphService.toList(friendshipGraph.getOutgoing(user.getUserID()));
         } catch (Exception e) {
             throw new RuntimeException("Failed to get friend IDs " + e.getMessage());
         }
@@ -434,4 +804,30 @@ public class UserService {
         extraClaims.put("id", user.getUserID());
         return extraClaims;
     }
+
+    /**
+     * Reconciles the post, like and friendship counters of one range of users with the {@code posted},
+     * {@code likes} and {@code friendship} tables.
+     * <p>
+     * The counters are adjusted atomically when posts, likes and friendships change, this task repairs the drift
+     * left by changes that bypass the services, such as rows removed by cascading deletes of other users.
+     * Each run checks the next range of user IDs and starts over from the beginning after the last user,
+     * so the whole table is covered without ever locking more than one range.
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "${users.counters.repair-ms:60000}")
+    public void repairCounters() {
+        Integer maxUserId = userRepository.findMaxUserId();
+        if (maxUserId == null || counterRepairCursor > maxUserId) {
+            counterRepairCursor = 0;
+            return;
+        }
+        int fromId = counterRepairCursor;
+        int toId = fromId + counterRepairBatchSize;
+        int repaired = userRepository.repairUserCounts(fromId, toId);
+        if (repaired > 0) {
+            log.info("Repaired the counters of {} users for user IDs {} to {}", repaired, fromId, toId - 1);
+        }
+        counterRepairCursor = toId;
+    }
 }
@@ -0,0 +1,211 @@
+package G2.SafeSpace.service;
+
+import G2.SafeSpace.entity.User;
+import G2.SafeSpace.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory registry of taken usernames, used to answer availability checks without a database query.
+ * <p>
+ * Names are kept case-folded (see {@link User#normalizeUsername(String)}) in a Bloom filter and in an exact set.
+ * A name the Bloom filter has never seen is available right away. A name found in the exact set is taken.
+ * Anything else, such as a Bloom filter false positive or a name released by a rename or deletion, which a Bloom
+ * filter cannot forget, falls back to the indexed query of the {@link UserRepository}.
+ * </p>
+ * <p>
+ * The registry is loaded once at startup and kept current by registration, rename and deletion of users.
+ * </p>
+ */
+@Service
+public class UsernameRegistry {
+
+    private final UserRepository userRepository;
+    private final BloomFilter bloomFilter;
+    private final Set<String> takenNames = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructs a UsernameRegistry with a Bloom filter sized for the expected number of users.
+     *
+     * @param userRepository    The repository for accessing user data.
+     * @param expectedUsers     The number of users the Bloom filter is sized for.
+     * @param falsePositiveRate The accepted false positive rate of the Bloom filter at the expected size.
+     */
+    @Autowired
+    public UsernameRegistry(UserRepository userRepository,
+                            @Value("${users.registry.expected-users:1000000}") int expectedUsers,
+                            @Value("${users.registry.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.bloomFilter = new BloomFilter(expectedUsers, falsePositiveRate);
+    }
+
+    /**
+     * Loads all existing usernames at startup.
+     */
+    @PostConstruct
+    public void load() {
+        for (String name : userRepository.findAllNormalizedUsernames()) {
+            add(name);
+        }
+    }
+
+    /**
+     * Checks whether a username is available, ignoring case and surrounding whitespace.
+     *
+     * @param username The username to check.
+     * @return {@code true} if no user has the username, {@code false} otherwise.
+     */
+    public boolean isAvailable(String username) {
+        String name = User.normalizeUsername(username);
+        if (!bloomFilter.mightContain(name)) {
+            return true;
+        }
+        if (takenNames.contains(name)) {
+            return false;
+        }
+        boolean taken = userRepository.existsByNormalizedUsername(name);
+        if (taken) {
+            // registered elsewhere, e.g. by another instance
+            add(name);
+        }
+        return !taken;
+    }
+
+    /**
+     * Records a newly registered username.
+     *
+     * @param username The username that was taken.
+     */
+    public void register(String username) {
+        add(User.normalizeUsername(username));
+    }
+
+    /**
+     * Records a username change, releasing the old name and taking the new one.
+     *
+     * @param oldUsername The previous username.
+     * @param newUsername The new username.
+     */
+    public void rename(String oldUsername, String newUsername) {
+        String oldName = User.normalizeUsername(oldUsername);
+        String newName = User.normalizeUsername(newUsername);
+        if (!oldName.equals(newName)) {
+            takenNames.remove(oldName);
+        }
+        add(newName);
+    }
+
+    /**
+     * Releases the username of a deleted user.
+     *
+     * @param username The username that was released.
+     */
+    public void remove(String username) {
+        takenNames.remove(User.normalizeUsername(username));
+    }
+
+    /**
+     * Adds an already normalized name to both the Bloom filter and the exact set.
+     *
+     * @param name The normalized username.
+     */
+    private void add(String name) {
+        bloomFilter.put(name);
+        takenNames.add(name);
+    }
+
+    /**
+     * Lock-free Bloom filter over strings, backed by an {@link AtomicLongArray} so it can be updated concurrently.
+     */
+    static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        /**
+         * Sizes the filter for the given number of elements and false positive rate.
+         *
+         * @param expectedElements  The number of elements the filter is sized for.
+         * @param falsePositiveRate The false positive rate at the expected number of elements.
+         */
+        BloomFilter(int expectedElements, double falsePositiveRate) {
+            long optimalBits = (long) Math.ceil(-Math.max(1, expectedElements) * Math.log(falsePositiveRate)
+                    / (Math.log(2) * Math.log(2)));
+            int words = (int) Math.max(1, (optimalBits + 63) / 64);
+            this.bits = new AtomicLongArray(words);
+            this.bitCount = (long) words * 64;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / Math.max(1, expectedElements) * Math.log(2)));
+        }
+
+        /**
+         * Adds an element to the filter.
+         *
+         * @param value The element to add.
+         */
+        void put(String value) {
+            long hash = hash64(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long index = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount;
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long current;
+                do {
+                    current = bits.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        /**
+         * Checks whether an element may have been added to the filter.
+         *
+         * @param value The element to check.
+         * @return {@code false} if the element was definitely never added, {@code true} if it may have been.
+         */
+        boolean mightContain(String value) {
+            long hash = hash64(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long index = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount;
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Computes a 64-bit FNV-1a hash of the UTF-8 bytes of the value, finished with a MurmurHash3 mix
+         * so that both halves of the result are well distributed.
+         *
+         * @param value The value to hash.
+         * @return The 64-bit hash.
+         */
+        private static long hash64(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x100000001b3L;
+            }
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            hash *= 0xc4ceb9fe1a85ec53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package G2.SafeSpace;
+
+import G2.SafeSpace.controller.AuthenticationController;
+import G2.SafeSpace.dto.AuthenticationRequest;
+import G2.SafeSpace.dto.UserDTO;
+import G2.SafeSpace.service.AuthenticationService;
+import G2.SafeSpace.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+public class AuthenticationControllerTest {
+
+    @Mock
+    private AuthenticationService authenticationService;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private AuthenticationController authenticationController;
+
+    public AuthenticationControllerTest() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private static AuthenticationRequest request(String username, String password) {
+        AuthenticationRequest request = new AuthenticationRequest();
+        request.setUsername(username);
+        request.setPassword(password);
+        return request;
+    }
+
+    @Test
+    public void testLogin() throws Exception {
+        AuthenticationRequest request = request("alice", "secret");
+        when(authenticationService.login(request)).thenReturn(CompletableFuture.completedFuture(new UserDTO(1, "alice", null, "default", null)));
+
+        ResponseEntity<UserDTO> response = authenticationController.login(request).get();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(userService, never()).findUserByUsername(any());
+    }
+
+    @Test
+    public void testLoginWithBadCredentials() throws Exception {
+        AuthenticationRequest request = request("alice", "wrong");
+        when(authenticationService.login(request))
+                .thenReturn(CompletableFuture.failedFuture(new BadCredentialsException("Bad credentials")));
+
+        assertEquals(HttpStatus.BAD_REQUEST, authenticationController.login(request).get().getStatusCode());
+    }
+
+    @Test
+    public void testLoginWithoutPassword() throws Exception {
+        assertEquals(HttpStatus.BAD_REQUEST,
+                authenticationController.login(request("alice", null)).get().getStatusCode());
+        verify(authenticationService, never()).login(any());
+    }
+
+    @Test
+    public void testLoginWhenHashingQueueIsFull() throws Exception {
+        AuthenticationRequest request = request("alice", "secret");
+        when(authenticationService.login(request))
+                .thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException("queue full")));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, authenticationController.login(request).get().getStatusCode());
+    }
+
+    @Test
+    public void testRegisterWhenHashingQueueIsFull() throws Exception {
+        AuthenticationRequest request = request("alice", "secret");
+        when(userService.isUsernameAvailable("alice")).thenReturn(true);
+        when(authenticationService.register(request))
+                .thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException("queue full")));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, authenticationController.register(request).get().getStatusCode());
+    }
+}
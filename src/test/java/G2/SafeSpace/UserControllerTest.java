@@ -1,6 +1,8 @@
 package G2.SafeSpace;
 
 import G2.SafeSpace.controller.UserController;
+import G2.SafeSpace.dto.CursorPageDTO;
+import G2.SafeSpace.dto.FieldSelection;
 import G2.SafeSpace.dto.UserDTO;
 import G2.SafeSpace.dto.UserDetailedDTO;
 import G2.SafeSpace.entity.User;
@@ -44,25 +46,38 @@ public class UserControllerTest {
         User user = new User();
         User user2 = new User();
 
-        when(userContextService.getCurrentUser()).thenReturn(Optional.of(user));
-        when(userService.findAllUsers()).thenReturn(List.of(new UserDTO(user, true), new UserDTO(user2, false)));
+        when(userContextService.getCurrentUserId()).thenReturn(Optional.of(user.getUserID()));
+        when(userService.findUsersPage(0, 20, false))
+                .thenReturn(new CursorPageDTO<>(List.of(new UserDTO(user, true), new UserDTO(user2, false)), null));
 
-        ResponseEntity<List<UserDTO>> response = userController.getAllUsers();
+        ResponseEntity<CursorPageDTO<UserDTO>> response = userController.getAllUsers(0, 20, false, null);
 
         System.out.println("Response Status: " + response.getStatusCode());
         System.out.println("Response Body: " + response.getBody());
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertEquals(2, Objects.requireNonNull(response.getBody()).size());
+        assertEquals(2, Objects.requireNonNull(response.getBody()).getItems().size());
+    }
+
+    @Test
+    public void testGetAllUsersClampsLimitAndReadsCountsFromFields() {
+        when(userContextService.getCurrentUserId()).thenReturn(Optional.of(1));
+        when(userService.findUsersPage(anyInt(), anyInt(), anyBoolean())).thenReturn(new CursorPageDTO<>(List.of(), null));
+
+        ResponseEntity<CursorPageDTO<UserDTO>> response = userController.getAllUsers(5, 1000, false, List.of("counts"));
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(userService).findUsersPage(5, 100, true);
     }
 
     @Test
     public void testGetUserById() {
         User user = new User();
-        when(userContextService.getCurrentUser()).thenReturn(Optional.of(user));
+        when(userContextService.getCurrentUserId()).thenReturn(Optional.of(user.getUserID()));
         when(userService.findUserById(1)).thenReturn(user);
+        when(userService.createUserDTO(user, FieldSelection.ALL)).thenReturn(new UserDTO(user, false));
 
-        ResponseEntity<UserDTO> response = userController.getUserById(1);
+        ResponseEntity<UserDTO> response = userController.getUserById(1, true, null);
 
         System.out.println("Response Status: " + response.getStatusCode());
         System.out.println("Response Body: " + response.getBody().getId());
@@ -75,9 +90,9 @@ public class UserControllerTest {
     public void testMe() {
         User user = new User();
         when(userContextService.getCurrentUser()).thenReturn(Optional.of(user));
-        when(userService.generateUserDetailedDTO(user)).thenReturn(new UserDetailedDTO());
+        when(userService.generateUserDetailedDTO(user, FieldSelection.ALL)).thenReturn(new UserDetailedDTO());
 
-        ResponseEntity<UserDetailedDTO> response = userController.getMe();
+        ResponseEntity<UserDetailedDTO> response = userController.getMe(null);
 
         System.out.println("Response Status: " + response.getStatusCode());
         System.out.println("Response Body: " + response.getBody());
@@ -0,0 +1,43 @@
+package G2.SafeSpace.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdaptiveBCryptPasswordEncoderTest {
+
+    // the lowest costs BCrypt allows keep the calibration and the hashing fast
+    private final AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(10000, 5, 5);
+
+    @Test
+    public void testCalibratedCostIsUsedForNewHashes() {
+        assertEquals(5, encoder.getCost());
+        assertEquals(5, AdaptiveBCryptPasswordEncoder.costOf(encoder.encode("secret")));
+    }
+
+    @Test
+    public void testHashesOfOtherCostsStillMatch() {
+        String lowerCostHash = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertTrue(encoder.matches("secret", lowerCostHash));
+        assertFalse(encoder.matches("wrong", lowerCostHash));
+    }
+
+    @Test
+    public void testOnlyLowerCostHashesAreUpgraded() {
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+    }
+
+    @Test
+    public void testCostOfRejectsValuesThatAreNotBCryptHashes() {
+        assertEquals(-1, AdaptiveBCryptPasswordEncoder.costOf(null));
+        assertEquals(-1, AdaptiveBCryptPasswordEncoder.costOf("plain"));
+        assertEquals(-1, AdaptiveBCryptPasswordEncoder.costOf("$2a$xx$abcdef"));
+        assertFalse(encoder.upgradeEncoding("plain"));
+    }
+}
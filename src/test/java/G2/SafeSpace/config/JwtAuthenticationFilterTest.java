@@ -0,0 +1,130 @@
+package G2.SafeSpace.config;
+
+import G2.SafeSpace.entity.User;
+import G2.SafeSpace.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class JwtAuthenticationFilterTest {
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private final JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+
+    public JwtAuthenticationFilterTest() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(filter, "jwtService", jwtService);
+        ReflectionTestUtils.setField(filter, "userRepository", userRepository);
+        ReflectionTestUtils.setField(filter, "tokenRevocationRegistry", tokenRevocationRegistry);
+        ReflectionTestUtils.setField(filter, "statelessMode", true);
+    }
+
+    @AfterEach
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    private static Claims claims(Integer userId, int tokenVersion) {
+        return Jwts.claims().subject("alice").add("id", userId)
+                .add(TokenRevocationRegistry.VERSION_CLAIM, tokenVersion).build();
+    }
+
+    @Test
+    public void testValidTokenAuthenticatesFromClaims() throws Exception {
+        when(jwtService.extractAllClaims("token")).thenReturn(claims(1, 0));
+        MockHttpServletRequest request = request("token");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, filterChain);
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        assertEquals(1, ((JwtPrincipal) authentication.getPrincipal()).getUserId());
+        verify(tokenRevocationRegistry).isRevoked(1, 0);
+        verify(userRepository, never()).findByUsername(any());
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    public void testRevokedTokenIsRejected() throws Exception {
+        when(jwtService.extractAllClaims("token")).thenReturn(claims(1, 0));
+        when(tokenRevocationRegistry.isRevoked(1, 0)).thenReturn(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("token"), response, filterChain);
+
+        assertEquals(401, response.getStatus());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        verify(filterChain, never()).doFilter(any(), any());
+    }
+
+    @Test
+    public void testInvalidTokenIsRejected() throws Exception {
+        when(jwtService.extractAllClaims("token")).thenReturn(null);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request("token"), response, filterChain);
+
+        assertEquals(401, response.getStatus());
+        verify(filterChain, never()).doFilter(any(), any());
+    }
+
+    @Test
+    public void testTokenWithoutIdLooksUpUser() throws Exception {
+        User user = mock(User.class);
+        when(user.getUserID()).thenReturn(7);
+        when(user.getUsername()).thenReturn("alice");
+        when(userRepository.findByUsername("alice")).thenReturn(user);
+        when(jwtService.extractAllClaims("token")).thenReturn(claims(null, 0));
+
+        filter.doFilter(request("token"), new MockHttpServletResponse(), filterChain);
+
+        verify(tokenRevocationRegistry).isRevoked(7, 0);
+        assertEquals(7, ((JwtPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal())
+                .getUserId());
+    }
+
+    @Test
+    public void testRequestWithoutTokenPassesThrough() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, filterChain);
+
+        verify(filterChain).doFilter(request, response);
+        verify(jwtService, never()).extractAllClaims(any());
+    }
+}
@@ -0,0 +1,85 @@
+package G2.SafeSpace.config;
+
+import G2.SafeSpace.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class JwtServiceTest {
+
+    private static final String SECRET = "c2FmZXNwYWNlLXRlc3Qtc2VjcmV0LW9mLWF0LWxlYXN0LTI1Ni1iaXRz";
+    private static final String OLD_SECRET = "b2xkLXNhZmVzcGFjZS10ZXN0LXNlY3JldC1vZi0yNTYtYml0cy1sb25n";
+
+    private final VerifiedTokenCache tokenCache = new VerifiedTokenCache(100, new SimpleMeterRegistry());
+    private final User user = mock(User.class);
+
+    public JwtServiceTest() {
+        when(user.getUserID()).thenReturn(1);
+        when(user.getUsername()).thenReturn("alice");
+    }
+
+    private JwtService service(String secret, String additionalKeys, String activeKeyId) {
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "EXPIRATION_MINUTES", 60L);
+        ReflectionTestUtils.setField(jwtService, "SECRET_KEY", secret);
+        ReflectionTestUtils.setField(jwtService, "ADDITIONAL_KEYS", additionalKeys);
+        ReflectionTestUtils.setField(jwtService, "ACTIVE_KEY_ID", activeKeyId);
+        ReflectionTestUtils.setField(jwtService, "tokenCache", tokenCache);
+        ReflectionTestUtils.setField(jwtService, "tokenRevocationRegistry", mock(TokenRevocationRegistry.class));
+        jwtService.init();
+        return jwtService;
+    }
+
+    @Test
+    public void testGeneratedTokenIsVerifiedAndCached() {
+        JwtService jwtService = service(SECRET, "", "default");
+        String token = jwtService.generateToken(user, Map.of("userID", 1));
+
+        Claims claims = jwtService.extractAllClaims(token);
+
+        assertEquals("alice", claims.getSubject());
+        assertEquals(0, claims.get(TokenRevocationRegistry.VERSION_CLAIM, Integer.class));
+        assertSame(claims, jwtService.extractAllClaims(token));
+    }
+
+    @Test
+    public void testTamperedTokenIsRejected() {
+        JwtService jwtService = service(SECRET, "", "default");
+        String token = jwtService.generateToken(user, Map.of());
+
+        assertNull(jwtService.extractAllClaims(token.substring(0, token.length() - 2) + "xx"));
+    }
+
+    @Test
+    public void testTokenOfRetiredKeyIsStillAccepted() {
+        String oldToken = Jwts.builder()
+                .header().keyId("old").and()
+                .subject("alice")
+                .expiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(OLD_SECRET)), Jwts.SIG.HS256)
+                .compact();
+
+        assertEquals("alice", service(SECRET, "old:" + OLD_SECRET, "default").extractUsername(oldToken));
+        assertNull(service(SECRET, "", "default").extractAllClaims(oldToken));
+    }
+
+    @Test
+    public void testStartupFailsWithoutSecret() {
+        assertThrows(IllegalStateException.class, () -> service("", "", "default"));
+        assertThrows(IllegalStateException.class, () -> service(SECRET, "", "missing"));
+    }
+}
@@ -0,0 +1,77 @@
+package G2.SafeSpace.config;
+
+import G2.SafeSpace.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TokenRevocationRegistryTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    public TokenRevocationRegistryTest() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    public void testTokenOfCurrentVersionIsAccepted() {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(userRepository, 60000, 100);
+        when(userRepository.findTokenVersion(1)).thenReturn(0);
+
+        assertFalse(registry.isRevoked(1, 0));
+        // tokens issued before versions existed count as version 0
+        assertFalse(registry.isRevoked(1, null));
+        verify(userRepository, times(1)).findTokenVersion(1);
+    }
+
+    @Test
+    public void testRevokedTokenIsRejectedRightAway() {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(userRepository, 60000, 100);
+        when(userRepository.findTokenVersion(1)).thenReturn(0);
+        assertFalse(registry.isRevoked(1, 0));
+
+        when(userRepository.findTokenVersion(1)).thenReturn(1);
+        registry.revokeTokens(1);
+
+        verify(userRepository).incrementTokenVersion(1);
+        assertTrue(registry.isRevoked(1, 0));
+        assertFalse(registry.isRevoked(1, 1));
+    }
+
+    @Test
+    public void testTokensOfMissingUserAreRevoked() {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(userRepository, 60000, 100);
+        when(userRepository.findTokenVersion(1)).thenReturn(null);
+
+        assertEquals(-1, registry.currentVersion(1));
+        assertTrue(registry.isRevoked(1, 0));
+    }
+
+    @Test
+    public void testVersionIsReadAgainAfterTtl() {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(userRepository, 0, 100);
+        when(userRepository.findTokenVersion(1)).thenReturn(0);
+
+        registry.currentVersion(1);
+        registry.currentVersion(1);
+
+        verify(userRepository, times(2)).findTokenVersion(1);
+    }
+
+    @Test
+    public void testFullCacheStillAnswers() {
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(userRepository, 60000, 5);
+        for (int userId = 1; userId <= 20; userId++) {
+            when(userRepository.findTokenVersion(userId)).thenReturn(userId);
+            assertEquals(userId, registry.currentVersion(userId));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package G2.SafeSpace.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VerifiedTokenCacheTest {
+
+    private final VerifiedTokenCache cache = new VerifiedTokenCache(3, new SimpleMeterRegistry());
+
+    private static Claims claimsExpiringIn(long millis) {
+        return Jwts.claims().subject("user").expiration(new Date(System.currentTimeMillis() + millis)).build();
+    }
+
+    @Test
+    public void testVerifiedTokenIsCached() {
+        Claims claims = claimsExpiringIn(60000);
+
+        cache.put("token", claims, cache.generation());
+
+        assertSame(claims, cache.get("token"));
+        assertNull(cache.get("other"));
+    }
+
+    @Test
+    public void testExpiredTokenIsNotCached() {
+        cache.put("token", claimsExpiringIn(-1000), cache.generation());
+        cache.put("unbounded", Jwts.claims().subject("user").build(), cache.generation());
+
+        assertNull(cache.get("token"));
+        assertNull(cache.get("unbounded"));
+    }
+
+    @Test
+    public void testTokenVerifiedBeforeClearIsNotCached() {
+        // the keys were rotated while the token was being verified
+        long generation = cache.generation();
+        cache.clear();
+
+        cache.put("token", claimsExpiringIn(60000), generation);
+
+        assertNull(cache.get("token"));
+        cache.put("token", claimsExpiringIn(60000), cache.generation());
+        assertNotNull(cache.get("token"));
+    }
+
+    @Test
+    public void testClearRemovesCachedTokens() {
+        cache.put("token", claimsExpiringIn(60000), cache.generation());
+
+        cache.clear();
+
+        assertNull(cache.get("token"));
+    }
+
+    @Test
+    public void testFullCacheEvictsToMakeRoom() {
+        for (int i = 0; i < 10; i++) {
+            cache.put("token" + i, claimsExpiringIn(60000), cache.generation());
+        }
+
+        assertNotNull(cache.get("token9"));
+    }
+
+    @Test
+    public void testCacheStaysBoundedAndCountsRequests() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VerifiedTokenCache bounded = new VerifiedTokenCache(10, meterRegistry);
+        for (int i = 0; i < 100; i++) {
+            bounded.put("token" + i, claimsExpiringIn(60000), bounded.generation());
+        }
+
+        assertTrue(meterRegistry.get("jwt.cache.size").gauge().value() <= 10);
+        assertNotNull(bounded.get("token99"));
+        bounded.get("missing");
+        assertEquals(1, meterRegistry.get("jwt.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(1, meterRegistry.get("jwt.cache.requests").tag("result", "miss").counter().count());
+    }
+}
@@ -0,0 +1,38 @@
+package G2.SafeSpace.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FieldSelectionTest {
+
+    @Test
+    public void testMissingFieldsSelectEverySection() {
+        assertSame(FieldSelection.ALL, FieldSelection.of(null));
+        assertTrue(FieldSelection.ALL.includes("posts"));
+        assertTrue(FieldSelection.ALL.includes("anything"));
+    }
+
+    @Test
+    public void testOnlyListedSectionsAreSelected() {
+        FieldSelection fields = FieldSelection.of(List.of(" counts ", "", "posts"));
+
+        assertTrue(fields.includes("counts"));
+        assertTrue(fields.includes("posts"));
+        assertFalse(fields.includes("friends"));
+        assertFalse(fields.includes(""));
+    }
+
+    @Test
+    public void testEmptyFieldsSelectOnlyBasicInformation() {
+        FieldSelection fields = FieldSelection.of(List.of());
+
+        assertFalse(fields.includes("counts"));
+        assertFalse(FieldSelection.only().includes("counts"));
+        assertTrue(FieldSelection.only("counts").includes("counts"));
+    }
+}
@@ -0,0 +1,128 @@
+package G2.SafeSpace.service;
+
+import G2.SafeSpace.config.JwtService;
+import G2.SafeSpace.dto.AuthenticationRequest;
+import G2.SafeSpace.dto.UserDTO;
+import G2.SafeSpace.entity.User;
+import G2.SafeSpace.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class AuthenticationServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private UsernameRegistry usernameRegistry;
+
+    @Mock
+    private UserSearchIndex userSearchIndex;
+
+    private final PasswordHashingService passwordHashingService =
+            new PasswordHashingService(1, 10, new SimpleMeterRegistry());
+
+    private final AuthenticationService authenticationService;
+
+    private final User user = new User();
+
+    public AuthenticationServiceTest() {
+        MockitoAnnotations.openMocks(this);
+        authenticationService = new AuthenticationService(userRepository, jwtService, passwordEncoder,
+                passwordHashingService, usernameRegistry, userSearchIndex, Runnable::run);
+        user.setUsername("Alice");
+        user.setPassword("stored-hash");
+        when(jwtService.generateToken(any(User.class), anyMap())).thenReturn("token");
+    }
+
+    @AfterEach
+    public void shutdown() {
+        passwordHashingService.shutdown();
+    }
+
+    private static AuthenticationRequest request(String username, String password) {
+        AuthenticationRequest request = new AuthenticationRequest();
+        request.setUsername(username);
+        request.setPassword(password);
+        return request;
+    }
+
+    @Test
+    public void testLoginLooksUpNormalizedUsername() throws Exception {
+        when(userRepository.findByNormalizedUsername("alice")).thenReturn(user);
+        when(passwordEncoder.matches("secret", "stored-hash")).thenReturn(true);
+
+        UserDTO userDTO = authenticationService.login(request("  ALICE ", "secret")).get();
+
+        assertEquals("token", userDTO.getJwt());
+        verify(userRepository, never()).findByUsername(anyString());
+    }
+
+    @Test
+    public void testLoginOfUnknownUserFailsWithBadCredentials() {
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> authenticationService.login(request("nobody", "secret")).get());
+
+        assertInstanceOf(BadCredentialsException.class, failure.getCause());
+        verify(passwordEncoder, never()).matches(any(), any());
+    }
+
+    @Test
+    public void testLoginWithWrongPasswordFailsWithBadCredentials() {
+        when(userRepository.findByNormalizedUsername("alice")).thenReturn(user);
+        when(passwordEncoder.matches("wrong", "stored-hash")).thenReturn(false);
+
+        ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> authenticationService.login(request("alice", "wrong")).get());
+
+        assertInstanceOf(BadCredentialsException.class, failure.getCause());
+    }
+
+    @Test
+    public void testLoginRehashesOutdatedPassword() throws Exception {
+        when(userRepository.findByNormalizedUsername("alice")).thenReturn(user);
+        when(passwordEncoder.matches("secret", "stored-hash")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("stored-hash")).thenReturn(true);
+        when(passwordEncoder.encode("secret")).thenReturn("upgraded-hash");
+
+        authenticationService.login(request("alice", "secret")).get();
+
+        verify(userRepository).updatePassword(user.getUserID(), "upgraded-hash");
+        assertEquals("upgraded-hash", user.getPassword());
+    }
+
+    @Test
+    public void testLoginKeepsCurrentPassword() throws Exception {
+        when(userRepository.findByNormalizedUsername("alice")).thenReturn(user);
+        when(passwordEncoder.matches("secret", "stored-hash")).thenReturn(true);
+
+        authenticationService.login(request("alice", "secret")).get();
+
+        verify(passwordEncoder, never()).encode(any());
+        verify(userRepository, never()).updatePassword(anyInt(), anyString());
+    }
+}
@@ -0,0 +1,169 @@
+package G2.SafeSpace.service;
+
+import G2.SafeSpace.dto.ConnectionDTO;
+import G2.SafeSpace.dto.UserSummaryDTO;
+import G2.SafeSpace.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ConnectionServiceTest {
+
+    private final FriendshipGraphService graph =
+            new FriendshipGraphService(mock(UserRepository.class), new FriendshipGraphStore(""));
+    private final UserSearchIndex userSearchIndex = mock(UserSearchIndex.class);
+
+    public ConnectionServiceTest() {
+        when(userSearchIndex.getSummary(anyInt()))
+                .thenAnswer(invocation -> summary(invocation.getArgument(0)));
+    }
+
+    private static UserSummaryDTO summary(int userId) {
+        return new UserSummaryDTO(userId, "user" + userId, "default");
+    }
+
+    private void befriend(int first, int second) {
+        graph.addEdge(first, second);
+        graph.addEdge(second, first);
+    }
+
+    private ConnectionService service(int maxDepth) {
+        return new ConnectionService(graph, userSearchIndex, maxDepth, 10_000, 2);
+    }
+
+    private static List<Integer> ids(ConnectionDTO connection) {
+        return connection.getPath().stream().map(UserSummaryDTO::getId).toList();
+    }
+
+    @Test
+    public void testFindsPathAlongChain() {
+        befriend(1, 2);
+        befriend(2, 3);
+        befriend(3, 4);
+        befriend(4, 5);
+
+        ConnectionDTO connection = service(6).findConnection(1, 5);
+
+        assertTrue(connection.isFound());
+        assertEquals(4, connection.getHops());
+        assertEquals(List.of(1, 2, 3, 4, 5), ids(connection));
+    }
+
+    @Test
+    public void testPathIsReconstructedInOrderFromBothSides() {
+        befriend(1, 2);
+        befriend(2, 3);
+        befriend(3, 4);
+        befriend(4, 5);
+
+        assertEquals(List.of(5, 4, 3, 2, 1), ids(service(6).findConnection(5, 1)));
+    }
+
+    @Test
+    public void testFindsShortestPath() {
+        befriend(1, 2);
+        befriend(2, 3);
+        befriend(3, 4);
+        befriend(4, 5);
+        befriend(2, 4);
+
+        ConnectionDTO connection = service(6).findConnection(1, 5);
+
+        assertEquals(3, connection.getHops());
+        assertEquals(List.of(1, 2, 4, 5), ids(connection));
+    }
+
+    @Test
+    public void testSameUserIsConnectedWithoutHops() {
+        befriend(1, 2);
+
+        ConnectionDTO connection = service(6).findConnection(2, 2);
+
+        assertTrue(connection.isFound());
+        assertEquals(0, connection.getHops());
+        assertEquals(List.of(2), ids(connection));
+    }
+
+    @Test
+    public void testNoPathBetweenComponents() {
+        befriend(1, 2);
+        befriend(6, 7);
+
+        ConnectionDTO connection = service(6).findConnection(1, 7);
+
+        assertFalse(connection.isFound());
+        assertFalse(connection.isTimedOut());
+        assertEquals(-1, connection.getHops());
+        assertTrue(connection.getPath().isEmpty());
+    }
+
+    @Test
+    public void testNoPathForUserWithoutFriends() {
+        befriend(1, 2);
+
+        assertFalse(service(6).findConnection(1, 99).isFound());
+    }
+
+    @Test
+    public void testOneSidedFriendshipIsNotAConnection() {
+        befriend(1, 2);
+        graph.addEdge(2, 3);
+
+        assertFalse(service(6).findConnection(1, 3).isFound());
+    }
+
+    @Test
+    public void testDepthCapLimitsPathLength() {
+        befriend(1, 2);
+        befriend(2, 3);
+        befriend(3, 4);
+        befriend(4, 5);
+
+        assertFalse(service(3).findConnection(1, 5).isFound());
+        assertTrue(service(4).findConnection(1, 5).isFound());
+    }
+
+    @Test
+    public void testPathThroughDeletedUserIsNotReturned() {
+        befriend(1, 2);
+        befriend(2, 3);
+        when(userSearchIndex.getSummary(2)).thenReturn(null);
+
+        assertFalse(service(6).findConnection(1, 3).isFound());
+    }
+
+    @Test
+    public void testLongPathsGrowAndReuseSearchState() {
+        int length = 5_000;
+        for (int user = 1; user < length; user++) {
+            befriend(user, user + 1);
+        }
+        ConnectionService service = service(length);
+
+        for (int run = 0; run < 3; run++) {
+            ConnectionDTO connection = service.findConnection(1, length);
+            assertTrue(connection.isFound());
+            assertEquals(length - 1, connection.getHops());
+        }
+        assertEquals(List.of(10, 11, 12), ids(service.findConnection(10, 12)));
+    }
+
+    @Test
+    public void testSnapshotIsRefreshedAfterChanges() {
+        befriend(1, 2);
+        ConnectionService service = service(6);
+        assertFalse(service.findConnection(1, 3).isFound());
+
+        befriend(2, 3);
+        service.refreshSnapshot();
+
+        assertEquals(List.of(1, 2, 3), ids(service.findConnection(1, 3)));
+    }
+}
@@ -0,0 +1,109 @@
+package G2.SafeSpace.service;
+
+import G2.SafeSpace.dto.RecommendationDTO;
+import G2.SafeSpace.dto.UserSummaryDTO;
+import G2.SafeSpace.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class FriendRecommendationServiceTest {
+
+    @Mock
+    private UserSearchIndex userSearchIndex;
+
+    private final FriendshipGraphService friendshipGraph =
+            new FriendshipGraphService(mock(UserRepository.class), new FriendshipGraphStore(""));
+
+    public FriendRecommendationServiceTest() {
+        MockitoAnnotations.openMocks(this);
+        when(userSearchIndex.getSummary(anyInt())).thenAnswer(invocation -> {
+            int userId = invocation.getArgument(0);
+            return new UserSummaryDTO(userId, "user" + userId, null);
+        });
+    }
+
+    private void befriend(int first, int second) {
+        friendshipGraph.addEdge(first, second);
+        friendshipGraph.addEdge(second, first);
+    }
+
+    private static List<Integer> ids(List<RecommendationDTO> recommendations) {
+        return recommendations.stream().map(recommendation -> recommendation.getUser().getId()).toList();
+    }
+
+    @Test
+    public void testRanksFriendsOfFriendsByMutualFriends() {
+        // 1 is friends with 2, 3 and 4, and follows 8
+        befriend(1, 2);
+        befriend(1, 3);
+        befriend(1, 4);
+        befriend(2, 5);
+        befriend(3, 5);
+        befriend(4, 5);
+        befriend(2, 6);
+        befriend(4, 6);
+        befriend(3, 9);
+        befriend(3, 7);
+        befriend(4, 8);
+        friendshipGraph.addEdge(1, 8);
+        FriendRecommendationService service = new FriendRecommendationService(friendshipGraph, userSearchIndex, 10, 100);
+
+        List<RecommendationDTO> recommendations = service.getRecommendations(1, 10);
+
+        // ties are broken by the lower ID, users already followed are skipped
+        assertEquals(List.of(5, 6, 7, 9), ids(recommendations));
+        assertEquals(List.of(3, 2, 1, 1),
+                recommendations.stream().map(RecommendationDTO::getMutualFriendCount).toList());
+        assertEquals(List.of(5, 6), ids(service.getRecommendations(1, 2)));
+    }
+
+    @Test
+    public void testUserWithoutFriendsGetsNoRecommendations() {
+        friendshipGraph.addEdge(1, 2);
+        FriendRecommendationService service = new FriendRecommendationService(friendshipGraph, userSearchIndex, 10, 100);
+
+        assertTrue(service.getRecommendations(1, 10).isEmpty());
+    }
+
+    @Test
+    public void testMergeMatchesCountingOnRandomGraph() {
+        Random random = new Random(42);
+        for (int i = 0; i < 600; i++) {
+            int first = 1 + random.nextInt(60);
+            int second = 1 + random.nextInt(60);
+            if (first != second) {
+                befriend(first, second);
+            }
+        }
+        FriendRecommendationService service = new FriendRecommendationService(friendshipGraph, userSearchIndex, 1000, 100);
+
+        for (int userId = 1; userId <= 60; userId++) {
+            Map<Integer, Integer> expected = new HashMap<>();
+            for (int friendId : friendshipGraph.getFriends(userId)) {
+                for (int candidate : friendshipGraph.getFriends(friendId)) {
+                    if (candidate != userId && Arrays.binarySearch(friendshipGraph.getOutgoing(userId), candidate) < 0) {
+                        expected.merge(candidate, 1, Integer::sum);
+                    }
+                }
+            }
+            Map<Integer, Integer> actual = new HashMap<>();
+            for (RecommendationDTO recommendation : service.getRecommendations(userId, 1000)) {
+                actual.put(recommendation.getUser().getId(), recommendation.getMutualFriendCount());
+            }
+            assertEquals(expected, actual);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package G2.SafeSpace.service;
+
+import G2.SafeSpace.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+public class FriendshipGraphServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final FriendshipGraphService graph;
+
+    public FriendshipGraphServiceTest() {
+        MockitoAnnotations.openMocks(this);
+        graph = new FriendshipGraphService(userRepository, new FriendshipGraphStore(""));
+    }
+
+    @Test
+    public void testAddEdgeKeepsArraysSorted() {
+        graph.addEdge(1, 7);
+        graph.addEdge(1, 3);
+        graph.addEdge(1, 9);
+        graph.addEdge(1, 5);
+        graph.addEdge(4, 3);
+
+        assertArrayEquals(new int[]{3, 5, 7, 9}, graph.getOutgoing(1));
+        assertArrayEquals(new int[]{1, 4}, graph.getIncoming(3));
+    }
+
+    @Test
+    public void testAddEdgeIgnoresDuplicates() {
+        graph.addEdge(1, 2);
+        graph.addEdge(1, 2);
+
+        assertArrayEquals(new int[]{2}, graph.getOutgoing(1));
+        assertArrayEquals(new int[]{1}, graph.getIncoming(2));
+    }
+
+    @Test
+    public void testRemoveEdgeKeepsArraysSorted() {
+        graph.addEdge(1, 3);
+        graph.addEdge(1, 5);
+        graph.addEdge(1, 7);
+
+        graph.removeEdge(1, 5);
+        assertArrayEquals(new int[]{3, 7}, graph.getOutgoing(1));
+        assertArrayEquals(new int[0], graph.getIncoming(5));
+
+        graph.removeEdge(1, 4);
+        assertArrayEquals(new int[]{3, 7}, graph.getOutgoing(1));
+    }
+
+    @Test
+    public void testRemovingLastEdgeDropsUser() {
+        graph.addEdge(1, 2);
+        assertEquals(Set.of(1), graph.getConnectedUserIds());
+
+        graph.removeEdge(1, 2);
+
+        assertTrue(graph.getConnectedUserIds().isEmpty());
+        assertArrayEquals(new int[0], graph.getOutgoing(1));
+    }
+
+    @Test
+    public void testClassifiesFriendsFollowingAndFollowers() {
+        // 1 and 2 are friends, 1 follows 3, 4 follows 1
+        graph.addEdge(1, 2);
+        graph.addEdge(2, 1);
+        graph.addEdge(1, 3);
+        graph.addEdge(4, 1);
+
+        assertArrayEquals(new int[]{2}, graph.getFriends(1));
+        assertArrayEquals(new int[]{3}, graph.getFollowing(1));
+        assertArrayEquals(new int[]{4}, graph.getFollowers(1));
+        assertArrayEquals(new int[0], graph.getFriends(3));
+        assertArrayEquals(new int[]{1}, graph.getFollowers(3));
+        assertArrayEquals(new int[]{1}, graph.getFollowing(4));
+    }
+
+    @Test
+    public void testFollowingAndFriendship() {
+        graph.addEdge(1, 2);
+
+        assertTrue(graph.isFollowing(1, 2));
+        assertFalse(graph.isFollowing(2, 1));
+        assertFalse(graph.areFriends(1, 2));
+
+        graph.addEdge(2, 1);
+
+        assertTrue(graph.areFriends(1, 2));
+        assertTrue(graph.areFriends(2, 1));
+    }
+
+    @Test
+    public void testMutualFriends() {
+        for (int friend : new int[]{3, 4, 5}) {
+            graph.addEdge(1, friend);
+            graph.addEdge(friend, 1);
+        }
+        for (int friend : new int[]{4, 5, 6}) {
+            graph.addEdge(2, friend);
+            graph.addEdge(friend, 2);
+        }
+        // 2 only follows 3, which does not make 3 a mutual friend
+        graph.addEdge(2, 3);
+
+        assertArrayEquals(new int[]{4, 5}, graph.getMutualFriends(1, 2));
+    }
+
+    @Test
+    public void testRemoveUserRemovesEdgesInBothDirections() {
+        graph.addEdge(1, 2);
+        graph.addEdge(2, 1);
+        graph.addEdge(2, 3);
+        graph.addEdge(3, 2);
+        graph.addEdge(1, 3);
+
+        graph.removeUser(2);
+
+        assertArrayEquals(new int[0], graph.getOutgoing(2));
+        assertArrayEquals(new int[0], graph.getIncoming(2));
+        assertArrayEquals(new int[]{3}, graph.getOutgoing(1));
+        assertArrayEquals(new int[0], graph.getOutgoing(3));
+        assertArrayEquals(new int[]{1}, graph.getFollowers(3));
+    }
+
+    @Test
+    public void testVersionChangesWithEveryChange() {
+        long initial = graph.getVersion();
+        graph.addEdge(1, 2);
+        long added = graph.getVersion();
+        graph.removeEdge(1, 2);
+
+        assertNotEquals(initial, added);
+        assertNotEquals(added, graph.getVersion());
+    }
+
+    @Test
+    public void testLoadScansTableWhenStoreIsDisabled() {
+        when(userRepository.findAllFriendshipEdges()).thenReturn(List.of(
+                new Object[]{1, 3}, new Object[]{1, 2}, new Object[]{2, 1}));
+
+        graph.load();
+
+        assertArrayEquals(new int[]{2, 3}, graph.getOutgoing(1));
+        assertArrayEquals(new int[]{2}, graph.getFriends(1));
+        assertArrayEquals(new int[]{3}, graph.getFollowing(1));
+    }
+
+    @Test
+    public void testIntersectAndSubtract() {
+        int[] first = {1, 3, 5, 7};
+        int[] second = {2, 3, 4, 7, 8};
+
+        assertArrayEquals(new int[]{3, 7}, FriendshipGraphService.intersect(first, second));
+        assertArrayEquals(new int[]{1, 5}, FriendshipGraphService.subtract(first, second));
+        assertArrayEquals(new int[0], FriendshipGraphService.intersect(first, new int[0]));
+        assertArrayEquals(first, FriendshipGraphService.subtract(first, new int[0]));
+    }
+}
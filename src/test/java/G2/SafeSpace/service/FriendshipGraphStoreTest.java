@@ -0,0 +1,180 @@
+package G2.SafeSpace.service;
+
+import G2.SafeSpace.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class FriendshipGraphStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private Path snapshot() {
+        return directory.resolve("graph.bin");
+    }
+
+    private static long checksum(int[][] edges) {
+        long checksum = 0;
+        for (int[] edge : edges) {
+            checksum += FriendshipGraphService.edgeChecksum(edge[0], edge[1]);
+        }
+        return checksum;
+    }
+
+    @Test
+    public void testDisabledStoreDoesNothing() {
+        FriendshipGraphStore store = new FriendshipGraphStore("");
+        store.appendDelta(FriendshipGraphStore.ADD_EDGE, 1, 2);
+
+        assertFalse(store.isEnabled());
+        assertNull(store.readSnapshot());
+        assertTrue(store.replayDeltas((operation, first, second) -> {
+            throw new AssertionError("no deltas expected");
+        }));
+    }
+
+    @Test
+    public void testSnapshotRoundTrip() {
+        FriendshipGraphStore store = new FriendshipGraphStore(snapshot().toString());
+        CsrGraph graph = new CsrGraph(new int[]{0, 0, 2, 3, 3}, new int[]{2, 3, 1});
+
+        store.writeSnapshot(graph);
+        CsrGraph read = new FriendshipGraphStore(snapshot().toString()).readSnapshot();
+
+        assertArrayEquals(graph.offsets(), read.offsets());
+        assertArrayEquals(graph.neighbors(), read.neighbors());
+    }
+
+    @Test
+    public void testDeltaLogRoundTripAndSnapshotEmptiesIt() {
+        FriendshipGraphStore store = new FriendshipGraphStore(snapshot().toString());
+        store.appendDelta(FriendshipGraphStore.ADD_EDGE, 1, 2);
+        store.appendDelta(FriendshipGraphStore.REMOVE_EDGE, 3, 4);
+        store.appendDelta(FriendshipGraphStore.REMOVE_USER, 5, 0);
+
+        List<int[]> records = new ArrayList<>();
+        assertTrue(store.replayDeltas((operation, first, second) -> records.add(new int[]{operation, first, second})));
+        assertEquals(3, records.size());
+        assertArrayEquals(new int[]{FriendshipGraphStore.ADD_EDGE, 1, 2}, records.get(0));
+        assertArrayEquals(new int[]{FriendshipGraphStore.REMOVE_EDGE, 3, 4}, records.get(1));
+        assertArrayEquals(new int[]{FriendshipGraphStore.REMOVE_USER, 5, 0}, records.get(2));
+
+        store.writeSnapshot(new CsrGraph(new int[]{0}, new int[0]));
+        records.clear();
+        store.replayDeltas((operation, first, second) -> records.add(new int[]{operation, first, second}));
+        assertTrue(records.isEmpty());
+    }
+
+    @Test
+    public void testPartialDeltaRecordIsIgnored() throws IOException {
+        FriendshipGraphStore store = new FriendshipGraphStore(snapshot().toString());
+        store.appendDelta(FriendshipGraphStore.ADD_EDGE, 1, 2);
+        Files.write(Path.of(snapshot() + ".delta"), new byte[]{FriendshipGraphStore.ADD_EDGE, 0, 0},
+                StandardOpenOption.APPEND);
+
+        List<int[]> records = new ArrayList<>();
+        store.replayDeltas((operation, first, second) -> records.add(new int[]{operation, first, second}));
+
+        assertEquals(1, records.size());
+    }
+
+    @Test
+    public void testTruncatedSnapshotIsIgnored() throws IOException {
+        FriendshipGraphStore store = new FriendshipGraphStore(snapshot().toString());
+        store.writeSnapshot(new CsrGraph(new int[]{0, 0, 1}, new int[]{1}));
+        byte[] bytes = Files.readAllBytes(snapshot());
+        Files.write(snapshot(), Arrays.copyOf(bytes, bytes.length - 2));
+
+        assertNull(store.readSnapshot());
+    }
+
+    @Test
+    public void testGraphIsRestoredFromSnapshotAndDeltas() {
+        FriendshipGraphStore store = new FriendshipGraphStore(snapshot().toString());
+        FriendshipGraphService graph = new FriendshipGraphService(mock(UserRepository.class), store);
+        graph.addEdge(1, 2);
+        graph.addEdge(2, 1);
+        graph.addEdge(1, 3);
+        graph.save();
+        // changes after the snapshot only reach the delta log
+        graph.addEdge(3, 1);
+        graph.removeEdge(1, 2);
+
+        int[][] edges = {{2, 1}, {1, 3}, {3, 1}};
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.countFriendships()).thenReturn((long) edges.length);
+        when(userRepository.checksumFriendships()).thenReturn(checksum(edges));
+        FriendshipGraphService restored =
+                new FriendshipGraphService(userRepository, new FriendshipGraphStore(snapshot().toString()));
+        restored.load();
+
+        verify(userRepository, never()).findAllFriendshipEdges();
+        assertArrayEquals(new int[]{3}, restored.getOutgoing(1));
+        assertArrayEquals(new int[]{1}, restored.getOutgoing(2));
+        assertArrayEquals(new int[]{3}, restored.getFriends(1));
+        assertArrayEquals(new int[]{2}, restored.getFollowers(1));
+    }
+
+    @Test
+    public void testStaleSnapshotWithSameEdgeCountIsRescanned() {
+        FriendshipGraphStore store = new FriendshipGraphStore(snapshot().toString());
+        FriendshipGraphService graph = new FriendshipGraphService(mock(UserRepository.class), store);
+        graph.addEdge(1, 2);
+        graph.save();
+
+        // the table has as many edges as the snapshot, but a different one
+        int[][] edges = {{1, 3}};
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.countFriendships()).thenReturn((long) edges.length);
+        when(userRepository.checksumFriendships()).thenReturn(checksum(edges));
+        when(userRepository.findAllFriendshipEdges()).thenReturn(List.<Object[]>of(new Object[]{1, 3}));
+        FriendshipGraphService restored =
+                new FriendshipGraphService(userRepository, new FriendshipGraphStore(snapshot().toString()));
+        restored.load();
+
+        verify(userRepository).findAllFriendshipEdges();
+        assertArrayEquals(new int[]{3}, restored.getOutgoing(1));
+    }
+
+    @Test
+    public void testLostDeltaRecordIsCaughtAndRescanned() throws IOException {
+        FriendshipGraphStore store = new FriendshipGraphStore(snapshot().toString());
+        FriendshipGraphService graph = new FriendshipGraphService(mock(UserRepository.class), store);
+        graph.addEdge(1, 2);
+        graph.save();
+        graph.addEdge(1, 3);
+        // a crash of the machine dropped the last delta record before it reached the disk
+        Files.write(Path.of(snapshot() + ".delta"), new byte[0]);
+
+        int[][] edges = {{1, 2}, {1, 3}};
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.countFriendships()).thenReturn((long) edges.length);
+        when(userRepository.checksumFriendships()).thenReturn(checksum(edges));
+        when(userRepository.findAllFriendshipEdges())
+                .thenReturn(List.of(new Object[]{1, 2}, new Object[]{1, 3}));
+        FriendshipGraphService restored =
+                new FriendshipGraphService(userRepository, new FriendshipGraphStore(snapshot().toString()));
+        restored.load();
+
+        verify(userRepository).findAllFriendshipEdges();
+        assertArrayEquals(new int[]{2, 3}, restored.getOutgoing(1));
+    }
+}
@@ -0,0 +1,150 @@
+package G2.SafeSpace.service;
+
+import G2.SafeSpace.dto.LikeDTO;
+import G2.SafeSpace.dto.PostDTO;
+import G2.SafeSpace.event.CommentEvent;
+import G2.SafeSpace.event.LikeEvent;
+import G2.SafeSpace.event.PostCreatedEvent;
+import G2.SafeSpace.event.PostDeletedEvent;
+import G2.SafeSpace.repository.PostRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+public class HotFeedServiceTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    private final Map<Integer, PostDTO> posts = new HashMap<>();
+
+    public HotFeedServiceTest() {
+        MockitoAnnotations.openMocks(this);
+        when(postRepository.findDTOsByIds(anyCollection())).thenAnswer(invocation -> {
+            List<PostDTO> found = new ArrayList<>();
+            for (Object postId : (Collection<?>) invocation.getArgument(0)) {
+                if (posts.containsKey(postId)) {
+                    found.add(posts.get(postId));
+                }
+            }
+            return found;
+        });
+    }
+
+    /**
+     * Creates a post the given number of hours after noon on the first of January 2024.
+     */
+    private PostDTO post(int postId, int hour, int likes, int comments) {
+        String date = String.format("2024-01-01 %02d:00:00", 12 + hour);
+        PostDTO post = new PostDTO(postId, "post " + postId, null, date, 1, "user1", likes, comments);
+        posts.put(postId, post);
+        return post;
+    }
+
+    private HotFeedService service(int maxPosts, PostDTO... created) {
+        // one hour half-life: one hour of age is worth a doubling of the likes
+        HotFeedService hotFeedService = new HotFeedService(postRepository, 1, maxPosts);
+        for (PostDTO post : created) {
+            hotFeedService.handlePostCreatedEvent(new PostCreatedEvent(this, post));
+        }
+        return hotFeedService;
+    }
+
+    private static List<Integer> ids(List<PostDTO> hotPosts) {
+        return hotPosts.stream().map(PostDTO::getPostID).toList();
+    }
+
+    private static void like(HotFeedService hotFeedService, int postId, int times) {
+        for (int i = 0; i < times; i++) {
+            hotFeedService.handleLikeEvent(new LikeEvent(new LikeDTO(1, postId, "like_added")));
+        }
+    }
+
+    @Test
+    public void testNewerPostRanksFirstWithoutInteractions() {
+        HotFeedService hotFeedService = service(10, post(1, 0, 0, 0), post(2, 1, 0, 0), post(3, 2, 0, 0));
+
+        assertEquals(List.of(3, 2, 1), ids(hotFeedService.getHotPosts(10)));
+        assertEquals(List.of(3, 2), ids(hotFeedService.getHotPosts(2)));
+    }
+
+    @Test
+    public void testLikesOutweighAgeByHalfLives() {
+        HotFeedService hotFeedService = service(10, post(1, 0, 0, 0), post(2, 1, 0, 0));
+
+        // three likes double the score twice, more than the one half-life post 1 is older
+        like(hotFeedService, 1, 3);
+        assertEquals(List.of(1, 2), ids(hotFeedService.getHotPosts(10)));
+
+        hotFeedService.handleLikeEvent(new LikeEvent(new LikeDTO(1, 1, "like_removed")));
+        hotFeedService.handleLikeEvent(new LikeEvent(new LikeDTO(1, 1, "like_removed")));
+        assertEquals(List.of(2, 1), ids(hotFeedService.getHotPosts(10)));
+    }
+
+    @Test
+    public void testCommentsWeighMoreThanLikes() {
+        HotFeedService hotFeedService = service(10, post(1, 0, 0, 0), post(2, 0, 0, 0));
+
+        like(hotFeedService, 2, 1);
+        hotFeedService.handleCommentEvent(new CommentEvent(1, "comment_added"));
+
+        assertEquals(List.of(1, 2), ids(hotFeedService.getHotPosts(10)));
+    }
+
+    @Test
+    public void testLoadUsesStoredCounts() {
+        when(postRepository.findPageBefore(anyInt(), any())).thenReturn(List.of(post(2, 1, 0, 0), post(1, 0, 3, 0)));
+        HotFeedService hotFeedService = service(10);
+
+        hotFeedService.load();
+
+        assertEquals(List.of(1, 2), ids(hotFeedService.getHotPosts(10)));
+    }
+
+    @Test
+    public void testFullRankingEvictsLowestPost() {
+        HotFeedService hotFeedService = service(2, post(1, 0, 0, 0), post(2, 1, 0, 0));
+        // seven likes are worth three half-lives, keeping post 1 ahead of the newer post 3
+        like(hotFeedService, 1, 7);
+
+        hotFeedService.handlePostCreatedEvent(new PostCreatedEvent(this, post(3, 2, 0, 0)));
+        assertEquals(List.of(1, 3), ids(hotFeedService.getHotPosts(10)));
+
+        // likes on a post that was dropped are ignored
+        like(hotFeedService, 2, 100);
+        assertEquals(List.of(1, 3), ids(hotFeedService.getHotPosts(10)));
+    }
+
+    @Test
+    public void testDeletedPostIsDropped() {
+        HotFeedService hotFeedService = service(10, post(1, 0, 0, 0), post(2, 1, 0, 0));
+        posts.remove(2);
+
+        assertEquals(List.of(1), ids(hotFeedService.getHotPosts(10)));
+        like(hotFeedService, 2, 100);
+        assertEquals(List.of(1), ids(hotFeedService.getHotPosts(10)));
+    }
+
+    @Test
+    public void testPostDeletedEventDropsPost() {
+        HotFeedService hotFeedService = service(10, post(1, 0, 0, 0), post(2, 1, 0, 0));
+
+        hotFeedService.handlePostDeletedEvent(new PostDeletedEvent(2));
+
+        assertEquals(List.of(1), ids(hotFeedService.getHotPosts(10)));
+        like(hotFeedService, 2, 100);
+        assertEquals(List.of(1), ids(hotFeedService.getHotPosts(10)));
+    }
+}
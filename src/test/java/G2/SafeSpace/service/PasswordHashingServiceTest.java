@@ -0,0 +1,66 @@
+package G2.SafeSpace.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PasswordHashingServiceTest {
+
+    @Test
+    public void testFullQueueRejectsTask() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PasswordHashingService hashingService = new PasswordHashingService(1, 1, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            CompletableFuture<String> running = hashingService.submit(() -> {
+                started.countDown();
+                awaitQuietly(release);
+                return "running";
+            });
+            started.await();
+            CompletableFuture<String> queued = hashingService.submit(() -> "queued");
+
+            CompletableFuture<String> rejected = hashingService.submit(() -> "rejected");
+
+            ExecutionException failure = assertThrows(ExecutionException.class, rejected::get);
+            assertInstanceOf(RejectedExecutionException.class, failure.getCause());
+            assertEquals(1.0, meterRegistry.counter("auth.hash.rejected").count());
+            release.countDown();
+            assertEquals("running", running.get());
+            assertEquals("queued", queued.get());
+        } finally {
+            release.countDown();
+            hashingService.shutdown();
+        }
+    }
+
+    @Test
+    public void testTaskRunsOnHashingThread() throws Exception {
+        PasswordHashingService hashingService = new PasswordHashingService(1, 1, new SimpleMeterRegistry());
+        try {
+            String threadName = hashingService.submit(() -> Thread.currentThread().getName()).get();
+
+            assertTrue(threadName.startsWith("password-hash-"));
+        } finally {
+            hashingService.shutdown();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
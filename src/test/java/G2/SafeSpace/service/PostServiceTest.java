@@ -0,0 +1,228 @@
+package G2.SafeSpace.service;
+
+import G2.SafeSpace.dto.CursorPageDTO;
+import G2.SafeSpace.dto.FieldSelection;
+import G2.SafeSpace.dto.PostDTO;
+import G2.SafeSpace.entity.Comment;
+import G2.SafeSpace.entity.Post;
+import G2.SafeSpace.entity.User;
+import G2.SafeSpace.event.CommentEvent;
+import G2.SafeSpace.event.PostCreatedEvent;
+import G2.SafeSpace.event.PostDeletedEvent;
+import G2.SafeSpace.repository.CommentRepository;
+import G2.SafeSpace.repository.PostRepository;
+import G2.SafeSpace.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PostServiceTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private CommentRepository commentRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final PostService postService;
+
+    private final User user = mock(User.class);
+
+    public PostServiceTest() {
+        MockitoAnnotations.openMocks(this);
+        postService = new PostService(postRepository, commentRepository, userRepository, eventPublisher, 100);
+        when(user.getUserID()).thenReturn(1);
+        when(user.getUsername()).thenReturn("user1");
+    }
+
+    @Test
+    public void testCreatePostCountsPostAndPublishesEvent() {
+        Post post = new Post();
+        post.setPost_content("  hello  ");
+        when(postRepository.save(post)).thenReturn(post);
+
+        assertSame(post, postService.createPost(post, user));
+
+        assertEquals("hello", post.getPost_content());
+        verify(userRepository).adjustPostCount(List.of(1), 1);
+        ArgumentCaptor<PostCreatedEvent> event = ArgumentCaptor.forClass(PostCreatedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(1, event.getValue().getPost().getPostCreatorID());
+        assertEquals(0, event.getValue().getPost().getLikeCount());
+    }
+
+    @Test
+    public void testCreateCommentCountsComment() {
+        Post post = mock(Post.class);
+        when(post.getPostID()).thenReturn(10);
+        Comment comment = new Comment();
+        comment.setCommentContent("nice");
+
+        assertSame(comment, postService.createComment(comment, user, post));
+
+        verify(postRepository).adjustCommentCount(List.of(10), 1);
+        ArgumentCaptor<CommentEvent> event = ArgumentCaptor.forClass(CommentEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(10, event.getValue().getPostID());
+        assertEquals("comment_added", event.getValue().getEventType());
+    }
+
+    @Test
+    public void testDeleteCommentUncountsCommentOfEachPost() {
+        Comment comment = new Comment();
+        when(commentRepository.findById(5)).thenReturn(Optional.of(comment));
+        when(postRepository.findPostIdsByCommentId(5)).thenReturn(List.of(10, 11));
+
+        assertTrue(postService.deleteComment(5));
+
+        verify(commentRepository).delete(comment);
+        verify(postRepository).adjustCommentCount(List.of(10, 11), -1);
+        verify(eventPublisher, times(2)).publishEvent(any(CommentEvent.class));
+    }
+
+    @Test
+    public void testDeleteMissingCommentChangesNothing() {
+        when(commentRepository.findById(5)).thenReturn(Optional.empty());
+
+        assertFalse(postService.deleteComment(5));
+
+        verify(postRepository, never()).adjustCommentCount(anyList(), anyInt());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    public void testDeletePostUncountsAndPublishesEvent() {
+        Post post = new Post();
+        when(postRepository.findById(10)).thenReturn(Optional.of(post));
+
+        assertTrue(postService.deletePost(10));
+
+        verify(userRepository).decrementPostCountOfCreators(10);
+        verify(userRepository).decrementLikesGivenCountOfLikers(10);
+        verify(postRepository).delete(post);
+        ArgumentCaptor<PostDeletedEvent> event = ArgumentCaptor.forClass(PostDeletedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(10, event.getValue().getPostID());
+    }
+
+    @Test
+    public void testDeleteMissingPostChangesNothing() {
+        when(postRepository.findById(10)).thenReturn(Optional.empty());
+
+        assertFalse(postService.deletePost(10));
+
+        verify(userRepository, never()).decrementPostCountOfCreators(anyInt());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    public void testRepairCountersWalksPostRangesAndStartsOver() {
+        when(postRepository.findMaxPostId()).thenReturn(150);
+
+        postService.repairCounters();
+        postService.repairCounters();
+        verify(postRepository).repairLikeCounts(0, 100);
+        verify(postRepository).repairCommentCounts(100, 200);
+
+        // past the last post the cursor starts over without repairing
+        postService.repairCounters();
+        postService.repairCounters();
+        verify(postRepository, times(2)).repairLikeCounts(0, 100);
+        verify(postRepository, never()).repairLikeCounts(200, 300);
+    }
+
+    @Test
+    public void testRepairCountersSkipsEmptyTable() {
+        when(postRepository.findMaxPostId()).thenReturn(null);
+
+        postService.repairCounters();
+
+        verify(postRepository, never()).repairLikeCounts(anyInt(), anyInt());
+    }
+
+    private static PostDTO postDTO(int postId) {
+        return new PostDTO(postId, "post " + postId, null, null, 1, "user1", 2, 3);
+    }
+
+    private static List<Integer> ids(CursorPageDTO<PostDTO> page) {
+        return page.getItems().stream().map(PostDTO::getPostID).toList();
+    }
+
+    @Test
+    public void testFirstPostsPageStartsFromNewestPost() {
+        when(postRepository.findPageBefore(Integer.MAX_VALUE, PageRequest.of(0, 3)))
+                .thenReturn(List.of(postDTO(9), postDTO(7), postDTO(4)));
+
+        CursorPageDTO<PostDTO> page = postService.findPostsPage(null, 2, FieldSelection.ALL);
+
+        assertEquals(List.of(9, 7), ids(page));
+        assertEquals(7, page.getNextCursor());
+    }
+
+    @Test
+    public void testLastPostsPageHasNoNextCursor() {
+        when(postRepository.findPageBefore(7, PageRequest.of(0, 3))).thenReturn(List.of(postDTO(4), postDTO(2)));
+
+        CursorPageDTO<PostDTO> page = postService.findPostsPage(7, 2, FieldSelection.ALL);
+
+        assertEquals(List.of(4, 2), ids(page));
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void testPostsPageWithoutCreatorOrCountsUsesBasicQuery() {
+        when(postRepository.findBasicPageBefore(Integer.MAX_VALUE, PageRequest.of(0, 11)))
+                .thenReturn(List.of(new PostDTO(9, "post 9", null, null)));
+
+        CursorPageDTO<PostDTO> page = postService.findPostsPage(null, 10, FieldSelection.of(List.of()));
+
+        assertEquals(List.of(9), ids(page));
+        verify(postRepository, never()).findPageBefore(anyInt(), any());
+    }
+
+    @Test
+    public void testPostIsReadFromOneProjectionWithSelectedFields() {
+        when(postRepository.findDTOById(9)).thenReturn(Optional.of(postDTO(9)));
+
+        PostDTO post = postService.findPostDTOById(9, FieldSelection.only("counts"));
+
+        assertEquals(2, post.getLikeCount());
+        assertEquals(3, post.getCommentCount());
+        assertNull(post.getPostCreatorID());
+        assertNull(post.getPostCreatorName());
+        verify(postRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    public void testMissingPostIsNull() {
+        when(postRepository.findDTOById(9)).thenReturn(Optional.empty());
+
+        assertNull(postService.findPostDTOById(9, FieldSelection.ALL));
+    }
+}
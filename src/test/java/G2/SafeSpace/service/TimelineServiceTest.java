@@ -0,0 +1,154 @@
+package G2.SafeSpace.service;
+
+import G2.SafeSpace.dto.CursorPageDTO;
+import G2.SafeSpace.dto.PostDTO;
+import G2.SafeSpace.event.PostCreatedEvent;
+import G2.SafeSpace.repository.PostRepository;
+import G2.SafeSpace.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TimelineServiceTest {
+
+    @Mock
+    private PostRepository postRepository;
+
+    private final FriendshipGraphService friendshipGraph =
+            new FriendshipGraphService(mock(UserRepository.class), new FriendshipGraphStore(""));
+
+    public TimelineServiceTest() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    private static PostDTO post(int postId, int creatorId) {
+        return new PostDTO(postId, "post " + postId, null, null, creatorId, "user" + creatorId, 0, 0);
+    }
+
+    private static List<Integer> ids(CursorPageDTO<PostDTO> page) {
+        return page.getItems().stream().map(PostDTO::getPostID).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void hydrateByCreator(int... creatorOfPost) {
+        when(postRepository.findDTOsByIds(anyCollection())).thenAnswer(invocation -> {
+            List<PostDTO> posts = new ArrayList<>();
+            for (int postId : (Collection<Integer>) invocation.getArgument(0)) {
+                posts.add(post(postId, creatorOfPost[postId]));
+            }
+            return posts;
+        });
+    }
+
+    /**
+     * Creates a timeline service in which user 1 follows user 2, with the ring of user 1 loaded empty.
+     */
+    private TimelineService emptyTimelineOfFollower(int timelineSize, int celebrityFollowers) {
+        friendshipGraph.addEdge(1, 2);
+        TimelineService timelineService =
+                new TimelineService(postRepository, friendshipGraph, timelineSize, celebrityFollowers, 10);
+        when(postRepository.findPostIdsByCreatorsBefore(anyCollection(), anyInt(), any())).thenReturn(List.of());
+        timelineService.getTimeline(1, null, 1);
+        return timelineService;
+    }
+
+    private void push(TimelineService timelineService, int... postIds) {
+        for (int postId : postIds) {
+            timelineService.handlePostCreatedEvent(new PostCreatedEvent(this, post(postId, 2)));
+        }
+    }
+
+    @Test
+    public void testFullRingDropsOldestPosts() {
+        TimelineService timelineService = emptyTimelineOfFollower(3, 100);
+        hydrateByCreator(0, 2, 2, 2, 2, 2);
+
+        push(timelineService, 1, 2, 3, 4, 5);
+
+        assertEquals(List.of(5, 4, 3), ids(timelineService.getTimeline(1, null, 10)));
+    }
+
+    @Test
+    public void testPostsAddedOutOfOrderArePagedNewestFirst() {
+        TimelineService timelineService = emptyTimelineOfFollower(10, 100);
+        hydrateByCreator(0, 2, 2, 2, 2, 2, 2);
+
+        // post 6 was created concurrently with 1 and 2 and added to the ring before them
+        push(timelineService, 6, 1, 2);
+
+        CursorPageDTO<PostDTO> first = timelineService.getTimeline(1, null, 1);
+        assertEquals(List.of(6), ids(first));
+        assertEquals(6, first.getNextCursor());
+        assertEquals(List.of(2, 1), ids(timelineService.getTimeline(1, 6, 10)));
+    }
+
+    @Test
+    public void testPostInRingAndPulledIsShownOnce() {
+        TimelineService timelineService = emptyTimelineOfFollower(10, 3);
+        hydrateByCreator(0, 2, 2, 2, 2, 2);
+        push(timelineService, 4);
+        // 2 becomes a celebrity after post 4 was pushed, so it is also read on demand
+        friendshipGraph.addEdge(3, 2);
+        friendshipGraph.addEdge(4, 2);
+        when(postRepository.findPostIdsByCreatorsBefore(List.of(2), Integer.MAX_VALUE, PageRequest.of(0, 11)))
+                .thenReturn(List.of(4, 3));
+
+        assertEquals(List.of(4, 3), ids(timelineService.getTimeline(1, null, 10)));
+    }
+
+    @Test
+    public void testTimelinePagesPushedPosts() {
+        // 1 follows 2 and 3; posts 1-5 are by 2, 6 is by 4
+        friendshipGraph.addEdge(1, 2);
+        friendshipGraph.addEdge(1, 3);
+        TimelineService timelineService = new TimelineService(postRepository, friendshipGraph, 10, 100, 10);
+        when(postRepository.findPostIdsByCreatorsBefore(anyCollection(), anyInt(), any())).thenReturn(List.of());
+        hydrateByCreator(0, 2, 2, 2, 2, 2, 4);
+
+        assertEquals(List.of(), ids(timelineService.getTimeline(1, null, 2)));
+        for (int postId = 1; postId <= 5; postId++) {
+            timelineService.handlePostCreatedEvent(new PostCreatedEvent(this, post(postId, 2)));
+        }
+        timelineService.handlePostCreatedEvent(new PostCreatedEvent(this, post(6, 4)));
+
+        CursorPageDTO<PostDTO> first = timelineService.getTimeline(1, null, 2);
+        assertEquals(List.of(5, 4), ids(first));
+        assertEquals(4, first.getNextCursor());
+        CursorPageDTO<PostDTO> last = timelineService.getTimeline(1, 2, 2);
+        assertEquals(List.of(1), ids(last));
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    public void testTimelineMergesPostsOfCelebrities() {
+        // 2 is a celebrity, followed by 1, 3 and 4; 1 also follows 5
+        friendshipGraph.addEdge(1, 2);
+        friendshipGraph.addEdge(3, 2);
+        friendshipGraph.addEdge(4, 2);
+        friendshipGraph.addEdge(1, 5);
+        TimelineService timelineService = new TimelineService(postRepository, friendshipGraph, 10, 3, 10);
+        when(postRepository.findPostIdsByCreatorsBefore(List.of(5), Integer.MAX_VALUE, PageRequest.of(0, 10)))
+                .thenReturn(List.of(4, 1));
+        when(postRepository.findPostIdsByCreatorsBefore(List.of(2), Integer.MAX_VALUE, PageRequest.of(0, 4)))
+                .thenReturn(List.of(3, 2));
+        hydrateByCreator(0, 5, 2, 2, 5);
+
+        CursorPageDTO<PostDTO> page = timelineService.getTimeline(1, null, 3);
+
+        assertEquals(List.of(4, 3, 2), ids(page));
+        assertEquals(2, page.getNextCursor());
+    }
+}
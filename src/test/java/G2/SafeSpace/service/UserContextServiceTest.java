@@ -0,0 +1,84 @@
+package G2.SafeSpace.service;
+
+import G2.SafeSpace.config.JwtPrincipal;
+import G2.SafeSpace.entity.User;
+import G2.SafeSpace.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UserContextServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final UserContextService userContextService;
+
+    public UserContextServiceTest() {
+        MockitoAnnotations.openMocks(this);
+        userContextService = new UserContextService(userRepository);
+    }
+
+    @AfterEach
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void authenticate(Object principal) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+
+    @Test
+    public void testUserIsLoadedOncePerRequest() {
+        User user = new User();
+        when(userRepository.findById(1)).thenReturn(Optional.of(user));
+        authenticate(new JwtPrincipal(1, "alice"));
+
+        assertSame(user, userContextService.getCurrentUser().orElseThrow());
+        assertSame(user, userContextService.getCurrentUser().orElseThrow());
+
+        verify(userRepository, times(1)).findById(1);
+    }
+
+    @Test
+    public void testDeletedUserIsResolvedOnce() {
+        when(userRepository.findById(1)).thenReturn(Optional.empty());
+        authenticate(new JwtPrincipal(1, "alice"));
+
+        assertTrue(userContextService.getCurrentUser().isEmpty());
+        assertTrue(userContextService.getCurrentUser().isEmpty());
+
+        verify(userRepository, times(1)).findById(1);
+    }
+
+    @Test
+    public void testUserIdComesFromClaimsWithoutQuery() {
+        authenticate(new JwtPrincipal(1, "alice"));
+
+        assertEquals(Optional.of(1), userContextService.getCurrentUserId());
+
+        verify(userRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    public void testUnauthenticatedRequestHasNoUser() {
+        assertTrue(userContextService.getCurrentUser().isEmpty());
+        assertTrue(userContextService.getCurrentUserId().isEmpty());
+    }
+}
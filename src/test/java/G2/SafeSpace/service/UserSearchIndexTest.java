@@ -0,0 +1,104 @@
+package G2.SafeSpace.service;
+
+import G2.SafeSpace.dto.UserSummaryDTO;
+import G2.SafeSpace.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+public class UserSearchIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final UserSearchIndex userSearchIndex;
+
+    public UserSearchIndexTest() {
+        MockitoAnnotations.openMocks(this);
+        userSearchIndex = new UserSearchIndex(userRepository);
+    }
+
+    private void load(UserSummaryDTO... summaries) {
+        when(userRepository.findAllSummaries()).thenReturn(List.of(summaries));
+        userSearchIndex.load();
+    }
+
+    private static List<String> names(List<UserSummaryDTO> results) {
+        return results.stream().map(UserSummaryDTO::getUsername).toList();
+    }
+
+    @Test
+    public void testRanksExactMatchThenShortestThenAlphabetical() {
+        load(new UserSummaryDTO(1, "annabel", null),
+                new UserSummaryDTO(2, "anna", null),
+                new UserSummaryDTO(3, "ann", null),
+                new UserSummaryDTO(4, "annie", null),
+                new UserSummaryDTO(5, "anne", null),
+                new UserSummaryDTO(6, "bob", null));
+
+        assertEquals(List.of("ann", "anna", "anne", "annie", "annabel"), names(userSearchIndex.search("ann", 10)));
+    }
+
+    @Test
+    public void testSearchIgnoresCaseAndWhitespace() {
+        load(new UserSummaryDTO(1, "Alice", null), new UserSummaryDTO(2, "alfred", null));
+
+        assertEquals(List.of("Alice", "alfred"), names(userSearchIndex.search("  AL ", 10)));
+    }
+
+    @Test
+    public void testSearchRespectsLimit() {
+        load(new UserSummaryDTO(1, "anna", null),
+                new UserSummaryDTO(2, "ann", null),
+                new UserSummaryDTO(3, "annie", null));
+
+        assertEquals(List.of("ann", "anna"), names(userSearchIndex.search("an", 2)));
+        assertTrue(userSearchIndex.search("an", 0).isEmpty());
+    }
+
+    @Test
+    public void testEmptyPrefixOrNoMatchFindsNothing() {
+        load(new UserSummaryDTO(1, "anna", null));
+
+        assertTrue(userSearchIndex.search(" ", 10).isEmpty());
+        assertTrue(userSearchIndex.search("bo", 10).isEmpty());
+    }
+
+    @Test
+    public void testShortestNamesRankFirstInBroadRange() {
+        List<UserSummaryDTO> summaries = new ArrayList<>();
+        // many long names sort before the short ones alphabetically
+        for (int i = 0; i < 2000; i++) {
+            summaries.add(new UserSummaryDTO(i, String.format("usera%04d", i), null));
+        }
+        summaries.add(new UserSummaryDTO(2000, "userz", null));
+        summaries.add(new UserSummaryDTO(2001, "user", null));
+        summaries.add(new UserSummaryDTO(2002, "userzz", null));
+        load(summaries.toArray(new UserSummaryDTO[0]));
+
+        assertEquals(List.of("user", "userz", "userzz", "usera0000"), names(userSearchIndex.search("user", 4)));
+        assertEquals(List.of("usera0000", "usera0001"), names(userSearchIndex.search("usera", 2)));
+    }
+
+    @Test
+    public void testRenameAndRemoveUpdateTheIndex() {
+        load(new UserSummaryDTO(1, "anna", null), new UserSummaryDTO(2, "bob", null));
+        load(new UserSummaryDTO(1, "hanna", null));
+
+        assertTrue(userSearchIndex.search("anna", 10).isEmpty());
+        assertEquals("hanna", userSearchIndex.getSummary(1).getUsername());
+
+        userSearchIndex.remove(2);
+
+        assertNull(userSearchIndex.getSummary(2));
+        assertTrue(userSearchIndex.search("bob", 10).isEmpty());
+    }
+}
@@ -0,0 +1,395 @@
+package G2.SafeSpace.service;
+
+import G2.SafeSpace.config.JwtService;
+import G2.SafeSpace.config.TokenRevocationRegistry;
+import G2.SafeSpace.dto.CursorPageDTO;
+import G2.SafeSpace.dto.FieldSelection;
+import G2.SafeSpace.dto.UserDTO;
+import G2.SafeSpace.dto.UserData;
+import G2.SafeSpace.dto.UserSummaryDTO;
+import G2.SafeSpace.dto.UserDetailedDTO;
+import G2.SafeSpace.entity.Post;
+import G2.SafeSpace.entity.User;
+import G2.SafeSpace.event.FriendrequestEvent;
+import G2.SafeSpace.event.LikeEvent;
+import G2.SafeSpace.repository.CommentRepository;
+import G2.SafeSpace.repository.PostRepository;
+import G2.SafeSpace.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UserServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PostRepository postRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UserSearchIndex userSearchIndex;
+
+    private final FriendshipGraphService friendshipGraph =
+            new FriendshipGraphService(mock(UserRepository.class), new FriendshipGraphStore(""));
+
+    private final UserService userService;
+
+    private final User user = user(1);
+    private final User friend = user(2);
+    private final Post post = mock(Post.class);
+
+    public UserServiceTest() {
+        MockitoAnnotations.openMocks(this);
+        userService = new UserService(userRepository, mock(UserContextService.class), mock(PasswordEncoder.class),
+                mock(JwtService.class), eventPublisher, mock(MessageService.class), mock(CommentRepository.class),
+                mock(TokenRevocationRegistry.class), mock(UsernameRegistry.class), userSearchIndex,
+                friendshipGraph, mock(FriendRecommendationService.class), postRepository,
+                mock(SectionFetchService.class), 500, 100);
+        when(post.getPostID()).thenReturn(10);
+    }
+
+    private void befriend(int first, int second) {
+        friendshipGraph.addEdge(first, second);
+        friendshipGraph.addEdge(second, first);
+    }
+
+    private void indexSummaries(int... userIds) {
+        for (int userId : userIds) {
+            when(userSearchIndex.getSummary(userId)).thenReturn(new UserSummaryDTO(userId, "user" + userId, "default"));
+        }
+    }
+
+    private static UserDTO userDTO(int userId) {
+        return new UserDTO(userId, "user" + userId, null, "default", null);
+    }
+
+    private static User user(int userId) {
+        User user = mock(User.class);
+        when(user.getUserID()).thenReturn(userId);
+        return user;
+    }
+
+    @Test
+    public void testLikeAddedCountsInsertedLike() {
+        when(userRepository.insertLike(1, 10)).thenReturn(1);
+
+        assertTrue(userService.likeAdded(user, post));
+
+        verify(userRepository).adjustLikesGivenCount(List.of(1), 1);
+        verify(postRepository).adjustLikeCount(List.of(10), 1);
+        ArgumentCaptor<LikeEvent> event = ArgumentCaptor.forClass(LikeEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals("like_added", event.getValue().getLikeDTO().getEventType());
+    }
+
+    @Test
+    public void testLikeAddedDoesNotCountExistingLike() {
+        // a concurrent identical request inserted the like first
+        when(userRepository.insertLike(1, 10)).thenReturn(0);
+
+        assertTrue(userService.likeAdded(user, post));
+
+        verify(userRepository, never()).adjustLikesGivenCount(anyList(), anyInt());
+        verify(postRepository, never()).adjustLikeCount(anyList(), anyInt());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    public void testLikeRemovedCountsDeletedLike() {
+        when(userRepository.deleteLike(1, 10)).thenReturn(1);
+
+        assertTrue(userService.likeRemoved(user, post));
+
+        verify(userRepository).adjustLikesGivenCount(List.of(1), -1);
+        verify(postRepository).adjustLikeCount(List.of(10), -1);
+    }
+
+    @Test
+    public void testLikeRemovedDoesNotCountMissingLike() {
+        when(userRepository.deleteLike(1, 10)).thenReturn(0);
+
+        assertTrue(userService.likeRemoved(user, post));
+
+        verify(userRepository, never()).adjustLikesGivenCount(anyList(), anyInt());
+        verify(postRepository, never()).adjustLikeCount(anyList(), anyInt());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    public void testAddFriendCountsFollow() {
+        when(userRepository.insertFriendship(1, 2)).thenReturn(1);
+        when(userRepository.updateFriendshipMutual(2, 1, true)).thenReturn(0);
+
+        assertEquals(Optional.of(user), userService.addFriend(user, friend));
+
+        verify(userRepository).adjustFriendshipCounts(List.of(1), 0, 1, 0);
+        verify(userRepository).adjustFriendshipCounts(List.of(2), 0, 0, 1);
+        verify(userRepository, never()).updateFriendshipMutual(1, 2, true);
+        assertArrayEquals(new int[]{2}, friendshipGraph.getFollowing(1));
+        ArgumentCaptor<FriendrequestEvent> event = ArgumentCaptor.forClass(FriendrequestEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals("friend_request", event.getValue().getFriendshipDTO().getEventType());
+    }
+
+    @Test
+    public void testAddFriendCountsFriendshipWhenFollowedBack() {
+        friendshipGraph.addEdge(2, 1);
+        when(userRepository.insertFriendship(1, 2)).thenReturn(1);
+        when(userRepository.updateFriendshipMutual(2, 1, true)).thenReturn(1);
+
+        userService.addFriend(user, friend);
+
+        verify(userRepository).updateFriendshipMutual(1, 2, true);
+        verify(userRepository).adjustFriendshipCounts(List.of(1), 1, 0, -1);
+        verify(userRepository).adjustFriendshipCounts(List.of(2), 1, -1, 0);
+        assertArrayEquals(new int[]{2}, friendshipGraph.getFriends(1));
+    }
+
+    @Test
+    public void testAddFriendDoesNotCountExistingEdge() {
+        when(userRepository.insertFriendship(1, 2)).thenReturn(0);
+
+        assertEquals(Optional.of(user), userService.addFriend(user, friend));
+
+        verify(userRepository, never()).updateFriendshipMutual(anyInt(), anyInt(), anyBoolean());
+        verify(userRepository, never()).adjustFriendshipCounts(anyList(), anyInt(), anyInt(), anyInt());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    public void testRemoveFriendCountsEndedFriendship() {
+        friendshipGraph.addEdge(1, 2);
+        friendshipGraph.addEdge(2, 1);
+        when(userRepository.countMutualFriendship(1, 2)).thenReturn(1);
+        when(userRepository.deleteFriendship(1, 2)).thenReturn(1);
+
+        userService.removeFriend(user, friend);
+
+        verify(userRepository).updateFriendshipMutual(2, 1, false);
+        verify(userRepository).adjustFriendshipCounts(List.of(1), -1, 0, 1);
+        verify(userRepository).adjustFriendshipCounts(List.of(2), -1, 1, 0);
+        assertArrayEquals(new int[]{2}, friendshipGraph.getFollowers(1));
+    }
+
+    @Test
+    public void testRemoveFriendCountsWithdrawnRequest() {
+        friendshipGraph.addEdge(1, 2);
+        when(userRepository.countMutualFriendship(1, 2)).thenReturn(0);
+        when(userRepository.deleteFriendship(1, 2)).thenReturn(1);
+
+        userService.removeFriend(user, friend);
+
+        verify(userRepository).adjustFriendshipCounts(List.of(1), 0, -1, 0);
+        verify(userRepository).adjustFriendshipCounts(List.of(2), 0, 0, -1);
+        assertArrayEquals(new int[0], friendshipGraph.getOutgoing(1));
+    }
+
+    @Test
+    public void testRemoveFriendClassifiesByMutualFlag() {
+        // the graph still shows a friendship, but the stored flag of the edge says otherwise
+        friendshipGraph.addEdge(1, 2);
+        friendshipGraph.addEdge(2, 1);
+        when(userRepository.countMutualFriendship(1, 2)).thenReturn(0);
+        when(userRepository.deleteFriendship(1, 2)).thenReturn(1);
+
+        userService.removeFriend(user, friend);
+
+        verify(userRepository, never()).updateFriendshipMutual(anyInt(), anyInt(), anyBoolean());
+        verify(userRepository).adjustFriendshipCounts(List.of(1), 0, -1, 0);
+        ArgumentCaptor<FriendrequestEvent> event = ArgumentCaptor.forClass(FriendrequestEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals("friend_request_removed", event.getValue().getFriendshipDTO().getEventType());
+    }
+
+    @Test
+    public void testRemoveFriendDoesNotCountMissingEdge() {
+        when(userRepository.deleteFriendship(1, 2)).thenReturn(0);
+
+        assertEquals(Optional.of(user), userService.removeFriend(user, friend));
+
+        verify(userRepository, never()).adjustFriendshipCounts(anyList(), anyInt(), anyInt(), anyInt());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    public void testFindUserByUsernameLooksUpNormalizedName() {
+        when(userRepository.findByNormalizedUsername("alice")).thenReturn(user);
+
+        assertEquals(user, userService.findUserByUsername("  ALICE "));
+        assertNull(userService.findUserByUsername(null));
+
+        verify(userRepository, times(1)).findByNormalizedUsername(anyString());
+        verify(userRepository, never()).findAll();
+    }
+
+    @Test
+    public void testSetUsernameKeepsNormalizedNameInSync() {
+        User renamed = new User();
+
+        renamed.setUsername(" Alice ");
+        assertEquals("alice", renamed.getNormalizedUsername());
+        renamed.setUsername("BOB");
+        assertEquals("bob", renamed.getNormalizedUsername());
+    }
+
+    @Test
+    public void testUsersPageFetchesOneExtraRowForNextCursor() {
+        when(userRepository.findPageAfter(0, PageRequest.of(0, 3)))
+                .thenReturn(List.of(userDTO(1), userDTO(2), userDTO(4)));
+
+        CursorPageDTO<UserDTO> page = userService.findUsersPage(0, 2, false);
+
+        assertEquals(List.of(1, 2), page.getItems().stream().map(UserDTO::getId).toList());
+        assertEquals(2, page.getNextCursor());
+        assertNull(page.getItems().get(0).getUserData());
+    }
+
+    @Test
+    public void testLastUsersPageHasNoNextCursor() {
+        when(userRepository.findPageAfter(2, PageRequest.of(0, 3))).thenReturn(List.of(userDTO(4), userDTO(5)));
+
+        CursorPageDTO<UserDTO> page = userService.findUsersPage(2, 2, false);
+
+        assertEquals(List.of(4, 5), page.getItems().stream().map(UserDTO::getId).toList());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void testUsersPageCountsComeFromGraph() {
+        friendshipGraph.addEdge(1, 2);
+        friendshipGraph.addEdge(2, 1);
+        friendshipGraph.addEdge(1, 3);
+        friendshipGraph.addEdge(4, 1);
+        when(userRepository.findPageAfter(0, PageRequest.of(0, 11))).thenReturn(List.of(userDTO(1)));
+
+        UserData counts = userService.findUsersPage(0, 10, true).getItems().get(0).getUserData();
+
+        assertEquals(1, counts.getFriendsCount());
+        assertEquals(1, counts.getFollowingCount());
+        assertEquals(1, counts.getFollowersCount());
+        assertNull(counts.getFriends());
+        verify(userRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    public void testMutualFriendsArePagedByCursor() {
+        // 1 and 2 are both friends with 3, 4 and 5
+        for (int friendId = 3; friendId <= 5; friendId++) {
+            befriend(1, friendId);
+            befriend(2, friendId);
+        }
+        befriend(1, 6);
+        indexSummaries(3, 4, 5, 6);
+
+        CursorPageDTO<UserSummaryDTO> first = userService.findMutualFriends(1, 2, 0, 2);
+        assertEquals(List.of(3, 4), first.getItems().stream().map(UserSummaryDTO::getId).toList());
+        assertEquals(4, first.getNextCursor());
+        assertEquals(3, first.getTotalCount());
+
+        CursorPageDTO<UserSummaryDTO> last = userService.findMutualFriends(1, 2, 4, 2);
+        assertEquals(List.of(5), last.getItems().stream().map(UserSummaryDTO::getId).toList());
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    public void testRelationshipsAreClassifiedFromGraph() {
+        befriend(1, 2);
+        friendshipGraph.addEdge(1, 3);
+        friendshipGraph.addEdge(4, 1);
+        indexSummaries(1, 2, 3, 4, 5);
+
+        Map<Integer, String> relationships = userService.getRelationships(1, Arrays.asList(5, 4, 3, 2, 1, 4, null, 99));
+
+        assertEquals(List.of(5, 4, 3, 2, 1), List.copyOf(relationships.keySet()));
+        assertEquals(List.of("none", "follower", "following", "friend", "self"), List.copyOf(relationships.values()));
+        verify(userRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    public void testUserDTOLoadsOnlySelectedSections() {
+        when(user.getUsername()).thenReturn("user1");
+        when(user.getFriendsCount()).thenReturn(3);
+
+        UserDTO userDTO = userService.createUserDTO(user, FieldSelection.only("counts"));
+
+        assertEquals(3, userDTO.getUserData().getFriendsCount());
+        assertNull(userDTO.getPosts());
+        assertNull(userDTO.getFriends());
+        verify(user, never()).getPosts();
+        verify(user, never()).getLikedPosts();
+        verify(user, never()).getFriends();
+    }
+
+    @Test
+    public void testRepairCountersWalksUserRangesAndStartsOver() {
+        when(userRepository.findMaxUserId()).thenReturn(150);
+
+        userService.repairCounters();
+        userService.repairCounters();
+        verify(userRepository).repairUserCounts(0, 100);
+        verify(userRepository).repairUserCounts(100, 200);
+
+        // past the last user the cursor starts over without repairing
+        userService.repairCounters();
+        userService.repairCounters();
+        verify(userRepository, times(2)).repairUserCounts(0, 100);
+        verify(userRepository, never()).repairUserCounts(200, 300);
+    }
+
+    @Test
+    public void testLateRelationshipsFallBackToCounts() {
+        SectionFetchService sectionFetchService = new SectionFetchService(2, 10, new SimpleMeterRegistry());
+        UserService detailedUserService = new UserService(userRepository, mock(UserContextService.class),
+                mock(PasswordEncoder.class), mock(JwtService.class), eventPublisher, mock(MessageService.class),
+                mock(CommentRepository.class), mock(TokenRevocationRegistry.class), mock(UsernameRegistry.class),
+                mock(UserSearchIndex.class), friendshipGraph, mock(FriendRecommendationService.class),
+                postRepository, sectionFetchService, 50, 100);
+        friendshipGraph.addEdge(1, 2);
+        friendshipGraph.addEdge(2, 1);
+        when(userRepository.findDTOsByIds(anyCollection())).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return List.of();
+        });
+        when(user.getFriendsCount()).thenReturn(1);
+        try {
+            UserDetailedDTO detailed =
+                    detailedUserService.generateUserDetailedDTO(user, FieldSelection.only("relationships"));
+
+            assertEquals(List.of("relationships"), detailed.getMissingSections());
+            assertEquals(1, detailed.getUser().getUserData().getFriendsCount());
+            assertNull(detailed.getUser().getUserData().getFriends());
+        } finally {
+            sectionFetchService.shutdown();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package G2.SafeSpace.service;
+
+import G2.SafeSpace.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UsernameRegistryTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final UsernameRegistry usernameRegistry;
+
+    public UsernameRegistryTest() {
+        MockitoAnnotations.openMocks(this);
+        usernameRegistry = new UsernameRegistry(userRepository, 1000, 0.01);
+    }
+
+    @Test
+    public void testBloomFilterHasNoFalseNegatives() {
+        UsernameRegistry.BloomFilter bloomFilter = new UsernameRegistry.BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            bloomFilter.put("user" + i);
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(bloomFilter.mightContain("user" + i));
+        }
+    }
+
+    @Test
+    public void testBloomFilterFalsePositiveRateStaysNearConfiguredRate() {
+        UsernameRegistry.BloomFilter bloomFilter = new UsernameRegistry.BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            bloomFilter.put("user" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (bloomFilter.mightContain("other" + i)) {
+                falsePositives++;
+            }
+        }
+        // 1% expected, allow for variance
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+
+    @Test
+    public void testUnknownNameIsAvailableWithoutQuery() {
+        assertTrue(usernameRegistry.isAvailable("alice"));
+        verify(userRepository, never()).existsByNormalizedUsername(anyString());
+    }
+
+    @Test
+    public void testLoadedNamesAreTakenIgnoringCase() {
+        when(userRepository.findAllNormalizedUsernames()).thenReturn(List.of("alice", "bob"));
+        usernameRegistry.load();
+
+        assertFalse(usernameRegistry.isAvailable("Alice"));
+        assertFalse(usernameRegistry.isAvailable(" bob "));
+        assertTrue(usernameRegistry.isAvailable("carol"));
+        verify(userRepository, never()).existsByNormalizedUsername(anyString());
+    }
+
+    @Test
+    public void testRenameReleasesOldNameAfterDatabaseCheck() {
+        usernameRegistry.register("alice");
+        usernameRegistry.rename("alice", "alicia");
+        when(userRepository.existsByNormalizedUsername("alice")).thenReturn(false);
+
+        assertTrue(usernameRegistry.isAvailable("alice"));
+        assertFalse(usernameRegistry.isAvailable("alicia"));
+        verify(userRepository).existsByNormalizedUsername("alice");
+    }
+
+    @Test
+    public void testRemovedNameFallsBackToDatabase() {
+        usernameRegistry.register("alice");
+        usernameRegistry.remove("alice");
+        when(userRepository.existsByNormalizedUsername("alice")).thenReturn(true);
+
+        // taken again, e.g. registered by another instance
+        assertFalse(usernameRegistry.isAvailable("alice"));
+        assertFalse(usernameRegistry.isAvailable("alice"));
+        verify(userRepository).existsByNormalizedUsername("alice");
+    }
+}